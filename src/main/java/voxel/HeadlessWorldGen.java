@@ -0,0 +1,213 @@
+package voxel;
+
+import voxel.model.BiomeType;
+import voxel.model.CancellationToken;
+import voxel.model.WorldGenerationOptions;
+import voxel.model.WorldModel;
+import voxel.view.ChunkMeshData;
+import voxel.view.ChunkMesher;
+import voxel.view.MeshData;
+import voxel.view.MeshingAlgorithm;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Point d'entrée sans affichage pour générer un monde et mesurer les performances.
+ * Aucune fenêtre ni contexte graphique n'est créé : utilisable sur une machine de build sans GPU.
+ *
+ * Exemple :
+ * java -cp evo3d.jar voxel.HeadlessWorldGen --size 16 --relief 4 --seed 1234 --mesh --output rapport.json
+ *
+ * Le rapport JSON contient la durée de chaque étape, le nombre de chunks, la mémoire utilisée
+ * et une empreinte du contenu du monde (identique d'une exécution à l'autre pour les mêmes paramètres).
+ */
+public class HeadlessWorldGen {
+
+    /**
+     * Point d'entrée de la génération sans affichage.
+     *
+     * @param args Options de la ligne de commande (voir {@link #printUsage()})
+     */
+    public static void main(String[] args) {
+        int temperature = 2;
+        int humidity = 2;
+        int relief = 2;
+        int worldSize = WorldModel.DEFAULT_WORLD_SIZE;
+        int worldSizeY = 8;
+        boolean floatingIsland = false;
+        boolean mesh = false;
+        MeshingAlgorithm meshingAlgorithm = MeshingAlgorithm.BINARY_GREEDY;
+        int lodScale = 1;
+        String output = null;
+        WorldGenerationOptions options = new WorldGenerationOptions();
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--temperature": temperature = Integer.parseInt(args[++i]); break;
+                    case "--humidity": humidity = Integer.parseInt(args[++i]); break;
+                    case "--relief": relief = Integer.parseInt(args[++i]); break;
+                    case "--size": worldSize = Integer.parseInt(args[++i]); break;
+                    case "--height": worldSizeY = Integer.parseInt(args[++i]); break;
+                    case "--seed": options.setSeed(Integer.parseInt(args[++i])); break;
+                    case "--erosion": options.setErosionIterations(Integer.parseInt(args[++i])); break;
+                    case "--erosion-tile": options.setErosionTileSize(Integer.parseInt(args[++i])); break;
+                    case "--no-caves": options.setCavesEnabled(false); break;
+                    case "--floating-island": floatingIsland = true; break;
+                    case "--mesh": mesh = true; break;
+                    case "--lod": lodScale = Integer.parseInt(args[++i]); break;
+                    case "--mesher":
+                        meshingAlgorithm = "greedy".equals(args[++i]) ? MeshingAlgorithm.GREEDY : MeshingAlgorithm.BINARY_GREEDY;
+                        break;
+                    case "--output": output = args[++i]; break;
+                    case "--help":
+                        printUsage();
+                        return;
+                    default:
+                        System.err.println("Option inconnue : " + args[i]);
+                        printUsage();
+                        System.exit(2);
+                        return;
+                }
+            }
+            if (lodScale != 1 && lodScale != 2 && lodScale != 4 && lodScale != 8) {
+                throw new NumberFormatException("--lod doit valoir 1, 2, 4 ou 8");
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            System.err.println("Arguments invalides : " + e.getMessage());
+            printUsage();
+            System.exit(2);
+            return;
+        }
+
+        // Les traces de la génération vont sur la sortie d'erreur pour que la sortie standard reste du JSON valide
+        PrintStream reportStream = System.out;
+        System.setOut(System.err);
+
+        Map<String, Long> timings = new LinkedHashMap<>();
+        long start = System.nanoTime();
+        BiomeType biome = floatingIsland ? BiomeType.FLOATING_ISLAND : null;
+        WorldModel world = new WorldModel(biome, worldSize, worldSizeY, temperature, humidity, relief,
+                options, new CancellationToken());
+        timings.putAll(world.getStageTimings());
+        timings.put("génération totale", (System.nanoTime() - start) / 1_000_000L);
+
+        // Statistiques de contenu
+        int totalChunks = world.getWorldSizeX() * world.getWorldSizeY() * world.getWorldSizeZ();
+        int nonEmptyChunks = 0;
+        for (int cx = 0; cx < world.getWorldSizeX(); cx++) {
+            for (int cy = 0; cy < world.getWorldSizeY(); cy++) {
+                for (int cz = 0; cz < world.getWorldSizeZ(); cz++) {
+                    if (!world.getChunk(cx, cy, cz).isEmpty()) {
+                        nonEmptyChunks++;
+                    }
+                }
+            }
+        }
+        long hashStart = System.nanoTime();
+        long contentHash = world.computeContentHash();
+        timings.put("empreinte", (System.nanoTime() - hashStart) / 1_000_000L);
+
+        // Passe de maillage optionnelle (données de maillage seules, sans Mesh ni envoi au GPU)
+        long vertices = 0;
+        long triangles = 0;
+        if (mesh) {
+            long meshStart = System.nanoTime();
+            ChunkMesher mesher = new ChunkMesher(world);
+            mesher.setAlgorithm(meshingAlgorithm);
+            for (int cx = 0; cx < world.getWorldSizeX(); cx++) {
+                for (int cy = 0; cy < world.getWorldSizeY(); cy++) {
+                    for (int cz = 0; cz < world.getWorldSizeZ(); cz++) {
+                        ChunkMeshData meshData = mesher.mesh(cx, cy, cz, 0, lodScale);
+                        for (MeshData data : new MeshData[]{meshData.getOpaque(), meshData.getTransparent()}) {
+                            if (data != null) {
+                                vertices += data.getVertexCount();
+                                triangles += data.getTriangleCount();
+                            }
+                        }
+                    }
+                }
+            }
+            timings.put("maillage", (System.nanoTime() - meshStart) / 1_000_000L);
+        }
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long usedMemory = runtime.totalMemory() - runtime.freeMemory();
+
+        // Rapport JSON
+        StringBuilder json = new StringBuilder();
+        json.append("{\n");
+        json.append("  \"parameters\": {")
+            .append("\"temperature\": ").append(temperature)
+            .append(", \"humidity\": ").append(humidity)
+            .append(", \"relief\": ").append(relief)
+            .append(", \"size\": ").append(worldSize)
+            .append(", \"height\": ").append(worldSizeY)
+            .append(", \"seed\": ").append(options.getSeed())
+            .append(", \"erosionIterations\": ").append(options.getErosionIterations())
+            .append(", \"erosionTileSize\": ").append(options.getErosionTileSize())
+            .append(", \"caves\": ").append(options.isCavesEnabled())
+            .append(", \"floatingIsland\": ").append(floatingIsland)
+            .append(", \"mesh\": ").append(mesh)
+            .append(", \"mesher\": \"").append(meshingAlgorithm).append('"')
+            .append(", \"lod\": ").append(lodScale)
+            .append("},\n");
+        json.append("  \"timingsMs\": {");
+        boolean first = true;
+        for (Map.Entry<String, Long> entry : timings.entrySet()) {
+            json.append(first ? "" : ", ").append('"').append(entry.getKey()).append("\": ").append(entry.getValue());
+            first = false;
+        }
+        json.append("},\n");
+        json.append("  \"chunks\": {\"total\": ").append(totalChunks)
+            .append(", \"nonEmpty\": ").append(nonEmptyChunks).append("},\n");
+        if (mesh) {
+            json.append("  \"mesh\": {\"vertices\": ").append(vertices)
+                .append(", \"triangles\": ").append(triangles).append("},\n");
+        }
+        json.append("  \"memoryUsedBytes\": ").append(usedMemory).append(",\n");
+        json.append("  \"contentHash\": \"").append(String.format("%016x", contentHash)).append("\"\n");
+        json.append("}\n");
+
+        System.setOut(reportStream);
+        if (output == null) {
+            System.out.print(json);
+        } else {
+            try {
+                Files.write(Paths.get(output), json.toString().getBytes(StandardCharsets.UTF_8));
+                System.out.println("Rapport écrit dans " + output);
+            } catch (IOException e) {
+                System.err.println("Impossible d'écrire le rapport : " + e.getMessage());
+                System.exit(1);
+            }
+        }
+    }
+
+    /**
+     * Affiche l'aide de la ligne de commande.
+     */
+    private static void printUsage() {
+        System.out.println("Usage : HeadlessWorldGen [options]");
+        System.out.println("  --temperature N    Température (0-4, défaut 2)");
+        System.out.println("  --humidity N       Humidité (0-4, défaut 2)");
+        System.out.println("  --relief N         Complexité du relief (0-4, défaut 2)");
+        System.out.println("  --size N           Taille du monde en chunks sur X et Z (défaut " + WorldModel.DEFAULT_WORLD_SIZE + ")");
+        System.out.println("  --height N         Hauteur du monde en chunks (défaut 8)");
+        System.out.println("  --seed N           Graine du monde (défaut " + WorldModel.DEFAULT_WORLD_SEED + ")");
+        System.out.println("  --erosion N        Itérations d'érosion (défaut 0 = désactivée)");
+        System.out.println("  --erosion-tile N   Taille des tuiles d'érosion en blocs (défaut 128)");
+        System.out.println("  --no-caves         Désactive les grottes");
+        System.out.println("  --floating-island  Génère une île flottante");
+        System.out.println("  --mesh             Exécute aussi la passe de maillage");
+        System.out.println("  --lod N            Facteur de réduction du maillage : 1 (défaut), 2, 4 ou 8");
+        System.out.println("  --mesher NOM       Algorithme de maillage : binary (défaut) ou greedy");
+        System.out.println("  --output FICHIER   Écrit le rapport JSON dans un fichier (sinon sortie standard)");
+    }
+}
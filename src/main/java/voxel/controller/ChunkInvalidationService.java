@@ -0,0 +1,135 @@
+package voxel.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import voxel.model.ChunkModel;
+import voxel.model.WorldModel;
+import voxel.view.WorldRenderer;
+
+/**
+ * Détermine quels chunks doivent être remaillés après la modification de blocs ou de leur éclairage.
+ * Le maillage d'un chunk dépend de ses blocs et de la bordure d'un bloc qui l'entoure :
+ * les voisins de face pour la visibilité des faces et la lumière, et aussi les voisins d'arête et de coin pour
+ * l'ambient occlusion. Un bloc modifié invalide donc son chunk et chaque chunk voisin (jusqu'à 7)
+ * dont la bordure le contient.
+ * Les invalidations sont regroupées jusqu'à {@link #flush()} : chaque chunk n'est remaillé qu'une fois par frame,
+ * seulement sur les tranches qui traversent la zone modifiée.
+ */
+public class ChunkInvalidationService {
+    /** Référence au modèle du monde */
+    private final WorldModel worldModel;
+
+    /** Référence au renderer du monde */
+    private final WorldRenderer worldRenderer;
+
+    /** Chunks à remailler lors du prochain flush, dans l'ordre des modifications */
+    private final Map<ChunkModel, PendingRemesh> pending = new LinkedHashMap<>();
+
+    /**
+     * Remaillage en attente d'un chunk : boîte englobant les blocs modifiés, relative au chunk
+     * (de -1 à 32 pour un bloc de la bordure).
+     */
+    private static final class PendingRemesh {
+        int minX, minY, minZ;
+        int maxX, maxY, maxZ;
+
+        PendingRemesh(int localX, int localY, int localZ) {
+            minX = maxX = localX;
+            minY = maxY = localY;
+            minZ = maxZ = localZ;
+        }
+
+        void include(int localX, int localY, int localZ) {
+            minX = Math.min(minX, localX);
+            minY = Math.min(minY, localY);
+            minZ = Math.min(minZ, localZ);
+            maxX = Math.max(maxX, localX);
+            maxY = Math.max(maxY, localY);
+            maxZ = Math.max(maxZ, localZ);
+        }
+    }
+
+    /**
+     * Crée le service d'invalidation.
+     *
+     * @param worldModel Le modèle du monde
+     * @param worldRenderer Le renderer du monde
+     */
+    public ChunkInvalidationService(WorldModel worldModel, WorldRenderer worldRenderer) {
+        this.worldModel = worldModel;
+        this.worldRenderer = worldRenderer;
+    }
+
+    /**
+     * Invalide les chunks dont le maillage dépend d'un bloc modifié ou dont l'éclairage a changé.
+     *
+     * @param x Coordonnée X globale du bloc (monde centré)
+     * @param y Coordonnée Y globale du bloc
+     * @param z Coordonnée Z globale du bloc (monde centré)
+     */
+    public void invalidateBlock(int x, int y, int z) {
+        final int SIZE = ChunkModel.SIZE;
+
+        // Chunk du bloc dans le tableau du monde et position locale
+        int chunkX = Math.floorDiv(x, SIZE);
+        int chunkY = Math.floorDiv(y, SIZE);
+        int chunkZ = Math.floorDiv(z, SIZE);
+        int localX = x - chunkX * SIZE;
+        int localY = y - chunkY * SIZE;
+        int localZ = z - chunkZ * SIZE;
+        int cx = chunkX + worldModel.getWorldSizeX() / 2;
+        int cy = chunkY;
+        int cz = chunkZ + worldModel.getWorldSizeZ() / 2;
+
+        // Un voisin n'est concerné sur un axe que si le bloc est sur la couche de bord tournée vers lui
+        int minDx = localX == 0 ? -1 : 0, maxDx = localX == SIZE - 1 ? 1 : 0;
+        int minDy = localY == 0 ? -1 : 0, maxDy = localY == SIZE - 1 ? 1 : 0;
+        int minDz = localZ == 0 ? -1 : 0, maxDz = localZ == SIZE - 1 ? 1 : 0;
+
+        for (int dx = minDx; dx <= maxDx; dx++) {
+            for (int dy = minDy; dy <= maxDy; dy++) {
+                for (int dz = minDz; dz <= maxDz; dz++) {
+                    ChunkModel chunk = worldModel.getChunk(cx + dx, cy + dy, cz + dz);
+                    if (chunk != null) {
+                        // Position du bloc vue depuis ce chunk (dans sa bordure pour un voisin)
+                        invalidate(chunk, localX - dx * SIZE, localY - dy * SIZE, localZ - dz * SIZE);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Enregistre l'invalidation d'un chunk par un bloc.
+     */
+    private void invalidate(ChunkModel chunk, int localX, int localY, int localZ) {
+        PendingRemesh remesh = pending.get(chunk);
+        if (remesh == null) {
+            pending.put(chunk, new PendingRemesh(localX, localY, localZ));
+            chunk.setNeedsUpdate(true);
+        } else {
+            remesh.include(localX, localY, localZ);
+        }
+    }
+
+    /**
+     * Demande le remaillage des chunks invalidés depuis le dernier appel. À appeler une fois par frame.
+     * Seules les tranches traversant la zone modifiée de chaque chunk sont recalculées.
+     *
+     * @return Le nombre de chunks dont le remaillage a été demandé
+     */
+    public int flush() {
+        int count = pending.size();
+        for (Map.Entry<ChunkModel, PendingRemesh> entry : pending.entrySet()) {
+            ChunkModel chunk = entry.getKey();
+            PendingRemesh remesh = entry.getValue();
+            worldRenderer.updateChunkMesh(chunk.getCx(), chunk.getCy(), chunk.getCz(),
+                                          remesh.minX, remesh.minY, remesh.minZ,
+                                          remesh.maxX, remesh.maxY, remesh.maxZ);
+            chunk.setNeedsUpdate(false);
+        }
+        pending.clear();
+        return count;
+    }
+}
@@ -6,7 +6,7 @@ import com.jme3.math.ColorRGBA;
 import com.jme3.renderer.Camera;
 import com.jme3.renderer.ViewPort;
 
-import voxel.model.MiniMap;
+import voxel.view.hud.MiniMap;
 import voxel.model.BiomeType;
 import voxel.model.WorldModel;
 import voxel.model.entity.Entity;
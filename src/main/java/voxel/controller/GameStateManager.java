@@ -9,11 +9,12 @@ import com.jme3.scene.Geometry;
 import com.jme3.scene.shape.Quad;
 import voxel.Main;
 import voxel.model.BiomeType;
-import voxel.model.MiniMap;
+import voxel.model.CancellationToken;
 import voxel.model.WorldModel;
 import voxel.view.hud.ChooseMenu;
 import voxel.view.hud.InGameMenu;
 import voxel.view.hud.LoadingScreen;
+import voxel.view.hud.MiniMap;
 import voxel.view.WorldRenderer;
 
 /**
@@ -68,6 +69,12 @@ public class GameStateManager {
     
     /** Référence au rectangle d'arrière-plan */
     private Geometry backgroundRectangle;
+
+    /** Thread de génération du monde en cours (null si aucune génération) */
+    private Thread worldGenThread;
+
+    /** Jeton d'annulation de la génération en cours */
+    private CancellationToken worldGenToken;
     
     /**
      * États possibles du jeu
@@ -115,6 +122,11 @@ public class GameStateManager {
      * @param newState Le nouvel état du jeu
      */
     public void changeState(GameState newState) {
+        // Retour au menu de sélection : abandonner une éventuelle génération en cours
+        if (newState == GameState.WORLD_SELECTION) {
+            cancelWorldGeneration();
+        }
+
         // Nettoyage de l'état précédent
         cleanupCurrentState();
         
@@ -273,14 +285,26 @@ public class GameStateManager {
         inputController.setActionToggleCoordinates(false);
         worldController.toggleCoordinatesDisplay(false);
 
+        // Une nouvelle demande remplace la génération en cours au lieu d'attendre sa fin
+        final Thread previousThread = worldGenThread;
+        cancelWorldGeneration();
+        final CancellationToken token = new CancellationToken();
+        worldGenToken = token;
+
         // Afficher l'écran de chargement
         changeState(GameState.LOADING);
 
         // Générer le nouveau monde (dans un thread séparé)
-        Thread worldGenThread = new Thread(() -> {
+        worldGenThread = new Thread(() -> {
             try {
+                // Attendre que l'ancienne génération ait libéré ses chunks (elle s'arrête rapidement une fois annulée)
+                if (previousThread != null) {
+                    previousThread.join();
+                }
+
                 // Simuler les étapes de génération avec la progression
                 for (int i = 0; i <= 100; i++) {
+                    token.throwIfCancelled();
                     final int progress = i;
                     // Mettre à jour la barre de progression
                     app.enqueue(() -> {
@@ -309,10 +333,17 @@ public class GameStateManager {
                 }
                 
                 // Créer le nouveau monde avec les paramètres environnementaux et la taille sélectionnée
-                WorldModel newWorld = new WorldModel(biome, worldSize, 8, temperature, humidity, reliefComplexity);
+                WorldModel newWorld = new WorldModel(biome, worldSize, WorldModel.DEFAULT_WORLD_HEIGHT, temperature, humidity, reliefComplexity, token);
 
                 // Initialiser le rendu et les contrôleurs pour ce monde
                 app.enqueue(() -> {
+                    // La génération a pu être annulée entre-temps : ignorer ce monde
+                    if (token.isCancelled()) {
+                        return null;
+                    }
+                    worldGenThread = null;
+                    worldGenToken = null;
+
                     // Détruire les anciennes ressources si elles existent
                     cleanupCurrentWorld();
 
@@ -335,6 +366,10 @@ public class GameStateManager {
                             public void run() {
                                 // Passer à l'état de jeu
                                 app.enqueue(() -> {
+                                    // Une nouvelle génération a pu démarrer pendant le délai
+                                    if (token.isCancelled() || currentState != GameState.LOADING) {
+                                        return null;
+                                    }
                                     changeState(GameState.IN_GAME);
                                     return null;
                                 });
@@ -345,12 +380,28 @@ public class GameStateManager {
                     
                     return null;
                 });
-            } catch (InterruptedException e) {
-                e.printStackTrace();
+            } catch (InterruptedException | java.util.concurrent.CancellationException e) {
+                // Génération annulée ou remplacée par une nouvelle demande
+                System.out.println("Génération du monde interrompue");
             }
-        });
+        }, "world-generation");
         worldGenThread.start();
     }
+
+    /**
+     * Annule la génération de monde en cours, s'il y en a une.
+     * Le thread de génération est interrompu et ses chunks partiels sont libérés.
+     */
+    public void cancelWorldGeneration() {
+        if (worldGenToken != null) {
+            worldGenToken.cancel();
+            worldGenToken = null;
+        }
+        if (worldGenThread != null) {
+            worldGenThread.interrupt();
+            worldGenThread = null;
+        }
+    }
     
     /**
      * Nettoie les ressources du monde actuel
@@ -360,12 +411,19 @@ public class GameStateManager {
             // Détacher les nœuds de rendu
             app.getRootNode().detachChild(worldRenderer.getNode());
             app.getRootNode().detachChild(worldRenderer.getSkyNode());
+
+            // Arrêter les threads de maillage
+            worldRenderer.dispose();
             
             // Réinitialiser les références
             worldRenderer = null;
             worldController = null;
             entityController = null;
             gameController = null;
+            if (miniMap != null) {
+                miniMap.dispose();
+                currentWorld.setBlockChangeListener(null);
+            }
             currentWorld = null;
             miniMap = null;
         }
@@ -424,7 +482,8 @@ public class GameStateManager {
     private void initializeMiniMap() {
         if (miniMap == null && currentWorld != null) {
             // Créer la minimap
-            miniMap = new MiniMap(app.getCamera(), app.getRenderManager(), app.getAssetManager(), app.getRootNode());
+            miniMap = new MiniMap(app, currentWorld);
+            currentWorld.setBlockChangeListener(miniMap::blockChanged);
             
             // Recréer le GameController avec la minimap
             gameController = new GameController(currentWorld, worldRenderer, inputController, worldController,
@@ -529,6 +588,9 @@ public class GameStateManager {
                 gameController.update(tpf, app.getViewPort());
             }
             
+            // Calcul progressif de l'aperçu du terrain dans le menu
+            worldSelectionMenu.update(tpf);
+
             // Gérer l'affichage du message après 5 secondes
             worldSelectionTimer += tpf;
             if (worldSelectionTimer >= 5.0f) {
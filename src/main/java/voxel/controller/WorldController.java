@@ -2,7 +2,6 @@ package voxel.controller;
 
 import com.jme3.renderer.ViewPort;
 
-import com.jme3.math.Vector3f;
 import java.util.ArrayList;
 import voxel.model.BiomeType;
 import voxel.model.BlockType;
@@ -13,10 +12,8 @@ import voxel.model.structure.StructureManager;
 import voxel.model.structure.plant.BasicTree;
 import voxel.view.WorldRenderer;
 
-import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
-import java.util.Set;
 
 import voxel.controller.GameStateManager;
 
@@ -52,6 +49,9 @@ public class WorldController {
     private float treeGenerationTimer = 0f;
     private final float TREE_GENERATION_INTERVAL = 300f; // Essayer de générer un arbre toutes les 5 minutes (très rare)
 
+    /** Chunks à remailler après modification de blocs (regroupés par frame) */
+    private final ChunkInvalidationService invalidationService;
+
     /**
      * Crée un nouveau contrôleur pour le monde.
      * 
@@ -61,6 +61,11 @@ public class WorldController {
     public WorldController(WorldModel worldModel, WorldRenderer worldRenderer) {
         this.worldModel = worldModel;
         this.worldRenderer = worldRenderer;
+        this.invalidationService = new ChunkInvalidationService(worldModel, worldRenderer);
+        // Les chunks dont l'éclairage change sont remaillés comme si leurs blocs avaient été modifiés
+        if (worldModel.getLightEngine() != null) {
+            worldModel.getLightEngine().setListener(invalidationService::invalidateBlock);
+        }
         this.structureManager = new StructureManager();
         this.random = new Random();
         
@@ -79,7 +84,7 @@ public class WorldController {
 //                             tree.getWorldX() + ", " + tree.getWorldY() + ", " + tree.getWorldZ() + ")");
             
             // Régénérer le nouvel arbre plus grand
-            generateTree(tree, tree.getWorldX(), tree.getWorldY(), tree.getWorldZ());
+            scheduleTreeGeneration(tree);
         }
     }
     
@@ -121,8 +126,6 @@ public class WorldController {
         int worldY = tree.getWorldY();
         int worldZ = tree.getWorldZ();
         
-        Set<Vector3f> chunksToUpdate = new HashSet<>();
-        
         for (int x = 0; x < width; x++) {
             for (int y = 0; y < height; y++) {
                 for (int z = 0; z < width; z++) {
@@ -140,22 +143,13 @@ public class WorldController {
                             (currentBlock == BlockType.LOG.getId() || currentBlock == BlockType.LEAVES.getId())) {
                             worldModel.setBlockAt(blockX, blockY, blockZ, BlockType.AIR.getId(), 0);
                             
-                            // Marquer le chunk pour mise à jour
-                            Vector3f chunkCoords = worldModel.getChunkCoordAt(blockX, blockY, blockZ);
-                            chunksToUpdate.add(chunkCoords);
+                            // Marquer les chunks dépendant de ce bloc pour mise à jour
+                            invalidationService.invalidateBlock(blockX, blockY, blockZ);
                         }
                     }
                 }
             }
         }
-        
-        // Marquer tous les chunks affectés pour mise à jour
-        for (Vector3f chunkCoord : chunksToUpdate) {
-            ChunkModel chunk = worldModel.getChunk((int)chunkCoord.x, (int)chunkCoord.y, (int)chunkCoord.z);
-            if (chunk != null) {
-                chunk.setNeedsUpdate(true);
-            }
-        }
     }
     
     /**
@@ -212,7 +206,7 @@ public class WorldController {
             newTree.setWorldPosition(worldX, groundHeight, worldZ);
             
             structureManager.addStructure(newTree);
-            generateTree(newTree, worldX, groundHeight, worldZ);
+            scheduleTreeGeneration(newTree);
             
 //            System.out.println("Nouvel arbre planté à la position (" + worldX + ", " + groundHeight + ", " + worldZ + ")");
             return;
@@ -291,7 +285,7 @@ public class WorldController {
             structureManager.addStructure(tree);
             
             // Générer l'arbre dans le monde
-            generateTree(tree, worldX, groundHeight, worldZ);
+            scheduleTreeGeneration(tree);
             
             treesGenerated++;
 //            System.out.println("Arbre " + treesGenerated + " généré à la position (" + worldX + ", " + groundHeight + ", " + worldZ + ") - Taille: " + treeWidth + "x" + treeHeight);
@@ -331,6 +325,20 @@ public class WorldController {
         worldRenderer.setDisplayCoordinates(display);
     }
 
+    /**
+     * Planifie la pose des blocs d'un arbre sur le thread de rendu, dans le budget de temps des frames
+     * (les arbres proches de la caméra d'abord). La pose est abandonnée si l'arbre a disparu entre-temps.
+     *
+     * @param tree L'arbre à poser à sa position dans le monde
+     */
+    private void scheduleTreeGeneration(BasicTree tree) {
+        worldRenderer.getFrameScheduler().submit(tree.getWorldX(), tree.getWorldY(), tree.getWorldZ(), () -> {
+            if (structureManager.getStructures().contains(tree)) {
+                generateTree(tree, tree.getWorldX(), tree.getWorldY(), tree.getWorldZ());
+            }
+        });
+    }
+
     public void generateTree(BasicTree tree, int worldX, int worldY, int worldZ){
         int[][][] treeBlocks = tree.getBlocks();
         int width = tree.getWidth();
@@ -368,46 +376,8 @@ public class WorldController {
 
                                 if (modified){
                                     try {
-                                        Vector3f chunkCoords = worldModel.getChunkCoordAt(blockX, blockY, blockZ);
-                                        int cx = (int) chunkCoords.x;
-                                        int cy = (int) chunkCoords.y;
-                                        int cz = (int) chunkCoords.z;
-
-                                        // Indique que le chunk doit être rechargé (vérification sécurisée)
-                                        ChunkModel currentChunk = worldModel.getChunk(cx, cy, cz);
-                                        if (currentChunk != null) {
-                                            currentChunk.setNeedsUpdate(true);
-
-                                            int localX = worldX - (cx - worldModel.getWorldSizeX() / 2) * ChunkModel.SIZE;
-                                            int localY = worldY - cy * ChunkModel.SIZE;
-                                            int localZ = worldZ - (cz - worldModel.getWorldSizeZ() / 2) * ChunkModel.SIZE;
-
-                                            // Si on est en bordure d'un chunk, mettre à jour les chunks voisins
-                                            if (localX == 0) {
-                                                ChunkModel neighborChunk = worldModel.getChunk(cx-1, cy, cz);
-                                                if (neighborChunk != null) neighborChunk.setNeedsUpdate(true);
-                                            }
-                                            if (localX == 15) {
-                                                ChunkModel neighborChunk = worldModel.getChunk(cx+1, cy, cz);
-                                                if (neighborChunk != null) neighborChunk.setNeedsUpdate(true);
-                                            }
-                                            if (localY == 0) {
-                                                ChunkModel neighborChunk = worldModel.getChunk(cx, cy-1, cz);
-                                                if (neighborChunk != null) neighborChunk.setNeedsUpdate(true);
-                                            }
-                                            if (localY == 15) {
-                                                ChunkModel neighborChunk = worldModel.getChunk(cx, cy+1, cz);
-                                                if (neighborChunk != null) neighborChunk.setNeedsUpdate(true);
-                                            }
-                                            if (localZ == 0) {
-                                                ChunkModel neighborChunk = worldModel.getChunk(cx, cy, cz-1);
-                                                if (neighborChunk != null) neighborChunk.setNeedsUpdate(true);
-                                            }
-                                            if (localZ == 15) {
-                                                ChunkModel neighborChunk = worldModel.getChunk(cx, cy, cz+1);
-                                                if (neighborChunk != null) neighborChunk.setNeedsUpdate(true);
-                                            }
-                                        }
+                                        // Marquer les chunks dépendant de ce bloc pour mise à jour
+                                        invalidationService.invalidateBlock(blockX, blockY, blockZ);
                                     } catch (Exception e) {
                                         System.err.println("Erreur lors de la génération d'arbre à la position (" + blockX + ", " + blockY + ", " + blockZ + "): " + e.getMessage());
                                         // Continue sans planter le jeu
@@ -421,20 +391,11 @@ public class WorldController {
         }
     }
 
+    /**
+     * Demande le remaillage des chunks modifiés depuis la dernière frame.
+     */
     public void updateNeededChunks() {
-        int compteurChunkUpdated = 0;
-        for (int cx = 0; cx < worldModel.getWorldSizeX(); cx++) {
-            for (int cy = 0; cy < worldModel.getWorldSizeY(); cy++) {
-                for (int cz = 0; cz < worldModel.getWorldSizeZ(); cz++) {
-                    ChunkModel chunk = worldModel.getChunk(cx, cy, cz);
-                    if (chunk.getNeedsUpdate()) {
-                        worldRenderer.updateChunkMesh(cx, cy, cz);
-                        chunk.setNeedsUpdate(false);
-                        compteurChunkUpdated++;
-                    }
-                }
-            }
-        }
+        int compteurChunkUpdated = invalidationService.flush();
         if (compteurChunkUpdated > 0) {
             System.out.println("Nombre de chunks mis à jour: " + compteurChunkUpdated);
         }
@@ -453,33 +414,9 @@ public class WorldController {
         boolean modified = worldModel.setBlockAt(x, y, z, blockType.getId());
 
         if (modified) {
-            // Calcul des coordonnées du chunk sans décalage
-            int chunkX = Math.floorDiv(x, ChunkModel.SIZE);
-            int chunkY = Math.floorDiv(y, ChunkModel.SIZE);
-            int chunkZ = Math.floorDiv(z, ChunkModel.SIZE);
-
-            // Calcul des coordonnées locales à l'intérieur du chunk
-            int localX = x - chunkX * ChunkModel.SIZE;
-            int localY = y - chunkY * ChunkModel.SIZE;
-            int localZ = z - chunkZ * ChunkModel.SIZE;
-
-            // Appliquer le décalage pour le stockage dans le tableau de chunks
-            int cx = chunkX + worldModel.getWorldSizeX() / 2;
-            int cy = chunkY;
-            int cz = chunkZ + worldModel.getWorldSizeZ() / 2;
-
-            System.out.println("Chunk modifié: " + cx + ", " + cy + ", " + cz);
-
-            // Mettre à jour le maillage du chunk
-            worldRenderer.updateChunkMesh(cx, cy, cz);
-
-            // Si on est en bordure d'un chunk, mettre à jour les chunks voisins
-            if (localX == 0) worldRenderer.updateChunkMesh(chunkX - 1, chunkY, chunkZ);
-            if (localX == 15) worldRenderer.updateChunkMesh(chunkX + 1, chunkY, chunkZ);
-            if (localY == 0) worldRenderer.updateChunkMesh(chunkX, chunkY - 1, chunkZ);
-            if (localY == 15) worldRenderer.updateChunkMesh(chunkX, chunkY + 1, chunkZ);
-            if (localZ == 0) worldRenderer.updateChunkMesh(chunkX, chunkY, chunkZ - 1);
-            if (localZ == 15) worldRenderer.updateChunkMesh(chunkX, chunkY, chunkZ + 1);
+            // Le chunk du bloc et les voisins dont la bordure contient ce bloc (faces, arêtes et coins)
+            // seront remaillés à la fin de la frame
+            invalidationService.invalidateBlock(x, y, z);
         }
         
         return modified;
@@ -82,6 +82,31 @@ public enum BlockType {
     QUICKSAND(47, new ColorRGBA(0.8f, 0.7f, 0.5f, 0.8f)), // Sables mouvants (semi-transparent)
     MINERAL_WATER(48, new ColorRGBA(0.4f, 0.6f, 0.7f, 0.7f)); // Eau minérale (sources thermales)
 
+    /** Plus petit identifiant de bloc (INVISIBLE) */
+    private static final int MIN_ID = -2;
+
+    /** Table de correspondance identifiant -> type, indexée par id - MIN_ID (évite de copier values() à chaque appel) */
+    private static final BlockType[] BY_ID;
+
+    /** Opacité à la lumière et lumière émise de chaque type, indexées comme BY_ID (consultées à chaque pas de propagation) */
+    private static final int[] LIGHT_OPACITY_BY_ID;
+    private static final int[] LIGHT_EMISSION_BY_ID;
+
+    static {
+        int maxId = MIN_ID;
+        for (BlockType type : values()) {
+            maxId = Math.max(maxId, type.id);
+        }
+        BY_ID = new BlockType[maxId - MIN_ID + 1];
+        LIGHT_OPACITY_BY_ID = new int[BY_ID.length];
+        LIGHT_EMISSION_BY_ID = new int[BY_ID.length];
+        for (BlockType type : values()) {
+            BY_ID[type.id - MIN_ID] = type;
+            LIGHT_OPACITY_BY_ID[type.id - MIN_ID] = type.getLightOpacity();
+            LIGHT_EMISSION_BY_ID[type.id - MIN_ID] = type.getLightEmission();
+        }
+    }
+
     /** Identifiant unique du type de bloc */
     private final int id;
     
@@ -158,6 +183,33 @@ public enum BlockType {
                this == SWAMP_GRASS || this == TUNDRA_GRASS || this == MOSS || this == LICHEN;
     }
 
+    /**
+     * Récupère l'atténuation de la lumière qui traverse ce bloc, en plus de la perte d'un niveau par bloc.
+     * 
+     * @return 0 pour l'air, 1 ou 2 pour les blocs qui laissent passer la lumière, 15 pour les blocs opaques
+     */
+    public int getLightOpacity() {
+        if (this == AIR || this == VOID || this == INVISIBLE) {
+            return 0;
+        }
+        if (isWater()) {
+            return 2;
+        }
+        if (isTransparent() || this == LEAVES) {
+            return 1;
+        }
+        return 15;
+    }
+
+    /**
+     * Récupère le niveau de lumière émis par ce bloc.
+     * 
+     * @return Le niveau de lumière (0 à 15), 0 si le bloc n'éclaire pas
+     */
+    public int getLightEmission() {
+        return this == LAVA ? 15 : 0;
+    }
+
     /**
      * Récupère un type de bloc à partir de son identifiant.
      * 
@@ -165,12 +217,11 @@ public enum BlockType {
      * @return Le type de bloc correspondant, ou AIR si aucun bloc ne correspond
      */
     public static BlockType fromId(int id) {
-        for (BlockType type : values()) {
-            if (type.id == id) {
-                return type;
-            }
+        int index = id - MIN_ID;
+        if (index < 0 || index >= BY_ID.length || BY_ID[index] == null) {
+            return AIR;
         }
-        return AIR;
+        return BY_ID[index];
     }
 
     /**
@@ -194,4 +245,26 @@ public enum BlockType {
         BlockType type = fromId(blockId);
         return type.isTransparent();
     }
+
+    /**
+     * Méthode utilitaire statique pour récupérer l'opacité à la lumière d'un bloc.
+     * 
+     * @param blockId L'identifiant du bloc
+     * @return L'atténuation de la lumière (voir {@link #getLightOpacity()})
+     */
+    public static int lightOpacity(int blockId) {
+        int index = blockId - MIN_ID;
+        return index >= 0 && index < LIGHT_OPACITY_BY_ID.length ? LIGHT_OPACITY_BY_ID[index] : 0;
+    }
+
+    /**
+     * Méthode utilitaire statique pour récupérer la lumière émise par un bloc.
+     * 
+     * @param blockId L'identifiant du bloc
+     * @return Le niveau de lumière émis (0 à 15)
+     */
+    public static int lightEmission(int blockId) {
+        int index = blockId - MIN_ID;
+        return index >= 0 && index < LIGHT_EMISSION_BY_ID.length ? LIGHT_EMISSION_BY_ID[index] : 0;
+    }
 } 
\ No newline at end of file
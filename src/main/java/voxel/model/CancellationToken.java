@@ -0,0 +1,38 @@
+package voxel.model;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Jeton d'annulation coopérative pour la génération d'un monde.
+ * Le demandeur annule le jeton, les tâches de génération le consultent
+ * régulièrement (à chaque colonne) et s'arrêtent dès qu'il est annulé.
+ */
+public class CancellationToken {
+    /** Indique si l'annulation a été demandée (lu par les threads de génération) */
+    private volatile boolean cancelled = false;
+
+    /**
+     * Demande l'annulation de la génération associée à ce jeton.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Vérifie si l'annulation a été demandée.
+     *
+     * @return true si la génération doit s'arrêter
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Lève une CancellationException si l'annulation a été demandée.
+     */
+    public void throwIfCancelled() {
+        if (cancelled) {
+            throw new CancellationException("Génération du monde annulée");
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package voxel.model;
+
+/**
+ * Creuse des grottes et des surplombs dans le terrain à partir d'un bruit de Perlin 3D.
+ * La densité n'est pas évaluée pour chaque voxel : elle est calculée sur un réseau grossier
+ * (un point tous les 4x8x4 blocs) puis interpolée de façon trilinéaire à l'intérieur du chunk.
+ * Comme une interpolation trilinéaire reste comprise entre les valeurs des coins, les bornes du
+ * réseau suffisent pour ignorer un chunk (ou une cellule) sans grotte, ou pour le vider d'un bloc.
+ */
+class CaveCarver {
+    /** Taille d'une cellule du réseau en blocs (horizontal et vertical) */
+    private static final int CELL_XZ = 4;
+    private static final int CELL_Y = 8;
+
+    /** Nombre de points du réseau par axe dans un chunk */
+    private static final int NX = ChunkModel.SIZE / CELL_XZ + 1;
+    private static final int NY = ChunkModel.SIZE / CELL_Y + 1;
+    private static final int NZ = NX;
+
+    /** Fréquences du bruit (les grottes sont plus étirées à l'horizontale) */
+    private static final float FREQ_XZ = 0.03f;
+    private static final float FREQ_Y = 0.06f;
+
+    /** Seuil de densité au-delà duquel le bloc est creusé */
+    private static final float THRESHOLD = 0.94f;
+
+    /** Hauteur minimale des grottes (le fond du monde reste plein) */
+    private static final int MIN_CAVE_Y = 2;
+
+    /** Épaisseur de terrain préservée sous l'eau pour ne pas ouvrir les fonds marins */
+    private static final int SEABED_THICKNESS = 8;
+
+    /** Deux bruits indépendants : les tunnels suivent l'intersection de leurs crêtes */
+    private final PerlinNoise tunnelNoiseA;
+    private final PerlinNoise tunnelNoiseB;
+
+    /** Identifiant du bloc utilisé pour creuser */
+    private final int airId = BlockType.AIR.getId();
+
+    /**
+     * Crée le générateur de grottes.
+     *
+     * @param seed Graine du monde
+     */
+    CaveCarver(int seed) {
+        tunnelNoiseA = new PerlinNoise(seed + 4000);
+        tunnelNoiseB = new PerlinNoise(seed + 5000);
+    }
+
+    /**
+     * Creuse les grottes d'un chunk déjà rempli par le gabarit de colonne.
+     *
+     * @param chunk Le chunk à creuser
+     * @param chunkBaseY Coordonnée Y globale du bas du chunk
+     * @param worldXStart Coordonnée mondiale X du coin du chunk
+     * @param worldZStart Coordonnée mondiale Z du coin du chunk
+     * @param terrainHeights Hauteurs du terrain des colonnes du chunk, indexées par x + SIZE * z
+     * @param waterLevel Niveau de l'eau
+     */
+    void carve(ChunkModel chunk, int chunkBaseY, float worldXStart, float worldZStart, int[] terrainHeights, int waterLevel) {
+        // Limite haute (exclue) du creusement pour chaque colonne, en coordonnées locales
+        int[] carveTop = new int[ChunkModel.SIZE * ChunkModel.SIZE];
+        int maxCarveTop = 0;
+        for (int i = 0; i < carveTop.length; i++) {
+            int height = terrainHeights[i];
+            int top = height > waterLevel ? height : height - SEABED_THICKNESS;
+            carveTop[i] = Math.min(ChunkModel.SIZE, top - chunkBaseY);
+            maxCarveTop = Math.max(maxCarveTop, carveTop[i]);
+        }
+        int carveBottom = Math.max(0, MIN_CAVE_Y - chunkBaseY);
+
+        // Chunk entièrement au-dessus du terrain ou sous le fond des grottes : rien à faire
+        if (maxCarveTop <= carveBottom) {
+            return;
+        }
+
+        // Évaluation de la densité sur le réseau grossier
+        float[] lattice = new float[NX * NY * NZ];
+        float min = Float.MAX_VALUE;
+        float max = -Float.MAX_VALUE;
+        for (int lz = 0; lz < NZ; lz++) {
+            for (int ly = 0; ly < NY; ly++) {
+                for (int lx = 0; lx < NX; lx++) {
+                    float density = density(worldXStart + lx * CELL_XZ, chunkBaseY + ly * CELL_Y, worldZStart + lz * CELL_XZ);
+                    lattice[latticeIndex(lx, ly, lz)] = density;
+                    min = Math.min(min, density);
+                    max = Math.max(max, density);
+                }
+            }
+        }
+
+        // Aucune valeur interpolée ne peut dépasser le seuil : chunk entièrement plein
+        if (max <= THRESHOLD) {
+            return;
+        }
+
+        // Toutes les valeurs dépassent le seuil : chunk entièrement creusé
+        if (min > THRESHOLD) {
+            for (int z = 0; z < ChunkModel.SIZE; z++) {
+                for (int x = 0; x < ChunkModel.SIZE; x++) {
+                    chunk.fillColumn(x, z, carveBottom, carveTop[x + ChunkModel.SIZE * z] - 1, airId);
+                }
+            }
+            return;
+        }
+
+        // Cas mixte : traitement cellule par cellule
+        for (int cz = 0; cz < NZ - 1; cz++) {
+            for (int cy = 0; cy < NY - 1; cy++) {
+                for (int cx = 0; cx < NX - 1; cx++) {
+                    carveCell(chunk, lattice, cx, cy, cz, carveTop, carveBottom);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creuse une cellule du réseau en interpolant la densité entre ses huit coins.
+     */
+    private void carveCell(ChunkModel chunk, float[] lattice, int cx, int cy, int cz, int[] carveTop, int carveBottom) {
+        float c000 = lattice[latticeIndex(cx, cy, cz)];
+        float c100 = lattice[latticeIndex(cx + 1, cy, cz)];
+        float c010 = lattice[latticeIndex(cx, cy + 1, cz)];
+        float c110 = lattice[latticeIndex(cx + 1, cy + 1, cz)];
+        float c001 = lattice[latticeIndex(cx, cy, cz + 1)];
+        float c101 = lattice[latticeIndex(cx + 1, cy, cz + 1)];
+        float c011 = lattice[latticeIndex(cx, cy + 1, cz + 1)];
+        float c111 = lattice[latticeIndex(cx + 1, cy + 1, cz + 1)];
+
+        float cellMax = Math.max(Math.max(Math.max(c000, c100), Math.max(c010, c110)),
+                Math.max(Math.max(c001, c101), Math.max(c011, c111)));
+        if (cellMax <= THRESHOLD) {
+            return;
+        }
+        float cellMin = Math.min(Math.min(Math.min(c000, c100), Math.min(c010, c110)),
+                Math.min(Math.min(c001, c101), Math.min(c011, c111)));
+        boolean fullyCarved = cellMin > THRESHOLD;
+
+        int x0 = cx * CELL_XZ;
+        int y0 = cy * CELL_Y;
+        int z0 = cz * CELL_XZ;
+        for (int dz = 0; dz < CELL_XZ; dz++) {
+            float tz = dz / (float) CELL_XZ;
+            for (int dx = 0; dx < CELL_XZ; dx++) {
+                float tx = dx / (float) CELL_XZ;
+                int x = x0 + dx;
+                int z = z0 + dz;
+                int yStart = Math.max(y0, carveBottom);
+                int yEnd = Math.min(y0 + CELL_Y, carveTop[x + ChunkModel.SIZE * z]);
+                if (yEnd <= yStart) {
+                    continue;
+                }
+                if (fullyCarved) {
+                    chunk.fillColumn(x, z, yStart, yEnd - 1, airId);
+                    continue;
+                }
+
+                // Interpolation bilinéaire en XZ sur les faces basse et haute de la cellule
+                float bottom = lerp(lerp(c000, c100, tx), lerp(c001, c101, tx), tz);
+                float top = lerp(lerp(c010, c110, tx), lerp(c011, c111, tx), tz);
+                for (int y = yStart; y < yEnd; y++) {
+                    float density = lerp(bottom, top, (y - y0) / (float) CELL_Y);
+                    if (density > THRESHOLD) {
+                        chunk.setBlock(x, y, z, airId);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Densité de grotte en un point du monde : proche de 1 là où les crêtes des deux bruits se croisent.
+     */
+    private float density(float worldX, float worldY, float worldZ) {
+        float a = tunnelNoiseA.Noise3D(worldX * FREQ_XZ, worldY * FREQ_Y, worldZ * FREQ_XZ);
+        float b = tunnelNoiseB.Noise3D(worldX * FREQ_XZ, worldY * FREQ_Y, worldZ * FREQ_XZ);
+        float ridgeA = 1.0f - 2.0f * Math.abs(a - 0.5f);
+        float ridgeB = 1.0f - 2.0f * Math.abs(b - 0.5f);
+        return Math.min(ridgeA, ridgeB);
+    }
+
+    private static int latticeIndex(int lx, int ly, int lz) {
+        return lx + NX * (ly + NY * lz);
+    }
+
+    private static float lerp(float a, float b, float t) {
+        return a + t * (b - a);
+    }
+}
@@ -1,5 +1,7 @@
 package voxel.model;
 
+import voxel.utils.Direction;
+
 /**
  * Représente un chunk (section) du monde de voxels.
  * Un chunk est un cube de taille fixe contenant des blocs de différents types.
@@ -15,6 +17,33 @@ public class ChunkModel {
     /** Tableau contenant les IDs de structure de chaque bloc (0 = aucune structure) */
     private final int[] structureIds;
 
+    /** Lumière du ciel de chaque bloc (0-15), deux valeurs de 4 bits par octet */
+    private final byte[] skyLight;
+
+    /** Lumière émise par les blocs (0-15), deux valeurs de 4 bits par octet */
+    private final byte[] blockLight;
+
+    /** Nombre de blocs d'une face du chunk */
+    private static final int FACE_AREA = SIZE * SIZE;
+
+    /** Nombre de blocs du chunk autres que l'air */
+    private int nonAirCount = 0;
+
+    /** Nombre de blocs opaques (non transparents et autres que l'air) */
+    private int opaqueCount = 0;
+
+    /** Nombre de blocs transparents ou semi-transparents */
+    private int transparentCount = 0;
+
+    /** Nombre de blocs d'eau (tous types confondus) */
+    private int waterCount = 0;
+
+    /** Nombre de blocs émettant de la lumière */
+    private int lightSourceCount = 0;
+
+    /** Nombre de blocs opaques sur chacune des six faces du chunk, indexé par Direction.ordinal() */
+    private final int[] opaqueFaceCounts = new int[Direction.values().length];
+
     boolean needsUpdate = false;
 
     /** Coordonnées du chunk dans le monde */
@@ -30,6 +59,8 @@ public class ChunkModel {
     public ChunkModel(boolean empty, int cx, int cy, int cz) {
         blocks = new int[SIZE * SIZE * SIZE];
         structureIds = new int[SIZE * SIZE * SIZE];
+        skyLight = new byte[SIZE * SIZE * SIZE / 2];
+        blockLight = new byte[SIZE * SIZE * SIZE / 2];
         this.cx = cx;
         this.cy = cy;
         this.cz = cz;
@@ -119,10 +150,67 @@ public class ChunkModel {
      */
     public void setBlock(int x, int y, int z, int value) {
         if (x >= 0 && x < SIZE && y >= 0 && y < SIZE && z >= 0 && z < SIZE) {
-            blocks[getIndex(x, y, z)] = value;
+            int index = getIndex(x, y, z);
+            countBlock(x, y, z, blocks[index], -1);
+            blocks[index] = value;
+            countBlock(x, y, z, value, 1);
         }
     }
 
+    /**
+     * Remplit un segment vertical d'une colonne avec le même type de bloc.
+     * Utilisé par la génération pour écrire une couche de terrain d'un seul tenant.
+     *
+     * @param x Coordonnée X dans le chunk (0-31)
+     * @param z Coordonnée Z dans le chunk (0-31)
+     * @param yStart Première coordonnée Y remplie (incluse)
+     * @param yEnd Dernière coordonnée Y remplie (incluse)
+     * @param value Identifiant du type de bloc à placer
+     */
+    public void fillColumn(int x, int z, int yStart, int yEnd, int value) {
+        if (x < 0 || x >= SIZE || z < 0 || z >= SIZE) {
+            return;
+        }
+        int start = Math.max(0, yStart);
+        int end = Math.min(SIZE - 1, yEnd);
+        int index = getIndex(x, start, z);
+        for (int y = start; y <= end; y++, index += SIZE) {
+            countBlock(x, y, z, blocks[index], -1);
+            blocks[index] = value;
+            countBlock(x, y, z, value, 1);
+        }
+    }
+
+    /**
+     * Ajoute ou retire un bloc des statistiques de contenu du chunk.
+     *
+     * @param blockId Identifiant du bloc
+     * @param delta 1 pour un bloc placé, -1 pour un bloc remplacé
+     */
+    private void countBlock(int x, int y, int z, int blockId, int delta) {
+        if (blockId == BlockType.AIR.getId()) {
+            return;
+        }
+        nonAirCount += delta;
+        if (BlockType.isWaterBlock(blockId)) {
+            waterCount += delta;
+        }
+        if (BlockType.lightEmission(blockId) > 0) {
+            lightSourceCount += delta;
+        }
+        if (BlockType.isTransparentBlock(blockId)) {
+            transparentCount += delta;
+            return;
+        }
+        opaqueCount += delta;
+        if (x == 0) opaqueFaceCounts[Direction.NEG_X.ordinal()] += delta;
+        if (x == SIZE - 1) opaqueFaceCounts[Direction.POS_X.ordinal()] += delta;
+        if (y == 0) opaqueFaceCounts[Direction.NEG_Y.ordinal()] += delta;
+        if (y == SIZE - 1) opaqueFaceCounts[Direction.POS_Y.ordinal()] += delta;
+        if (z == 0) opaqueFaceCounts[Direction.NEG_Z.ordinal()] += delta;
+        if (z == SIZE - 1) opaqueFaceCounts[Direction.POS_Z.ordinal()] += delta;
+    }
+
     /**
      * Récupère l'ID de la structure propriétaire d'un bloc.
      * 
@@ -152,6 +240,168 @@ public class ChunkModel {
         }
     }
 
+    /**
+     * Récupère la lumière du ciel d'un bloc.
+     *
+     * @param x Coordonnée X dans le chunk (0-31)
+     * @param y Coordonnée Y dans le chunk (0-31)
+     * @param z Coordonnée Z dans le chunk (0-31)
+     * @return Le niveau de lumière (0-15), 0 si hors limites
+     */
+    public int getSkyLight(int x, int y, int z) {
+        if (x < 0 || x >= SIZE || y < 0 || y >= SIZE || z < 0 || z >= SIZE) {
+            return 0;
+        }
+        return getNibble(skyLight, getIndex(x, y, z));
+    }
+
+    /**
+     * Modifie la lumière du ciel d'un bloc.
+     *
+     * @param x Coordonnée X dans le chunk (0-31)
+     * @param y Coordonnée Y dans le chunk (0-31)
+     * @param z Coordonnée Z dans le chunk (0-31)
+     * @param level Niveau de lumière (0-15)
+     */
+    public void setSkyLight(int x, int y, int z, int level) {
+        if (x >= 0 && x < SIZE && y >= 0 && y < SIZE && z >= 0 && z < SIZE) {
+            setNibble(skyLight, getIndex(x, y, z), level);
+        }
+    }
+
+    /**
+     * Récupère la lumière émise par les blocs à la position d'un bloc.
+     *
+     * @param x Coordonnée X dans le chunk (0-31)
+     * @param y Coordonnée Y dans le chunk (0-31)
+     * @param z Coordonnée Z dans le chunk (0-31)
+     * @return Le niveau de lumière (0-15), 0 si hors limites
+     */
+    public int getBlockLight(int x, int y, int z) {
+        if (x < 0 || x >= SIZE || y < 0 || y >= SIZE || z < 0 || z >= SIZE) {
+            return 0;
+        }
+        return getNibble(blockLight, getIndex(x, y, z));
+    }
+
+    /**
+     * Modifie la lumière émise par les blocs à la position d'un bloc.
+     *
+     * @param x Coordonnée X dans le chunk (0-31)
+     * @param y Coordonnée Y dans le chunk (0-31)
+     * @param z Coordonnée Z dans le chunk (0-31)
+     * @param level Niveau de lumière (0-15)
+     */
+    public void setBlockLight(int x, int y, int z, int level) {
+        if (x >= 0 && x < SIZE && y >= 0 && y < SIZE && z >= 0 && z < SIZE) {
+            setNibble(blockLight, getIndex(x, y, z), level);
+        }
+    }
+
+    /**
+     * Récupère le niveau d'éclairage d'un bloc : le plus fort de la lumière du ciel et de celle des blocs.
+     *
+     * @param x Coordonnée X dans le chunk (0-31)
+     * @param y Coordonnée Y dans le chunk (0-31)
+     * @param z Coordonnée Z dans le chunk (0-31)
+     * @return Le niveau de lumière (0-15), 0 si hors limites
+     */
+    public int getLight(int x, int y, int z) {
+        if (x < 0 || x >= SIZE || y < 0 || y >= SIZE || z < 0 || z >= SIZE) {
+            return 0;
+        }
+        int index = getIndex(x, y, z);
+        return Math.max(getNibble(skyLight, index), getNibble(blockLight, index));
+    }
+
+    /** Lit la valeur de 4 bits d'index donné (index pair : bits de poids faible) */
+    private static int getNibble(byte[] nibbles, int index) {
+        return (nibbles[index >> 1] >> ((index & 1) << 2)) & 0xF;
+    }
+
+    /** Écrit la valeur de 4 bits d'index donné */
+    private static void setNibble(byte[] nibbles, int index, int value) {
+        int shift = (index & 1) << 2;
+        nibbles[index >> 1] = (byte) ((nibbles[index >> 1] & ~(0xF << shift)) | ((value & 0xF) << shift));
+    }
+
+    /**
+     * Indique si le chunk ne contient que de l'air.
+     *
+     * @return true si aucun bloc n'est différent de l'air
+     */
+    public boolean isEmpty() {
+        return nonAirCount == 0;
+    }
+
+    /**
+     * Indique si le chunk est entièrement rempli de blocs opaques.
+     *
+     * @return true si tous les blocs sont opaques
+     */
+    public boolean isFullyOpaque() {
+        return opaqueCount == blocks.length;
+    }
+
+    /**
+     * Indique si une face du chunk est entièrement couverte de blocs opaques.
+     *
+     * @param face La face du chunk
+     * @return true si les 32x32 blocs de cette face sont opaques
+     */
+    public boolean isFaceFullyOpaque(Direction face) {
+        return opaqueFaceCounts[face.ordinal()] == FACE_AREA;
+    }
+
+    /**
+     * @return Le nombre de blocs autres que l'air
+     */
+    public int getNonAirCount() {
+        return nonAirCount;
+    }
+
+    /**
+     * @return Le nombre de blocs opaques
+     */
+    public int getOpaqueCount() {
+        return opaqueCount;
+    }
+
+    /**
+     * @return Le nombre de blocs transparents ou semi-transparents
+     */
+    public int getTransparentCount() {
+        return transparentCount;
+    }
+
+    /**
+     * @return Le nombre de blocs d'eau
+     */
+    public int getWaterCount() {
+        return waterCount;
+    }
+
+    /**
+     * @return Le nombre de blocs émettant de la lumière
+     */
+    public int getLightSourceCount() {
+        return lightSourceCount;
+    }
+
+    /**
+     * Mélange le contenu du chunk dans une empreinte FNV-1a 64 bits.
+     *
+     * @param hash Empreinte courante
+     * @return Empreinte mise à jour avec les blocs du chunk
+     */
+    long hashBlocks(long hash) {
+        for (int block : blocks) {
+            hash ^= block;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
     public void setNeedsUpdate(boolean needsUpdate) {
         this.needsUpdate = needsUpdate;
     }
@@ -0,0 +1,87 @@
+package voxel.model;
+
+/**
+ * Gabarit de remplissage d'une colonne de terrain, précalculé une seule fois par monde.
+ * Les identifiants de blocs du biome (surface, sous-surface, profondeur, eau) sont résolus
+ * à la construction, puis chaque colonne est remplie par au plus quatre segments contigus :
+ * profondeur, sous-surface, surface (sèche ou immergée) et eau.
+ */
+class ColumnTemplate {
+    /** Épaisseur de la couche de sous-surface (sous le bloc de surface) */
+    private static final int SUBSURFACE_DEPTH = 3;
+
+    private final int surfaceId;
+    private final int underwaterSurfaceId;
+    private final int subSurfaceId;
+    private final int deepId;
+    private final int waterId;
+
+    /** Niveau de l'eau (coordonnée Y globale) */
+    private final int waterLevel;
+
+    /** Hauteur totale du monde en blocs */
+    private final int totalWorldHeight;
+
+    /**
+     * Crée le gabarit de colonne.
+     *
+     * @param biome Le biome actif
+     * @param underwaterSurface Bloc de surface à utiliser sous l'eau
+     * @param waterLevel Niveau de l'eau
+     * @param totalWorldHeight Hauteur totale du monde en blocs
+     */
+    ColumnTemplate(BiomeType biome, BlockType underwaterSurface, int waterLevel, int totalWorldHeight) {
+        this.surfaceId = biome.getSurfaceBlock().getId();
+        this.underwaterSurfaceId = underwaterSurface.getId();
+        this.subSurfaceId = biome.getSubSurfaceBlock().getId();
+        this.deepId = biome.getDeepBlock().getId();
+        this.waterId = biome.getWaterBlock().getId();
+        this.waterLevel = waterLevel;
+        this.totalWorldHeight = totalWorldHeight;
+    }
+
+    /**
+     * Remplit une colonne de blocs à partir de la hauteur du terrain.
+     * Les blocs au-dessus du dernier segment restent de l'air.
+     *
+     * @param columnChunks Les chunks de la colonne verticale, indexés par cy
+     * @param x Coordonnée X locale de la colonne
+     * @param z Coordonnée Z locale de la colonne
+     * @param terrainHeight Hauteur du terrain (déjà limitée à [0, hauteur du monde - 1])
+     */
+    void fill(ChunkModel[] columnChunks, int x, int z, int terrainHeight) {
+        int surfaceY = terrainHeight - 1;
+        int subSurfaceStart = surfaceY - SUBSURFACE_DEPTH;
+
+        // Profondeur : [0, h-5]
+        fillRun(columnChunks, x, z, 0, subSurfaceStart - 1, deepId);
+        // Sous-surface : [h-4, h-2]
+        fillRun(columnChunks, x, z, subSurfaceStart, surfaceY - 1, subSurfaceId);
+        // Surface : h-1, immergée ou non
+        fillRun(columnChunks, x, z, surfaceY, surfaceY, surfaceY <= waterLevel ? underwaterSurfaceId : surfaceId);
+        // Eau : [h, niveau de l'eau]
+        fillRun(columnChunks, x, z, terrainHeight, Math.min(waterLevel, totalWorldHeight - 1), waterId);
+    }
+
+    /**
+     * Remplit un segment vertical [yStart, yEnd] (coordonnées globales), découpé aux limites des chunks.
+     */
+    private static void fillRun(ChunkModel[] columnChunks, int x, int z, int yStart, int yEnd, int blockId) {
+        yStart = Math.max(yStart, 0);
+        if (yEnd < yStart) {
+            return;
+        }
+
+        int cyStart = yStart / ChunkModel.SIZE;
+        int cyEnd = yEnd / ChunkModel.SIZE;
+        for (int cy = cyStart; cy <= cyEnd && cy < columnChunks.length; cy++) {
+            ChunkModel chunk = columnChunks[cy];
+            if (chunk == null) {
+                continue;
+            }
+            int localStart = cy == cyStart ? yStart % ChunkModel.SIZE : 0;
+            int localEnd = cy == cyEnd ? yEnd % ChunkModel.SIZE : ChunkModel.SIZE - 1;
+            chunk.fillColumn(x, z, localStart, localEnd, blockId);
+        }
+    }
+}
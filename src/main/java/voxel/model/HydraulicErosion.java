@@ -0,0 +1,183 @@
+package voxel.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Érosion hydraulique simplifiée appliquée à la carte des hauteurs avant l'écriture des voxels.
+ * À chaque itération, chaque cellule cède une partie de sa matière à son voisin le plus bas
+ * (transport de sédiments dans le sens de l'écoulement), ce qui adoucit les pics et comble les creux.
+ *
+ * La carte est découpée en tuiles traitées en parallèle (fork/join). Chaque tuile travaille sur une
+ * copie locale entourée d'une bordure (halo) recopiée depuis les tuiles voisines au début de chaque
+ * itération. Le résultat est écrit dans un second tampon, ce qui rend le calcul déterministe.
+ */
+class HydraulicErosion {
+    /** Largeur du halo : 1 pour trouver le voisin le plus bas, 1 de plus pour collecter les apports */
+    private static final int HALO = 2;
+
+    /** Fraction de la dénivelée transportée vers le voisin le plus bas à chaque itération (< 0.5 pour rester stable) */
+    private static final float EROSION_RATE = 0.2f;
+
+    /** Dénivelée minimale (en blocs) pour qu'il y ait transport */
+    private static final float MIN_SLOPE = 0.05f;
+
+    /** Valeur des cellules hors du monde : jamais choisies comme voisin le plus bas */
+    private static final float OUTSIDE = Float.MAX_VALUE;
+
+    /** Décalages des 4 voisins (x, z) */
+    private static final int[][] NEIGHBOURS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+
+    private final int width;
+    private final int depth;
+    private final int tileSize;
+
+    /**
+     * @param width Largeur de la carte (axe X, en blocs)
+     * @param depth Profondeur de la carte (axe Z, en blocs)
+     * @param tileSize Côté d'une tuile en blocs
+     */
+    HydraulicErosion(int width, int depth, int tileSize) {
+        this.width = width;
+        this.depth = depth;
+        this.tileSize = tileSize;
+    }
+
+    /**
+     * Applique l'érosion sur la carte des hauteurs (modifiée en place).
+     *
+     * @param heights Hauteurs indexées par x + width * z
+     * @param iterations Nombre d'itérations
+     * @param pool Pool fork/join utilisé pour les tuiles
+     * @param cancellationToken Jeton consulté entre deux itérations
+     */
+    void erode(float[] heights, int iterations, ForkJoinPool pool, CancellationToken cancellationToken) {
+        List<int[]> tiles = new ArrayList<>();
+        for (int z = 0; z < depth; z += tileSize) {
+            for (int x = 0; x < width; x += tileSize) {
+                tiles.add(new int[]{x, z, Math.min(x + tileSize, width), Math.min(z + tileSize, depth)});
+            }
+        }
+
+        float[] current = heights;
+        float[] next = new float[heights.length];
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            if (cancellationToken.isCancelled()) {
+                return;
+            }
+            pool.invoke(new TileTask(tiles, 0, tiles.size(), current, next));
+            float[] swap = current;
+            current = next;
+            next = swap;
+        }
+
+        // Après un nombre impair d'itérations, le résultat est dans le tampon secondaire
+        if (current != heights) {
+            System.arraycopy(current, 0, heights, 0, heights.length);
+        }
+    }
+
+    /**
+     * Tâche fork/join : découpe la liste des tuiles en deux jusqu'à n'en traiter qu'une.
+     * Sérialisable par héritage seulement : elle n'est jamais sérialisée.
+     */
+    @SuppressWarnings("serial")
+    private class TileTask extends RecursiveAction {
+        private final List<int[]> tiles;
+        private final int from;
+        private final int to;
+        private final float[] source;
+        private final float[] target;
+
+        TileTask(List<int[]> tiles, int from, int to, float[] source, float[] target) {
+            this.tiles = tiles;
+            this.from = from;
+            this.to = to;
+            this.source = source;
+            this.target = target;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (from < to) {
+                    erodeTile(tiles.get(from), source, target);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new TileTask(tiles, from, middle, source, target),
+                      new TileTask(tiles, middle, to, source, target));
+        }
+    }
+
+    /**
+     * Effectue une itération d'érosion sur une tuile.
+     *
+     * @param tile Bornes de la tuile {x0, z0, x1, z1} (x1 et z1 exclus)
+     * @param source Hauteurs de l'itération précédente (lecture seule)
+     * @param target Hauteurs de l'itération courante (seul l'intérieur de la tuile est écrit)
+     */
+    private void erodeTile(int[] tile, float[] source, float[] target) {
+        int x0 = tile[0] - HALO;
+        int z0 = tile[1] - HALO;
+        int localWidth = tile[2] - tile[0] + 2 * HALO;
+        int localDepth = tile[3] - tile[1] + 2 * HALO;
+
+        // Échange de halo : copie de la tuile et de sa bordure depuis la carte partagée
+        float[] local = new float[localWidth * localDepth];
+        for (int lz = 0; lz < localDepth; lz++) {
+            int z = z0 + lz;
+            for (int lx = 0; lx < localWidth; lx++) {
+                int x = x0 + lx;
+                boolean inside = x >= 0 && x < width && z >= 0 && z < depth;
+                local[lx + localWidth * lz] = inside ? source[x + width * z] : OUTSIDE;
+            }
+        }
+
+        // Passe 1 : quantité transportée et voisin destinataire (tuile + 1 cellule de halo)
+        float[] outflow = new float[local.length];
+        int[] receiver = new int[local.length];
+        Arrays.fill(receiver, -1);
+        for (int lz = 1; lz < localDepth - 1; lz++) {
+            for (int lx = 1; lx < localWidth - 1; lx++) {
+                int index = lx + localWidth * lz;
+                float height = local[index];
+                if (height == OUTSIDE) {
+                    continue;
+                }
+                int lowest = -1;
+                float lowestHeight = height - MIN_SLOPE;
+                for (int[] offset : NEIGHBOURS) {
+                    int neighbour = index + offset[0] + localWidth * offset[1];
+                    if (local[neighbour] < lowestHeight) {
+                        lowestHeight = local[neighbour];
+                        lowest = neighbour;
+                    }
+                }
+                if (lowest >= 0) {
+                    outflow[index] = (height - lowestHeight) * EROSION_RATE;
+                    receiver[index] = lowest;
+                }
+            }
+        }
+
+        // Passe 2 : bilan de matière pour l'intérieur de la tuile
+        for (int lz = HALO; lz < localDepth - HALO; lz++) {
+            for (int lx = HALO; lx < localWidth - HALO; lx++) {
+                int index = lx + localWidth * lz;
+                float height = local[index] - outflow[index];
+                for (int[] offset : NEIGHBOURS) {
+                    int neighbour = index + offset[0] + localWidth * offset[1];
+                    if (receiver[neighbour] == index) {
+                        height += outflow[neighbour];
+                    }
+                }
+                target[(x0 + lx) + width * (z0 + lz)] = height;
+            }
+        }
+    }
+}
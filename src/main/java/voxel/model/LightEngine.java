@@ -0,0 +1,430 @@
+package voxel.model;
+
+import java.util.Arrays;
+
+/**
+ * Moteur d'éclairage par propagation : lumière du ciel et lumière émise par les blocs (niveaux 0 à 15).
+ * Les niveaux sont stockés dans chaque chunk (tableaux de 4 bits). Une lumière perd un niveau par bloc
+ * parcouru, plus l'opacité du bloc traversé ; la lumière du ciel au niveau maximal descend sans perte
+ * à travers l'air.
+ * L'éclairage est calculé une fois après la génération, puis mis à jour localement à chaque modification
+ * de bloc (files d'ajout et de retrait) : seuls les blocs dont le niveau change sont visités et signalés.
+ * À utiliser uniquement depuis le thread qui modifie le monde.
+ */
+public class LightEngine {
+    /** Niveau de lumière maximal (ciel ouvert, lave) */
+    public static final int MAX_LIGHT = 15;
+
+    /** Nombre de cellules propagées entre deux consultations du jeton d'annulation (puissance de deux) */
+    private static final int CANCEL_CHECK_INTERVAL = 4096;
+
+    /** Décalages vers les six voisins, dans l'ordre de Direction (POS_X, NEG_X, POS_Y, NEG_Y, POS_Z, NEG_Z) */
+    private static final int[] OFFSET_X = {1, -1, 0, 0, 0, 0};
+    private static final int[] OFFSET_Y = {0, 0, 1, -1, 0, 0};
+    private static final int[] OFFSET_Z = {0, 0, 0, 0, 1, -1};
+
+    /** Indice de la direction vers le bas (NEG_Y) */
+    private static final int DOWN = 3;
+
+    /**
+     * Reçoit les positions (coordonnées globales, monde centré) dont le niveau de lumière a changé.
+     */
+    public interface LightChangeListener {
+        void lightChanged(int x, int y, int z);
+    }
+
+    /** Référence au modèle du monde */
+    private final WorldModel worldModel;
+
+    /** Dimensions du monde en blocs */
+    private final int sizeX;
+    private final int sizeY;
+    private final int sizeZ;
+
+    /** Décalage entre coordonnées globales (monde centré) et coordonnées de tableau, en X et Z */
+    private final int offsetX;
+    private final int offsetZ;
+
+    /** Hauteur de la première cellule éclairée par le ciel de chaque colonne (x + sizeX * z), pour le calcul initial */
+    private int[] skyHeights;
+
+    /** Positions dont la lumière doit être propagée vers leurs voisins */
+    private final LightQueue addQueue = new LightQueue();
+
+    /** Positions éteintes dont les voisins doivent être examinés, avec leur ancien niveau */
+    private final LightQueue removeQueue = new LightQueue();
+
+    /** Destinataire des changements d'éclairage (null pendant la génération) */
+    private LightChangeListener listener;
+
+    /**
+     * Crée le moteur d'éclairage d'un monde.
+     *
+     * @param worldModel Le modèle du monde, dont les chunks sont déjà alloués
+     */
+    public LightEngine(WorldModel worldModel) {
+        this.worldModel = worldModel;
+        this.sizeX = worldModel.getWorldSizeX() * ChunkModel.SIZE;
+        this.sizeY = worldModel.getWorldSizeY() * ChunkModel.SIZE;
+        this.sizeZ = worldModel.getWorldSizeZ() * ChunkModel.SIZE;
+        this.offsetX = worldModel.getWorldSizeX() / 2 * ChunkModel.SIZE;
+        this.offsetZ = worldModel.getWorldSizeZ() / 2 * ChunkModel.SIZE;
+        this.skyHeights = new int[sizeX * sizeZ];
+    }
+
+    /**
+     * Définit le destinataire des changements d'éclairage (typiquement pour remailler les chunks touchés).
+     *
+     * @param listener Le destinataire, ou null
+     */
+    public void setListener(LightChangeListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Première étape du calcul initial : éclaire au niveau maximal les cellules d'une colonne de chunks
+     * qui voient le ciel (jusqu'au premier bloc qui atténue la lumière).
+     * Les colonnes de chunks sont indépendantes et peuvent être traitées en parallèle.
+     *
+     * @param cx Position X de la colonne de chunks dans le tableau du monde
+     * @param cz Position Z de la colonne de chunks dans le tableau du monde
+     */
+    public void fillSkyColumns(int cx, int cz) {
+        final int SIZE = ChunkModel.SIZE;
+        for (int lz = 0; lz < SIZE; lz++) {
+            for (int lx = 0; lx < SIZE; lx++) {
+                int height = 0;
+                for (int ay = sizeY - 1; ay >= 0; ay--) {
+                    ChunkModel chunk = worldModel.getChunk(cx, ay / SIZE, cz);
+                    if (BlockType.lightOpacity(chunk.getBlock(lx, ay % SIZE, lz)) > 0) {
+                        height = ay + 1;
+                        break;
+                    }
+                    chunk.setSkyLight(lx, ay % SIZE, lz, MAX_LIGHT);
+                }
+                skyHeights[(cx * SIZE + lx) + sizeX * (cz * SIZE + lz)] = height;
+            }
+        }
+    }
+
+    /**
+     * Seconde étape du calcul initial, après {@link #fillSkyColumns} sur toutes les colonnes :
+     * propage la lumière du ciel sous les surplombs, dans les grottes et dans l'eau, puis la lumière des blocs.
+     * Seules les cellules du ciel en bordure d'une zone plus sombre servent de point de départ.
+     * Le calcul s'interrompt dès que le jeton est annulé : l'éclairage est alors incomplet,
+     * à l'appelant d'abandonner le monde.
+     *
+     * @param cancellationToken Jeton d'annulation de la génération, consulté pendant les parcours
+     */
+    public void propagateInitialLight(CancellationToken cancellationToken) {
+        // Lumière du ciel : cellules éclairées dont un voisin latéral (colonne plus haute) ou inférieur est plus sombre
+        for (int az = 0; az < sizeZ; az++) {
+            for (int ax = 0; ax < sizeX; ax++) {
+                int height = skyHeights[ax + sizeX * az];
+                int neighborHeight = Math.max(Math.max(skyHeightAt(ax - 1, az), skyHeightAt(ax + 1, az)),
+                                              Math.max(skyHeightAt(ax, az - 1), skyHeightAt(ax, az + 1)));
+                for (int ay = height; ay < neighborHeight; ay++) {
+                    addQueue.push(ax, ay, az, MAX_LIGHT);
+                }
+                // Bloc sous la colonne éclairée qui laisse passer une partie de la lumière (eau, feuillage...)
+                if (height > 0 && height < sizeY && height >= neighborHeight
+                        && BlockType.lightOpacity(getBlock(ax, height - 1, az)) < MAX_LIGHT) {
+                    addQueue.push(ax, height, az, MAX_LIGHT);
+                }
+            }
+        }
+        skyHeights = null;
+        propagate(true, cancellationToken);
+        if (cancellationToken.isCancelled()) {
+            return;
+        }
+
+        // Lumière des blocs : seuls les chunks contenant une source sont parcourus
+        final int SIZE = ChunkModel.SIZE;
+        for (int cx = 0; cx < worldModel.getWorldSizeX(); cx++) {
+            if (cancellationToken.isCancelled()) {
+                return;
+            }
+            for (int cy = 0; cy < worldModel.getWorldSizeY(); cy++) {
+                for (int cz = 0; cz < worldModel.getWorldSizeZ(); cz++) {
+                    ChunkModel chunk = worldModel.getChunk(cx, cy, cz);
+                    if (chunk.getLightSourceCount() == 0) {
+                        continue;
+                    }
+                    for (int lz = 0; lz < SIZE; lz++) {
+                        for (int ly = 0; ly < SIZE; ly++) {
+                            for (int lx = 0; lx < SIZE; lx++) {
+                                int emission = BlockType.lightEmission(chunk.getBlock(lx, ly, lz));
+                                if (emission > 0) {
+                                    chunk.setBlockLight(lx, ly, lz, emission);
+                                    addQueue.push(cx * SIZE + lx, cy * SIZE + ly, cz * SIZE + lz, emission);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        propagate(false, cancellationToken);
+    }
+
+    /**
+     * Met à jour l'éclairage après le remplacement d'un bloc.
+     * La lumière qui passait par ce bloc (et tout ce qu'elle éclairait) est retirée, puis la lumière
+     * des voisins encore éclairés et celle du nouveau bloc sont propagées à nouveau.
+     *
+     * @param x Coordonnée X globale du bloc (monde centré)
+     * @param y Coordonnée Y globale du bloc
+     * @param z Coordonnée Z globale du bloc (monde centré)
+     * @param oldBlock Identifiant de l'ancien bloc
+     * @param newBlock Identifiant du nouveau bloc
+     */
+    public void onBlockChanged(int x, int y, int z, int oldBlock, int newBlock) {
+        int newOpacity = BlockType.lightOpacity(newBlock);
+        int newEmission = BlockType.lightEmission(newBlock);
+        // Même comportement vis-à-vis de la lumière : rien ne change (ex. herbe remplacée par de la terre)
+        if (BlockType.lightOpacity(oldBlock) == newOpacity && BlockType.lightEmission(oldBlock) == newEmission) {
+            return;
+        }
+        int ax = x + offsetX;
+        int az = z + offsetZ;
+        ChunkModel chunk = chunkAt(ax, y, az);
+        if (chunk == null) {
+            return;
+        }
+        updateChannel(chunk, ax, y, az, true, newOpacity, 0);
+        updateChannel(chunk, ax, y, az, false, newOpacity, newEmission);
+    }
+
+    /**
+     * Met à jour un canal d'éclairage (ciel ou blocs) autour d'un bloc remplacé.
+     */
+    private void updateChannel(ChunkModel chunk, int ax, int ay, int az, boolean sky, int newOpacity, int newEmission) {
+        final int SIZE = ChunkModel.SIZE;
+        int lx = ax % SIZE, ly = ay % SIZE, lz = az % SIZE;
+
+        // Retirer la lumière qui passait par ce bloc
+        int oldLevel = getLight(chunk, sky, lx, ly, lz);
+        if (oldLevel > 0) {
+            setLight(chunk, sky, lx, ly, lz, 0);
+            changed(ax, ay, az);
+            removeQueue.push(ax, ay, az, oldLevel);
+            removeLight(sky);
+        }
+
+        // Nouvelle source de lumière
+        if (newEmission > 0) {
+            setLight(chunk, sky, lx, ly, lz, newEmission);
+            changed(ax, ay, az);
+            addQueue.push(ax, ay, az, newEmission);
+        }
+
+        // Si le bloc laisse passer la lumière, ses voisins éclairés la propagent à nouveau vers lui
+        if (newOpacity < MAX_LIGHT) {
+            for (int dir = 0; dir < 6; dir++) {
+                int nx = ax + OFFSET_X[dir], ny = ay + OFFSET_Y[dir], nz = az + OFFSET_Z[dir];
+                ChunkModel neighbor = chunkAt(nx, ny, nz);
+                if (neighbor != null) {
+                    int level = getLight(neighbor, sky, nx % SIZE, ny % SIZE, nz % SIZE);
+                    if (level > 0) {
+                        addQueue.push(nx, ny, nz, level);
+                    }
+                }
+            }
+        }
+        propagate(sky);
+    }
+
+    /**
+     * Éteint les cellules qui tiraient leur lumière des cellules de la file de retrait.
+     * Les voisins éclairés par une autre source sont placés dans la file d'ajout pour reboucher le trou.
+     */
+    private void removeLight(boolean sky) {
+        final int SIZE = ChunkModel.SIZE;
+        while (!removeQueue.isEmpty()) {
+            removeQueue.pop();
+            int ax = removeQueue.x, ay = removeQueue.y, az = removeQueue.z, level = removeQueue.level;
+            for (int dir = 0; dir < 6; dir++) {
+                int nx = ax + OFFSET_X[dir], ny = ay + OFFSET_Y[dir], nz = az + OFFSET_Z[dir];
+                ChunkModel neighbor = chunkAt(nx, ny, nz);
+                if (neighbor == null) {
+                    continue;
+                }
+                int lx = nx % SIZE, ly = ny % SIZE, lz = nz % SIZE;
+                int neighborLevel = getLight(neighbor, sky, lx, ly, lz);
+                if (neighborLevel == 0) {
+                    continue;
+                }
+                boolean litFromHere = neighborLevel < level
+                        || (sky && dir == DOWN && level == MAX_LIGHT && neighborLevel == MAX_LIGHT);
+                if (litFromHere) {
+                    setLight(neighbor, sky, lx, ly, lz, 0);
+                    changed(nx, ny, nz);
+                    removeQueue.push(nx, ny, nz, neighborLevel);
+                    // Une source rencontrée garde sa propre lumière
+                    int emission = sky ? 0 : BlockType.lightEmission(neighbor.getBlock(lx, ly, lz));
+                    if (emission > 0) {
+                        setLight(neighbor, sky, lx, ly, lz, emission);
+                        addQueue.push(nx, ny, nz, emission);
+                    }
+                } else {
+                    addQueue.push(nx, ny, nz, neighborLevel);
+                }
+            }
+        }
+    }
+
+    /**
+     * Propage la lumière des cellules de la file d'ajout (parcours en largeur).
+     */
+    private void propagate(boolean sky) {
+        propagate(sky, null);
+    }
+
+    /**
+     * Propage la lumière des cellules de la file d'ajout (parcours en largeur).
+     * Si le jeton est annulé, la file est abandonnée et la propagation s'arrête.
+     *
+     * @param cancellationToken Jeton consulté toutes les {@link #CANCEL_CHECK_INTERVAL} cellules, ou null
+     */
+    private void propagate(boolean sky, CancellationToken cancellationToken) {
+        final int SIZE = ChunkModel.SIZE;
+        int visited = 0;
+        while (!addQueue.isEmpty()) {
+            if (cancellationToken != null && (++visited & (CANCEL_CHECK_INTERVAL - 1)) == 0
+                    && cancellationToken.isCancelled()) {
+                addQueue.clear();
+                return;
+            }
+            addQueue.pop();
+            int ax = addQueue.x, ay = addQueue.y, az = addQueue.z;
+            ChunkModel chunk = chunkAt(ax, ay, az);
+            // Niveau actuel : la cellule a pu être éteinte ou éclairée davantage depuis son ajout
+            int level = getLight(chunk, sky, ax % SIZE, ay % SIZE, az % SIZE);
+            if (level <= 1) {
+                continue;
+            }
+            for (int dir = 0; dir < 6; dir++) {
+                int nx = ax + OFFSET_X[dir], ny = ay + OFFSET_Y[dir], nz = az + OFFSET_Z[dir];
+                ChunkModel neighbor = chunkAt(nx, ny, nz);
+                if (neighbor == null) {
+                    continue;
+                }
+                int lx = nx % SIZE, ly = ny % SIZE, lz = nz % SIZE;
+                int opacity = BlockType.lightOpacity(neighbor.getBlock(lx, ly, lz));
+                if (opacity >= MAX_LIGHT) {
+                    continue;
+                }
+                int newLevel = sky && dir == DOWN && level == MAX_LIGHT && opacity == 0
+                        ? MAX_LIGHT
+                        : level - 1 - opacity;
+                if (newLevel > getLight(neighbor, sky, lx, ly, lz)) {
+                    setLight(neighbor, sky, lx, ly, lz, newLevel);
+                    changed(nx, ny, nz);
+                    addQueue.push(nx, ny, nz, newLevel);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Le chunk contenant une position en coordonnées de tableau, ou null hors du monde
+     */
+    private ChunkModel chunkAt(int ax, int ay, int az) {
+        if (ax < 0 || ax >= sizeX || ay < 0 || ay >= sizeY || az < 0 || az >= sizeZ) {
+            return null;
+        }
+        final int SIZE = ChunkModel.SIZE;
+        return worldModel.getChunk(ax / SIZE, ay / SIZE, az / SIZE);
+    }
+
+    private int getBlock(int ax, int ay, int az) {
+        final int SIZE = ChunkModel.SIZE;
+        return chunkAt(ax, ay, az).getBlock(ax % SIZE, ay % SIZE, az % SIZE);
+    }
+
+    /**
+     * @return La hauteur éclairée par le ciel d'une colonne, 0 hors du monde
+     */
+    private int skyHeightAt(int ax, int az) {
+        if (ax < 0 || ax >= sizeX || az < 0 || az >= sizeZ) {
+            return 0;
+        }
+        return skyHeights[ax + sizeX * az];
+    }
+
+    private static int getLight(ChunkModel chunk, boolean sky, int lx, int ly, int lz) {
+        return sky ? chunk.getSkyLight(lx, ly, lz) : chunk.getBlockLight(lx, ly, lz);
+    }
+
+    private static void setLight(ChunkModel chunk, boolean sky, int lx, int ly, int lz, int level) {
+        if (sky) {
+            chunk.setSkyLight(lx, ly, lz, level);
+        } else {
+            chunk.setBlockLight(lx, ly, lz, level);
+        }
+    }
+
+    /**
+     * Signale le changement d'éclairage d'une position en coordonnées de tableau.
+     */
+    private void changed(int ax, int ay, int az) {
+        if (listener != null) {
+            listener.lightChanged(ax - offsetX, ay, az - offsetZ);
+        }
+    }
+
+    /**
+     * File FIFO de positions et de niveaux de lumière, stockés à plat dans un tableau d'entiers réutilisé
+     * (aucune allocation par cellule visitée).
+     */
+    private static final class LightQueue {
+        private int[] data = new int[4 * 1024];
+        private int head = 0;
+        private int tail = 0;
+
+        /** Dernière entrée retirée par pop() */
+        int x, y, z, level;
+
+        boolean isEmpty() {
+            return head == tail;
+        }
+
+        void clear() {
+            head = 0;
+            tail = 0;
+        }
+
+        void push(int x, int y, int z, int level) {
+            if (tail + 4 > data.length) {
+                if (head > 0) {
+                    // Récupérer la place des entrées déjà traitées
+                    System.arraycopy(data, head, data, 0, tail - head);
+                    tail -= head;
+                    head = 0;
+                }
+                // Agrandir si la file reste à moitié pleine (évite de recopier à chaque ajout)
+                if (tail > data.length / 2) {
+                    data = Arrays.copyOf(data, data.length * 2);
+                }
+            }
+            data[tail] = x;
+            data[tail + 1] = y;
+            data[tail + 2] = z;
+            data[tail + 3] = level;
+            tail += 4;
+        }
+
+        void pop() {
+            x = data[head];
+            y = data[head + 1];
+            z = data[head + 2];
+            level = data[head + 3];
+            head += 4;
+            if (head == tail) {
+                head = 0;
+                tail = 0;
+            }
+        }
+    }
+}
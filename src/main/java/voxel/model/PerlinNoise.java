@@ -87,6 +87,53 @@ public class PerlinNoise {
         return (result + 1f) / 2f;
     }
 
+    /**
+     * Génère un bruit de Perlin en 3D pour des coordonnées données.
+     * 
+     * @param x Coordonnée x dans l'espace 3D.
+     * @param y Coordonnée y dans l'espace 3D.
+     * @param z Coordonnée z dans l'espace 3D.
+     * @return Un nombre flottant entre 0 et 1 représentant le bruit de Perlin à la position (x, y, z).
+     */
+    public float Noise3D(float x, float y, float z) {
+        // Partie entière des coordonnées
+        int xi = (int) Math.floor(x) & 255;
+        int yi = (int) Math.floor(y) & 255;
+        int zi = (int) Math.floor(z) & 255;
+
+        // Partie décimale des coordonnées
+        float xf = x - (float) Math.floor(x);
+        float yf = y - (float) Math.floor(y);
+        float zf = z - (float) Math.floor(z);
+
+        // Lissage des coordonnées
+        float u = fade(xf);
+        float v = fade(yf);
+        float w = fade(zf);
+
+        // Indices pseudo-aléatoires pour chaque coin du cube
+        int a = permutation[xi] + yi;
+        int aa = permutation[a] + zi;
+        int ab = permutation[a + 1] + zi;
+        int b = permutation[xi + 1] + yi;
+        int ba = permutation[b] + zi;
+        int bb = permutation[b + 1] + zi;
+
+        // Interpolation trilinéaire des valeurs de gradient
+        float x1 = lerp(grad3(permutation[aa], xf, yf, zf), grad3(permutation[ba], xf - 1, yf, zf), u);
+        float x2 = lerp(grad3(permutation[ab], xf, yf - 1, zf), grad3(permutation[bb], xf - 1, yf - 1, zf), u);
+        float y1 = lerp(x1, x2, v);
+
+        float x3 = lerp(grad3(permutation[aa + 1], xf, yf, zf - 1), grad3(permutation[ba + 1], xf - 1, yf, zf - 1), u);
+        float x4 = lerp(grad3(permutation[ab + 1], xf, yf - 1, zf - 1), grad3(permutation[bb + 1], xf - 1, yf - 1, zf - 1), u);
+        float y2 = lerp(x3, x4, v);
+
+        float result = lerp(y1, y2, w);
+
+        // Retourne une valeur normalisée entre 0 et 1
+        return Math.max(0f, Math.min(1f, (result + 1f) / 2f));
+    }
+
     /**
      * Fonction de lissage (fade) utilisée pour rendre le bruit de Perlin plus doux.
      * 
@@ -122,4 +169,18 @@ public class PerlinNoise {
         double[] g = grad3D[h % grad3D.length];
         return (float) (g[0] * x + g[1] * y);
     }
+
+    /**
+     * Calcule le gradient en 3D à partir de l'indice du tableau de permutation.
+     * 
+     * @param hash L'indice pour obtenir le gradient.
+     * @param x    La coordonnée x du point.
+     * @param y    La coordonnée y du point.
+     * @param z    La coordonnée z du point.
+     * @return La valeur du gradient calculée.
+     */
+    private float grad3(int hash, float x, float y, float z) {
+        double[] g = grad3D[hash & 15];
+        return (float) (g[0] * x + g[1] * y + g[2] * z);
+    }
 }
@@ -0,0 +1,363 @@
+package voxel.model;
+
+/**
+ * Générateur de relief d'un monde : fonctions de hauteur basées sur le bruit de Perlin
+ * et choix des blocs du biome.
+ * Cette classe ne dépend d'aucun chunk, elle est utilisée à la fois par WorldModel pour la
+ * génération complète et par l'aperçu du menu de sélection, qui obtient ainsi exactement le même terrain.
+ */
+public class TerrainGenerator {
+    /** Hauteurs fixes pour les différents niveaux de relief (en blocs) */
+    private static final int[] RELIEF_HEIGHTS = {
+        60,   // Relief 0 : Variations importantes (0-60 blocs) - JAMAIS plat
+        90,   // Relief 1 : Reliefs moyens (0-90 blocs) 
+        140,  // Relief 2 : Reliefs importants (0-140 blocs) 
+        200,  // Relief 3 : Reliefs marqués (0-220 blocs)
+        320   // Relief 4 : Très hautes montagnes (0-320 blocs)
+    };
+
+    /** Niveau de base du terrain */
+    private static final int BASE_TERRAIN_LEVEL = 40;
+
+    /** Bruits de Perlin du monde */
+    private final PerlinNoise worldPerlinNoise;
+    private final PerlinNoise detailPerlinNoise;
+    private final PerlinNoise ridgePerlinNoise;
+    private final PerlinNoise zonePerlinNoise; // Couche pour les zones
+
+    /** Biome actif */
+    private final BiomeType activeBiome;
+
+    /** Paramètres environnementaux (0-4) */
+    private final int temperature;
+    private final int humidity;
+    private final int reliefComplexity;
+
+    /** Niveau d'eau, calculé une seule fois */
+    private final int waterLevel;
+
+    /**
+     * Crée un générateur de relief.
+     *
+     * @param seed Graine du monde
+     * @param activeBiome Le biome actif
+     * @param temperature Niveau de température (0-4)
+     * @param humidity Niveau d'humidité (0-4)
+     * @param reliefComplexity Niveau de complexité du relief (0-4)
+     */
+    public TerrainGenerator(int seed, BiomeType activeBiome, int temperature, int humidity, int reliefComplexity) {
+        this.activeBiome = activeBiome;
+        this.temperature = Math.max(0, Math.min(4, temperature));
+        this.humidity = Math.max(0, Math.min(4, humidity));
+        this.reliefComplexity = Math.max(0, Math.min(4, reliefComplexity));
+
+        worldPerlinNoise = new PerlinNoise(seed); // Bruit principal
+        detailPerlinNoise = new PerlinNoise(seed + 1000); // Bruit de détail
+        ridgePerlinNoise = new PerlinNoise(seed + 2000); // Bruit pour les crêtes
+        zonePerlinNoise = new PerlinNoise(seed + 3000); // Couche pour les zones
+
+        waterLevel = calculateWaterLevel();
+    }
+
+    /**
+     * Calcule la hauteur du terrain (non bornée) pour une colonne du monde.
+     *
+     * @param worldX Coordonnée mondiale X
+     * @param worldZ Coordonnée mondiale Z
+     * @return La hauteur du terrain en blocs
+     */
+    public int getTerrainHeight(float worldX, float worldZ) {
+        return calculateTerrainHeight(worldX, worldZ, RELIEF_HEIGHTS[reliefComplexity]);
+    }
+
+    /**
+     * Détermine le bloc visible du dessus d'une colonne (eau ou surface).
+     *
+     * @param terrainHeight Hauteur du terrain de la colonne
+     * @return Le type du bloc le plus haut de la colonne
+     */
+    public BlockType getTopBlock(int terrainHeight) {
+        if (terrainHeight <= waterLevel && activeBiome.getWaterBlock() != BlockType.AIR) {
+            return activeBiome.getWaterBlock();
+        }
+        return terrainHeight - 1 <= waterLevel ? getUnderwaterSurfaceBlock() : activeBiome.getSurfaceBlock();
+    }
+
+    /**
+     * Crée le gabarit de remplissage des colonnes pour un monde de hauteur donnée.
+     *
+     * @param totalWorldHeight Hauteur totale du monde en blocs
+     * @return Le gabarit de colonne
+     */
+    ColumnTemplate createColumnTemplate(int totalWorldHeight) {
+        return new ColumnTemplate(activeBiome, getUnderwaterSurfaceBlock(), waterLevel, totalWorldHeight);
+    }
+
+    public int getWaterLevel() {
+        return waterLevel;
+    }
+
+    public BiomeType getActiveBiome() {
+        return activeBiome;
+    }
+
+    /**
+     * Calcule la hauteur du terrain en fonction des bruits de Perlin et du relief.
+     */
+    private int calculateTerrainHeight(float worldX, float worldZ, int maxReliefVariation) {
+        // Couche de zonage à échelle intermédiaire pour créer des zones variées
+        // Augmentation de la fréquence pour avoir plus de zones dans un monde 32x32
+        float zoneScale = 0.004f; // Échelle augmentée pour plus de variété
+        float zoneNoise = zonePerlinNoise.Noise2D(worldX * zoneScale, worldZ * zoneScale);
+        
+        // Déterminer le facteur de zone avec des transitions fluides
+        float zoneFactor = calculateZoneFactor(zoneNoise);
+
+        // Échelles différentes selon le relief
+        float primaryScale = getPrimaryScale();
+        float detailScale = getDetailScale();
+        float ridgeScale = getRidgeScale();
+
+        // Bruit principal (grandes structures)
+        float primaryNoise = worldPerlinNoise.Noise2D(worldX * primaryScale, worldZ * primaryScale);
+        
+        // Bruit de détail (petites variations)
+        float detailNoise = detailPerlinNoise.Noise2D(worldX * detailScale, worldZ * detailScale);
+        
+        // Bruit pour les crêtes (relief accidenté)
+        float ridgeNoise = 0;
+        if (reliefComplexity >= 3) {
+            ridgeNoise = ridgePerlinNoise.Noise2D(worldX * ridgeScale, worldZ * ridgeScale);
+            // Transformer en crêtes (valeurs proches de 0.5 donnent des pics)
+            ridgeNoise = 1.0f - 2.0f * Math.abs(ridgeNoise - 0.5f);
+        }
+
+        // Combiner les bruits selon le type de relief
+        float baseHeightFactor = combineNoise(primaryNoise, detailNoise, ridgeNoise);
+        
+        // Appliquer le facteur de zone avec une transition fluide
+        float heightFactor = baseHeightFactor * zoneFactor;
+        
+        // Appliquer des courbes selon la température (volcans, glaciers, etc.)
+        heightFactor = applyTemperatureModification(heightFactor, worldX, worldZ);
+        
+        // Calculer la hauteur finale
+        int heightVariation = (int) (heightFactor * maxReliefVariation);
+        return BASE_TERRAIN_LEVEL + heightVariation;
+    }
+
+    /**
+     * Calcule le facteur de zone basé sur le bruit de zonage avec des transitions fluides.
+     * Retourne une valeur entre 0 (zone plate) et 1 (zone montagneuse).
+     * Utilise des fonctions de lissage au lieu de seuils durs pour éviter les "murs".
+     * Tous les niveaux de relief ont maintenant des zones, mais à différentes intensités.
+     */
+    private float calculateZoneFactor(float zoneNoise) {
+        switch (reliefComplexity) {
+            case 0:
+                // Relief minimal : FORCE un minimum élevé pour JAMAIS être plat
+                // Garantit toujours entre 40% et 90% du relief maximum
+                float factor0 = smoothStep(0.2f, 0.8f, zoneNoise);
+                return 0.4f + factor0 * 0.5f; // Entre 40% et 90% de relief - JAMAIS plat
+
+            case 1:
+                // Relief doux : bon contraste avec minimum élevé
+                float factor1 = smoothStep(0.2f, 0.75f, zoneNoise);
+                return 0.3f + factor1 * 0.6f; // Entre 30% et 90% de relief
+
+            case 2:
+                // Relief modéré : contrastes nets entre vallées et montagnes moyennes
+                float factor2 = smoothStep(0.25f, 0.75f, zoneNoise);
+                return 0.2f + factor2 * 0.7f; // Entre 20% et 90% de relief
+
+            case 3:
+                // Relief accidenté : alternance marquée entre plaines et hautes collines
+                float factor3 = smoothStep(0.2f, 0.8f, zoneNoise);
+                return 0.25f + factor3 * 0.65f; // Entre 25% et 90% de relief
+
+            case 4:
+                // Utilise plusieurs courbes de lissage superposées au lieu de seuils nets
+                
+                // Facteur pour les vallées plates (zones très basses)
+                float valleyFactor = 1.0f - smoothStep(0.0f, 0.3f, zoneNoise);
+                
+                // Facteur pour les hautes montagnes (zones très hautes) 
+                float mountainFactor = smoothStep(0.7f, 1.0f, zoneNoise);
+                
+                // Facteur pour les collines intermédiaires
+                float hillFactor = smoothStep(0.25f, 0.75f, zoneNoise) * (1.0f - valleyFactor) * (1.0f - mountainFactor);
+                
+                // Combinaison fluide des trois zones
+                float baseLevel = 0.05f;  // Niveau minimal pour vallées
+                float hillLevel = 0.4f;   // Niveau moyen pour collines
+                float mountainLevel = 0.9f; // Niveau élevé pour montagnes
+                
+                return baseLevel * valleyFactor + 
+                       hillLevel * hillFactor + 
+                       mountainLevel * mountainFactor +
+                       0.1f * (1.0f - valleyFactor - hillFactor - mountainFactor); // Niveau de base pour zones non définies
+
+            default:
+                return 0.5f;
+        }
+    }
+
+    /**
+     * Fonction de lissage (smoothstep) pour créer des transitions fluides.
+     * Équivalent à la fonction smoothstep de GLSL.
+     * 
+     * @param edge0 Début de la transition
+     * @param edge1 Fin de la transition  
+     * @param x Valeur d'entrée
+     * @return Valeur lissée entre 0 et 1
+     */
+    private float smoothStep(float edge0, float edge1, float x) {
+        // Clamper x entre edge0 et edge1
+        float t = Math.max(0.0f, Math.min(1.0f, (x - edge0) / (edge1 - edge0)));
+        // Appliquer la courbe de lissage : 3t² - 2t³
+        return t * t * (3.0f - 2.0f * t);
+    }
+
+    /**
+     * Combine les différents bruits selon le relief.
+     */
+    private float combineNoise(float primaryNoise, float detailNoise, float ridgeNoise) {
+        switch (reliefComplexity) {
+            case 0: // Relief minimal : force un minimum plus élevé pour toujours avoir du relief
+                float baseNoise0 = primaryNoise * 0.8f + detailNoise * 0.3f;
+                return Math.max(0.2f, baseNoise0); // Force un minimum de 20% du bruit
+            case 1: // Doux : seulement le bruit principal atténué
+                return Math.max(0.1f, primaryNoise * 0.7f + detailNoise * 0.2f);
+            case 2: // Modéré : bruit principal + un peu de détail
+                return primaryNoise * 0.7f + detailNoise * 0.3f;
+            case 3: // Accidenté : bruit principal + détail + début de crêtes
+                return primaryNoise * 0.5f + detailNoise * 0.3f + ridgeNoise * 0.2f;
+            case 4: // Montagneux : tous les bruits avec emphase sur les crêtes
+                return primaryNoise * 0.4f + detailNoise * 0.2f + ridgeNoise * 0.4f;
+            default:
+                return primaryNoise;
+        }
+    }
+
+    /**
+     * Applique des modifications basées sur la température.
+     */
+    private float applyTemperatureModification(float heightFactor, float worldX, float worldZ) {
+        if (temperature >= 4) {
+            // Température torride : créer des volcans occasionnels
+            float volcanoNoise = worldPerlinNoise.Noise2D(worldX * 0.005f, worldZ * 0.005f);
+            if (volcanoNoise > 0.85f) {
+                heightFactor += (volcanoNoise - 0.85f) * 6.0f; // Pics volcaniques
+            }
+        } else if (temperature <= 1) {
+            // Température froide : adoucir les reliefs (érosion glaciaire)
+            heightFactor *= 0.8f;
+        }
+        
+        return Math.max(0, Math.min(1, heightFactor));
+    }
+
+    /**
+     * Détermine le type de bloc de surface à utiliser sous l'eau selon le biome.
+     */
+    public BlockType getUnderwaterSurfaceBlock() {
+        // Marécage : toujours de la boue sous l'eau
+        if (activeBiome.isSwamp()) {
+            return BlockType.MUD;
+        }
+        
+        // Jungle : sol riche sous l'eau
+        if (activeBiome.isJungle()) {
+            return BlockType.RICH_SOIL;
+        }
+        
+        // Désert brûlant : sable rouge
+        if (activeBiome.isHotDesert()) {
+            return BlockType.RED_SAND;
+        }
+        
+        // Volcanique : cendres ou sol volcanique
+        if (activeBiome.isVolcanic()) {
+            return BlockType.ASH;
+        }
+        
+        // Arctique : neige sous l'eau gelée
+        if (activeBiome.isArctic()) {
+            return BlockType.SNOW;
+        }
+        
+        // Toundra : permafrost
+        if (activeBiome.isTundra()) {
+            return BlockType.PERMAFROST;
+        }
+        
+        // Autres zones très froides : permafrost
+        if (temperature <= 0) {
+            return BlockType.PERMAFROST;
+        }
+        
+        // Oasis et zones tropicales : sable corallien ou sable normal
+        if (temperature >= 3 && humidity >= 3) {
+            return BlockType.CORAL_SAND;
+        }
+        
+        // Logique par défaut selon la température
+        if (temperature >= 4) {
+            return BlockType.RED_SAND; // Déserts chauds
+        } else if (temperature >= 3) {
+            return BlockType.SAND; // Zones chaudes normales
+        } else if (temperature <= 1) {
+            return BlockType.CLAY; // Zones froides
+        } else {
+            return BlockType.SAND; // Défaut tempéré
+        }
+    }
+
+    /**
+     * Calcule le niveau d'eau selon la température et l'humidité.
+     */
+    public int calculateWaterLevel() {
+        // Niveau de base plus élevé pour avoir vraiment de l'eau
+        int baseWaterLevel = BASE_TERRAIN_LEVEL + 5;
+
+        // Ajustements majeurs selon l'humidité
+        if (humidity >= 4) baseWaterLevel += 20;      // Très humide : beaucoup d'eau
+        else if (humidity >= 3) baseWaterLevel += 10; // Humide : pas mal d'eau
+        else if (humidity >= 2) baseWaterLevel += 5;  // Modéré : un peu d'eau
+        else if (humidity <= 1) baseWaterLevel -= 20; // Très sec : peu d'eau
+        else baseWaterLevel -= 10; // Sec : moins d'eau
+
+        // Ajustements selon la température
+        if (temperature <= 1) baseWaterLevel += 0;   // Froid : eau gelée mais même niveau
+        else if (temperature >= 4) baseWaterLevel -= 5; // Chaud : évaporation légère
+
+        return Math.max(BASE_TERRAIN_LEVEL - 30, baseWaterLevel);
+    }
+
+    /**
+     * Obtient l'échelle primaire selon le relief.
+     */
+    private float getPrimaryScale() {
+        switch (reliefComplexity) {
+            case 0: case 1: return 0.002f;  // Très grandes structures
+            case 2: return 0.005f;          // Grandes structures
+            case 3: return 0.008f;          // Structures moyennes
+            case 4: return 0.012f;          // Structures plus petites mais plus marquées
+            default: return 0.005f;
+        }
+    }
+
+    /**
+     * Obtient l'échelle de détail selon le relief.
+     */
+    private float getDetailScale() {
+        return getPrimaryScale() * 4.0f; // Toujours 4x plus fin que le primaire
+    }
+
+    /**
+     * Obtient l'échelle des crêtes selon le relief.
+     */
+    private float getRidgeScale() {
+        return getPrimaryScale() * 2.0f; // 2x plus fin que le primaire
+    }
+}
@@ -0,0 +1,62 @@
+package voxel.model;
+
+/**
+ * Options de génération d'un monde qui ne dépendent pas du biome :
+ * graine, grottes et paramètres de l'érosion.
+ * Les valeurs par défaut reproduisent la génération standard du jeu.
+ */
+public class WorldGenerationOptions {
+    /** Graine du monde */
+    private int seed = WorldModel.DEFAULT_WORLD_SEED;
+
+    /** Génération des grottes activée ou non */
+    private boolean cavesEnabled = true;
+
+    /** Nombre d'itérations d'érosion (0 = érosion désactivée) */
+    private int erosionIterations = 0;
+
+    /** Taille des tuiles d'érosion en blocs (côté du carré traité par une tâche) */
+    private int erosionTileSize = 128;
+
+    public int getSeed() {
+        return seed;
+    }
+
+    public void setSeed(int seed) {
+        this.seed = seed;
+    }
+
+    public boolean isCavesEnabled() {
+        return cavesEnabled;
+    }
+
+    public void setCavesEnabled(boolean cavesEnabled) {
+        this.cavesEnabled = cavesEnabled;
+    }
+
+    public int getErosionIterations() {
+        return erosionIterations;
+    }
+
+    /**
+     * Définit le nombre d'itérations d'érosion.
+     *
+     * @param erosionIterations Nombre d'itérations (0 pour désactiver l'érosion)
+     */
+    public void setErosionIterations(int erosionIterations) {
+        this.erosionIterations = Math.max(0, erosionIterations);
+    }
+
+    public int getErosionTileSize() {
+        return erosionTileSize;
+    }
+
+    /**
+     * Définit la taille des tuiles d'érosion.
+     *
+     * @param erosionTileSize Côté d'une tuile en blocs (minimum 8)
+     */
+    public void setErosionTileSize(int erosionTileSize) {
+        this.erosionTileSize = Math.max(8, erosionTileSize);
+    }
+}
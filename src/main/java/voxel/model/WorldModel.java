@@ -4,10 +4,16 @@ import com.jme3.math.Vector3f;
 import voxel.model.entity.EntityManager;
 import voxel.model.structure.plant.BasicTree;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 
 /**
  * Représente le monde de voxels complet, composé de plusieurs chunks.
@@ -16,6 +22,9 @@ import java.util.concurrent.TimeUnit;
 public class WorldModel {
     /** Taille par défaut du monde en nombre de chunks sur les axes X et Z */
     public static final int DEFAULT_WORLD_SIZE = 16;
+
+    /** Hauteur en nombre de chunks des mondes créés depuis le menu */
+    public static final int DEFAULT_WORLD_HEIGHT = 8;
     
     /** Tableau 3D contenant tous les chunks du monde */
     private ChunkModel[][][] chunks;
@@ -37,17 +46,26 @@ public class WorldModel {
 
     private EntityManager entityManager;
 
-    /** Générateur de nombres aléatoires */
-    private final Random random = new Random();
+    /** Générateur de nombres aléatoires, initialisé avec la graine du monde pour une génération reproductible */
+    private final Random random;
+
+    /** Graine par défaut des mondes générés */
+    public static final int DEFAULT_WORLD_SEED = 424242;
 
     /** Valeurs pour definir l'echelle des montagne et des details dans le bruit de Perlin */
-    private final int worldSeed = 424242;
+    private final int worldSeed;
+
+    /** Options de génération (graine, grottes, érosion) */
+    private final WorldGenerationOptions generationOptions;
+
+    /** Durée de chaque étape de la génération en millisecondes, dans l'ordre d'exécution */
+    private final Map<String, Long> stageTimings = new LinkedHashMap<>();
 
-    /** Bruit de Perlin pour le monde entier */
-    private PerlinNoise worldPerlinNoise;
-    private PerlinNoise detailPerlinNoise;
-    private PerlinNoise ridgePerlinNoise;
-    private PerlinNoise zonePerlinNoise; // Nouvelle couche pour les zones
+    /** Carte des hauteurs du terrain (x + largeur * z), libérée après le remplissage des chunks */
+    private float[] heightMap;
+
+    /** Générateur de relief (bruits de Perlin et blocs du biome) */
+    private TerrainGenerator terrainGenerator;
 
     /** Biome actif */
     private BiomeType activeBiome;
@@ -62,19 +80,29 @@ public class WorldModel {
     // Complexité du relief : 0 = Minimal, 1 = Faible, 2 = Modéré, 3 = Élevé, 4 = Maximum
     private int reliefComplexity = 2; // Valeur par défaut : Modéré
 
-    /** Hauteurs fixes pour les différents niveaux de relief (en blocs) */
-    private static final int[] RELIEF_HEIGHTS = {
-        60,   // Relief 0 : Variations importantes (0-60 blocs) - JAMAIS plat
-        90,   // Relief 1 : Reliefs moyens (0-90 blocs) 
-        140,  // Relief 2 : Reliefs importants (0-140 blocs) 
-        200,  // Relief 3 : Reliefs marqués (0-220 blocs)
-        320   // Relief 4 : Très hautes montagnes (0-320 blocs)
-    };
-
     private int waterLevel;
 
-    /** Niveau de base du terrain */
-    private static final int BASE_TERRAIN_LEVEL = 40;
+    /** Gabarit de remplissage des colonnes, précalculé une fois par monde */
+    private ColumnTemplate columnTemplate;
+
+    /** Générateur de grottes (bruit 3D sur réseau grossier) */
+    private CaveCarver caveCarver;
+
+    /** Moteur d'éclairage (lumière du ciel et des blocs), créé à la fin de la génération */
+    private LightEngine lightEngine;
+
+    /**
+     * Reçoit les positions (coordonnées globales, monde centré) dont le bloc a changé.
+     */
+    public interface BlockChangeListener {
+        void blockChanged(int x, int y, int z);
+    }
+
+    /** Destinataire des modifications de blocs (null si aucun) */
+    private BlockChangeListener blockChangeListener;
+
+    /** Jeton permettant d'interrompre la génération en cours */
+    private final CancellationToken cancellationToken;
 
     /**
      * Crée un nouveau monde de voxels avec la taille par défaut.
@@ -107,6 +135,45 @@ public class WorldModel {
      * @param reliefComplexity Niveau de complexité du relief (0-4)
      */
     public WorldModel(BiomeType biome, int worldSize, int worldSizeY, int temperature, int humidity, int reliefComplexity) {
+        this(biome, worldSize, worldSizeY, temperature, humidity, reliefComplexity, new CancellationToken());
+    }
+
+    /**
+     * Crée un nouveau monde de voxels dont la génération peut être annulée.
+     * Si le jeton est annulé pendant la génération, les chunks déjà construits sont libérés
+     * et le constructeur lève une CancellationException.
+     *
+     * @param biome Le type de biome du monde
+     * @param worldSize La taille du monde en nombre de chunks (axes X et Z)
+     * @param temperature Niveau de température (0-4)
+     * @param humidity Niveau d'humidité (0-4)
+     * @param reliefComplexity Niveau de complexité du relief (0-4)
+     * @param cancellationToken Jeton consulté à chaque colonne pendant la génération
+     * @throws CancellationException si la génération a été annulée
+     */
+    public WorldModel(BiomeType biome, int worldSize, int worldSizeY, int temperature, int humidity, int reliefComplexity,
+                      CancellationToken cancellationToken) {
+        this(biome, worldSize, worldSizeY, temperature, humidity, reliefComplexity, new WorldGenerationOptions(), cancellationToken);
+    }
+
+    /**
+     * Crée un nouveau monde de voxels avec des options de génération explicites.
+     *
+     * @param biome Le type de biome du monde
+     * @param worldSize La taille du monde en nombre de chunks (axes X et Z)
+     * @param temperature Niveau de température (0-4)
+     * @param humidity Niveau d'humidité (0-4)
+     * @param reliefComplexity Niveau de complexité du relief (0-4)
+     * @param options Options de génération (graine, grottes, érosion)
+     * @param cancellationToken Jeton consulté à chaque colonne pendant la génération
+     * @throws CancellationException si la génération a été annulée
+     */
+    public WorldModel(BiomeType biome, int worldSize, int worldSizeY, int temperature, int humidity, int reliefComplexity,
+                      WorldGenerationOptions options, CancellationToken cancellationToken) {
+        this.cancellationToken = cancellationToken;
+        this.generationOptions = options;
+        this.worldSeed = options.getSeed();
+        this.random = new Random(worldSeed);
         this.worldSizeX = worldSize;
         this.worldSizeY = worldSizeY;
         this.worldSizeZ = worldSize;
@@ -126,13 +193,13 @@ public class WorldModel {
         chunks = new ChunkModel[worldSizeX][worldSizeY][worldSizeZ];
 
         // Initialisation des bruits de Perlin pour tout le monde
-        worldPerlinNoise = new PerlinNoise(worldSeed); // Bruit principal
-        detailPerlinNoise = new PerlinNoise(worldSeed + 1000); // Bruit de détail
-        ridgePerlinNoise = new PerlinNoise(worldSeed + 2000); // Bruit pour les crêtes
-        zonePerlinNoise = new PerlinNoise(worldSeed + 3000); // Nouvelle couche pour les zones
+        terrainGenerator = new TerrainGenerator(worldSeed, activeBiome, this.temperature, this.humidity, this.reliefComplexity);
 
         generateWorld(false);
+        cancellationToken.throwIfCancelled();
+        long entitiesStart = System.nanoTime();
         entityManager = new EntityManager(this);
+        recordStage("entités", entitiesStart);
 
         System.out.println("Création du monde de taille " + worldSizeX + "x" + worldSizeY + "x" + worldSizeZ);
         System.out.println("Biome : " + activeBiome.toString());
@@ -140,419 +207,288 @@ public class WorldModel {
 
     /**
      * Génère le monde complet avec tous ses chunks.
+     * Pour les mondes normaux, la génération se fait en trois étapes : carte des hauteurs,
+     * érosion optionnelle de cette carte, puis remplissage des chunks (et creusement des grottes).
      */
     private void generateWorld(Boolean flat) {
+        long stageStart = System.nanoTime();
 
         // Créer tous les chunks vides
         for (int cx = 0; cx < worldSizeX; cx++) {
+            // L'allocation des chunks est coûteuse sur les grands mondes : s'arrêter au plus tôt
+            if (cancellationToken.isCancelled()) {
+                abortGeneration();
+            }
             for (int cy = 0; cy < worldSizeY; cy++) {
                 for (int cz = 0; cz < worldSizeZ; cz++) {
                     chunks[cx][cy][cz] = new ChunkModel(true, cx, cy, cz); // Créer des chunks vides
                 }
             }
         }
+        recordStage("allocation", stageStart);
 
         // Calcul du nombre de threads (processeurs - 4, minimum 1)
         int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 4);
         System.out.println("Génération du monde avec " + threads + " threads...");
 
         if (activeBiome.isFloatingIsland()) {
-            // Cas spécial pour l'île flottante (non parallélisé car modifie une zone centrale fixe)
-            for (int cx = 0; cx < worldSizeX; cx++) {
-                for (int cz = 0; cz < worldSizeZ; cz++) {
-                    createFloatingIsland();
-                }
-            }
+            // Cas spécial pour l'île flottante : une seule île au centre du monde (non parallélisé)
+            stageStart = System.nanoTime();
+            createFloatingIsland();
+            recordStage("île flottante", stageStart);
+        } else if (flat) {
+            stageStart = System.nanoTime();
+            runColumnTasks(threads, this::generateTerrainFlat);
+            recordStage("terrain", stageStart);
         } else {
-            // Génération parallèle pour les mondes normaux
-            ExecutorService executor = Executors.newFixedThreadPool(threads);
-
-            for (int cx = 0; cx < worldSizeX; cx++) {
-                final int currentCx = cx;
-                for (int cz = 0; cz < worldSizeZ; cz++) {
-                    final int currentCz = cz;
-                    executor.submit(() -> {
-                        if(flat){
-                            generateTerrainFlat(currentCx, currentCz);
-                        } else {
-                            generateTerrainWithBiome(currentCx, currentCz);
-                        }
-                    });
+            // Niveau d'eau et gabarit de colonne calculés une seule fois, avant le lancement des threads
+            waterLevel = terrainGenerator.getWaterLevel();
+            columnTemplate = terrainGenerator.createColumnTemplate(worldSizeY * ChunkModel.SIZE);
+            caveCarver = generationOptions.isCavesEnabled() ? new CaveCarver(worldSeed) : null;
+
+            // Étape 1 : carte des hauteurs
+            stageStart = System.nanoTime();
+            heightMap = new float[worldSizeX * ChunkModel.SIZE * worldSizeZ * ChunkModel.SIZE];
+            runColumnTasks(threads, this::computeHeightMap);
+            recordStage("hauteurs", stageStart);
+
+            // Étape 2 : érosion optionnelle
+            if (generationOptions.getErosionIterations() > 0 && !cancellationToken.isCancelled()) {
+                stageStart = System.nanoTime();
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                try {
+                    new HydraulicErosion(worldSizeX * ChunkModel.SIZE, worldSizeZ * ChunkModel.SIZE,
+                            generationOptions.getErosionTileSize())
+                            .erode(heightMap, generationOptions.getErosionIterations(), pool, cancellationToken);
+                } finally {
+                    pool.shutdownNow();
                 }
+                recordStage("érosion", stageStart);
             }
 
-            executor.shutdown();
-            try {
-                // Attendre la fin de la génération (timeout de 5 minutes par sécurité)
-                if (!executor.awaitTermination(5, TimeUnit.MINUTES)) {
-                    executor.shutdownNow();
-                    System.err.println("Timeout lors de la génération du monde !");
-                }
-            } catch (InterruptedException e) {
-                executor.shutdownNow();
-                Thread.currentThread().interrupt();
-            }
+            // Étape 3 : remplissage des chunks et grottes
+            stageStart = System.nanoTime();
+            runColumnTasks(threads, this::generateTerrainWithBiome);
+            recordStage("terrain", stageStart);
+            heightMap = null;
+        }
+
+        if (cancellationToken.isCancelled()) {
+            abortGeneration();
         }
 
         // Ajout des nuages aléatoires dans le ciel
+        stageStart = System.nanoTime();
         addClouds();
+        recordStage("nuages", stageStart);
+
+        // Éclairage initial : colonnes éclairées par le ciel en parallèle, puis propagation
+        stageStart = System.nanoTime();
+        LightEngine engine = new LightEngine(this);
+        runColumnTasks(threads, engine::fillSkyColumns);
+        if (cancellationToken.isCancelled()) {
+            abortGeneration();
+        }
+        engine.propagateInitialLight(cancellationToken);
+        if (cancellationToken.isCancelled()) {
+            abortGeneration();
+        }
+        lightEngine = engine;
+        recordStage("lumière", stageStart);
     }
 
     /**
-     * Génère un terrain basé sur le biome et les paramètres environnementaux.
-     * Optimisé pour réduire les calculs de coordonnées et les accès mémoire.
-     * @param chunkX coordonnée X du chunk dans le tableau
-     * @param chunkZ coordonnée Z du chunk dans le tableau
+     * Exécute une tâche par colonne de chunks (cx, cz) sur un pool de threads et attend la fin,
+     * en surveillant le jeton d'annulation.
+     *
+     * @param threads Nombre de threads du pool
+     * @param task Tâche recevant les indices cx et cz de la colonne
      */
-    private void generateTerrainWithBiome(int chunkX, int chunkZ) {
-        // Coordonnées globales du chunk
-        float worldXStart = chunkX * ChunkModel.SIZE - (float) (worldSizeX * ChunkModel.SIZE) / 2;
-        float worldZStart = chunkZ * ChunkModel.SIZE - (float) (worldSizeZ * ChunkModel.SIZE) / 2;
-
-        // Hauteur max de terrain basée sur le relief (hauteur fixe)
-        int maxReliefVariation = RELIEF_HEIGHTS[reliefComplexity];
-        
-        // Niveau d'eau basé sur la température et l'humidité
-        waterLevel = calculateWaterLevel();
+    private void runColumnTasks(int threads, BiConsumer<Integer, Integer> task) {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
 
-        // Pré-chargement des chunks verticaux pour éviter les lookups répétés
-        ChunkModel[] columnChunks = new ChunkModel[worldSizeY];
-        for (int cy = 0; cy < worldSizeY; cy++) {
-            columnChunks[cy] = chunks[chunkX][cy][chunkZ];
+        for (int cx = 0; cx < worldSizeX; cx++) {
+            final int currentCx = cx;
+            for (int cz = 0; cz < worldSizeZ; cz++) {
+                final int currentCz = cz;
+                executor.submit(() -> {
+                    if (cancellationToken.isCancelled()) {
+                        return;
+                    }
+                    task.accept(currentCx, currentCz);
+                });
+            }
         }
 
-        // Générer chaque colonne de blocs
-        for (int x = 0; x < ChunkModel.SIZE; x++) {
-            for (int z = 0; z < ChunkModel.SIZE; z++) {
-                // Coordonnées globales pour ce bloc spécifique
-                float worldX = worldXStart + x;
-                float worldZ = worldZStart + z;
-
-                // Calcul de la hauteur du terrain
-                int terrainHeight = calculateTerrainHeight(worldX, worldZ, maxReliefVariation);
-                
-                // Limiter la hauteur pour éviter de dépasser le monde
-                int totalWorldHeight = worldSizeY * ChunkModel.SIZE;
-                terrainHeight = Math.min(terrainHeight, totalWorldHeight - 1);
-                terrainHeight = Math.max(terrainHeight, 0);
-                
-                // Optimisation: ne calculer que jusqu'à la hauteur nécessaire (max terrain ou eau)
-                // Les blocs au-dessus sont déjà de l'AIR par défaut
-                int maxGenHeight = Math.max(terrainHeight, waterLevel);
-                maxGenHeight = Math.min(maxGenHeight, totalWorldHeight - 1);
-
-                // Remplissage optimisé colonne par colonne
-                for (int y = 0; y <= maxGenHeight; y++) {
-                    // Conversion optimisée coordonnées globales -> locales
-                    int cy = y / ChunkModel.SIZE;
-                    int localY = y % ChunkModel.SIZE;
-                    
-                    ChunkModel targetChunk = columnChunks[cy];
-                    if (targetChunk != null) {
-                        BlockType blockType = determineBlockType(y, terrainHeight, waterLevel);
-                        // Écriture directe dans le chunk sans recalcul global
-                        if (blockType != BlockType.AIR) {
-                            targetChunk.setBlock(x, localY, z, blockType.getId());
-                        }
-                    }
+        executor.shutdown();
+        try {
+            // Attendre la fin de la génération (timeout de 5 minutes par sécurité),
+            // en surveillant régulièrement le jeton d'annulation
+            long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(5);
+            while (!executor.awaitTermination(50, TimeUnit.MILLISECONDS)) {
+                if (cancellationToken.isCancelled()) {
+                    executor.shutdownNow();
+                    break;
+                }
+                if (System.nanoTime() > deadline) {
+                    executor.shutdownNow();
+                    System.err.println("Timeout lors de la génération du monde !");
+                    break;
                 }
             }
+        } catch (InterruptedException e) {
+            // Le thread demandeur a été interrompu : on considère la génération comme annulée
+            executor.shutdownNow();
+            cancellationToken.cancel();
+            Thread.currentThread().interrupt();
         }
     }
 
     /**
-     * Calcule la hauteur du terrain en fonction des bruits de Perlin et du relief.
+     * Enregistre la durée d'une étape de génération et l'affiche.
+     *
+     * @param stage Nom de l'étape
+     * @param startNanos Instant de début de l'étape (System.nanoTime)
      */
-    private int calculateTerrainHeight(float worldX, float worldZ, int maxReliefVariation) {
-        // Couche de zonage à échelle intermédiaire pour créer des zones variées
-        // Augmentation de la fréquence pour avoir plus de zones dans un monde 32x32
-        float zoneScale = 0.004f; // Échelle augmentée pour plus de variété
-        float zoneNoise = zonePerlinNoise.Noise2D(worldX * zoneScale, worldZ * zoneScale);
-        
-        // Déterminer le facteur de zone avec des transitions fluides
-        float zoneFactor = calculateZoneFactor(zoneNoise);
-
-        // Échelles différentes selon le relief
-        float primaryScale = getPrimaryScale();
-        float detailScale = getDetailScale();
-        float ridgeScale = getRidgeScale();
-
-        // Bruit principal (grandes structures)
-        float primaryNoise = worldPerlinNoise.Noise2D(worldX * primaryScale, worldZ * primaryScale);
-        
-        // Bruit de détail (petites variations)
-        float detailNoise = detailPerlinNoise.Noise2D(worldX * detailScale, worldZ * detailScale);
-        
-        // Bruit pour les crêtes (relief accidenté)
-        float ridgeNoise = 0;
-        if (reliefComplexity >= 3) {
-            ridgeNoise = ridgePerlinNoise.Noise2D(worldX * ridgeScale, worldZ * ridgeScale);
-            // Transformer en crêtes (valeurs proches de 0.5 donnent des pics)
-            ridgeNoise = 1.0f - 2.0f * Math.abs(ridgeNoise - 0.5f);
-        }
-
-        // Combiner les bruits selon le type de relief
-        float baseHeightFactor = combineNoise(primaryNoise, detailNoise, ridgeNoise);
-        
-        // Appliquer le facteur de zone avec une transition fluide
-        float heightFactor = baseHeightFactor * zoneFactor;
-        
-        // Appliquer des courbes selon la température (volcans, glaciers, etc.)
-        heightFactor = applyTemperatureModification(heightFactor, worldX, worldZ);
-        
-        // Calculer la hauteur finale
-        int heightVariation = (int) (heightFactor * maxReliefVariation);
-        return BASE_TERRAIN_LEVEL + heightVariation;
+    private void recordStage(String stage, long startNanos) {
+        long elapsedMs = (System.nanoTime() - startNanos) / 1_000_000L;
+        stageTimings.put(stage, elapsedMs);
+        System.out.println("  Étape " + stage + " : " + elapsedMs + " ms");
     }
 
     /**
-     * Calcule le facteur de zone basé sur le bruit de zonage avec des transitions fluides.
-     * Retourne une valeur entre 0 (zone plate) et 1 (zone montagneuse).
-     * Utilise des fonctions de lissage au lieu de seuils durs pour éviter les "murs".
-     * Tous les niveaux de relief ont maintenant des zones, mais à différentes intensités.
+     * Récupère la durée des étapes de la génération, dans l'ordre d'exécution.
+     *
+     * @return Map non modifiable nom d'étape -> durée en millisecondes
      */
-    private float calculateZoneFactor(float zoneNoise) {
-        switch (reliefComplexity) {
-            case 0:
-                // Relief minimal : FORCE un minimum élevé pour JAMAIS être plat
-                // Garantit toujours entre 40% et 90% du relief maximum
-                float factor0 = smoothStep(0.2f, 0.8f, zoneNoise);
-                return 0.4f + factor0 * 0.5f; // Entre 40% et 90% de relief - JAMAIS plat
-
-            case 1:
-                // Relief doux : bon contraste avec minimum élevé
-                float factor1 = smoothStep(0.2f, 0.75f, zoneNoise);
-                return 0.3f + factor1 * 0.6f; // Entre 30% et 90% de relief
-
-            case 2:
-                // Relief modéré : contrastes nets entre vallées et montagnes moyennes
-                float factor2 = smoothStep(0.25f, 0.75f, zoneNoise);
-                return 0.2f + factor2 * 0.7f; // Entre 20% et 90% de relief
-
-            case 3:
-                // Relief accidenté : alternance marquée entre plaines et hautes collines
-                float factor3 = smoothStep(0.2f, 0.8f, zoneNoise);
-                return 0.25f + factor3 * 0.65f; // Entre 25% et 90% de relief
-
-            case 4:
-                // Utilise plusieurs courbes de lissage superposées au lieu de seuils nets
-                
-                // Facteur pour les vallées plates (zones très basses)
-                float valleyFactor = 1.0f - smoothStep(0.0f, 0.3f, zoneNoise);
-                
-                // Facteur pour les hautes montagnes (zones très hautes) 
-                float mountainFactor = smoothStep(0.7f, 1.0f, zoneNoise);
-                
-                // Facteur pour les collines intermédiaires
-                float hillFactor = smoothStep(0.25f, 0.75f, zoneNoise) * (1.0f - valleyFactor) * (1.0f - mountainFactor);
-                
-                // Combinaison fluide des trois zones
-                float baseLevel = 0.05f;  // Niveau minimal pour vallées
-                float hillLevel = 0.4f;   // Niveau moyen pour collines
-                float mountainLevel = 0.9f; // Niveau élevé pour montagnes
-                
-                return baseLevel * valleyFactor + 
-                       hillLevel * hillFactor + 
-                       mountainLevel * mountainFactor +
-                       0.1f * (1.0f - valleyFactor - hillFactor - mountainFactor); // Niveau de base pour zones non définies
-
-            default:
-                return 0.5f;
-        }
+    public Map<String, Long> getStageTimings() {
+        return Collections.unmodifiableMap(stageTimings);
     }
 
     /**
-     * Fonction de lissage (smoothstep) pour créer des transitions fluides.
-     * Équivalent à la fonction smoothstep de GLSL.
-     * 
-     * @param edge0 Début de la transition
-     * @param edge1 Fin de la transition  
-     * @param x Valeur d'entrée
-     * @return Valeur lissée entre 0 et 1
+     * Calcule une empreinte du contenu de tous les chunks (FNV-1a 64 bits).
+     * Deux mondes générés avec les mêmes paramètres doivent avoir la même empreinte.
+     *
+     * @return L'empreinte du monde
      */
-    private float smoothStep(float edge0, float edge1, float x) {
-        // Clamper x entre edge0 et edge1
-        float t = Math.max(0.0f, Math.min(1.0f, (x - edge0) / (edge1 - edge0)));
-        // Appliquer la courbe de lissage : 3t² - 2t³
-        return t * t * (3.0f - 2.0f * t);
+    public long computeContentHash() {
+        long hash = 0xcbf29ce484222325L;
+        for (int cx = 0; cx < worldSizeX; cx++) {
+            for (int cy = 0; cy < worldSizeY; cy++) {
+                for (int cz = 0; cz < worldSizeZ; cz++) {
+                    hash = chunks[cx][cy][cz].hashBlocks(hash);
+                }
+            }
+        }
+        return hash;
     }
 
-    /**
-     * Combine les différents bruits selon le relief.
-     */
-    private float combineNoise(float primaryNoise, float detailNoise, float ridgeNoise) {
-        switch (reliefComplexity) {
-            case 0: // Relief minimal : force un minimum plus élevé pour toujours avoir du relief
-                float baseNoise0 = primaryNoise * 0.8f + detailNoise * 0.3f;
-                return Math.max(0.2f, baseNoise0); // Force un minimum de 20% du bruit
-            case 1: // Doux : seulement le bruit principal atténué
-                return Math.max(0.1f, primaryNoise * 0.7f + detailNoise * 0.2f);
-            case 2: // Modéré : bruit principal + un peu de détail
-                return primaryNoise * 0.7f + detailNoise * 0.3f;
-            case 3: // Accidenté : bruit principal + détail + début de crêtes
-                return primaryNoise * 0.5f + detailNoise * 0.3f + ridgeNoise * 0.2f;
-            case 4: // Montagneux : tous les bruits avec emphase sur les crêtes
-                return primaryNoise * 0.4f + detailNoise * 0.2f + ridgeNoise * 0.4f;
-            default:
-                return primaryNoise;
-        }
+    public WorldGenerationOptions getGenerationOptions() {
+        return generationOptions;
     }
 
     /**
-     * Applique des modifications basées sur la température.
+     * Libère les chunks partiellement construits et signale l'annulation de la génération.
+     * Les références sont supprimées pour que la mémoire soit récupérable immédiatement,
+     * sans attendre que le monde abandonné soit lui-même collecté.
+     *
+     * @throws CancellationException toujours
      */
-    private float applyTemperatureModification(float heightFactor, float worldX, float worldZ) {
-        if (temperature >= 4) {
-            // Température torride : créer des volcans occasionnels
-            float volcanoNoise = worldPerlinNoise.Noise2D(worldX * 0.005f, worldZ * 0.005f);
-            if (volcanoNoise > 0.85f) {
-                heightFactor += (volcanoNoise - 0.85f) * 6.0f; // Pics volcaniques
+    private void abortGeneration() {
+        for (int cx = 0; cx < worldSizeX; cx++) {
+            for (int cy = 0; cy < worldSizeY; cy++) {
+                for (int cz = 0; cz < worldSizeZ; cz++) {
+                    chunks[cx][cy][cz] = null;
+                }
             }
-        } else if (temperature <= 1) {
-            // Température froide : adoucir les reliefs (érosion glaciaire)
-            heightFactor *= 0.8f;
         }
-        
-        return Math.max(0, Math.min(1, heightFactor));
+        chunks = null;
+        System.out.println("Génération du monde annulée, chunks libérés");
+        throw new CancellationException("Génération du monde annulée");
     }
 
     /**
-     * Détermine le type de bloc à placer selon la position et les paramètres du biome.
+     * Calcule la carte des hauteurs (non bornées) pour une colonne de chunks.
+     * @param chunkX coordonnée X du chunk dans le tableau
+     * @param chunkZ coordonnée Z du chunk dans le tableau
      */
-    private BlockType determineBlockType(int y, int terrainHeight, int waterLevel) {
-        // Au-dessus du terrain : air ou eau
-        if (y >= terrainHeight) {
-            if (y <= waterLevel) {
-                return activeBiome.getWaterBlock();
-            } else {
-                return BlockType.AIR;
+    private void computeHeightMap(int chunkX, int chunkZ) {
+        int mapWidth = worldSizeX * ChunkModel.SIZE;
+        int blockXStart = chunkX * ChunkModel.SIZE;
+        int blockZStart = chunkZ * ChunkModel.SIZE;
+        float worldXStart = blockXStart - (float) mapWidth / 2;
+        float worldZStart = blockZStart - (float) (worldSizeZ * ChunkModel.SIZE) / 2;
+
+        for (int z = 0; z < ChunkModel.SIZE; z++) {
+            if (cancellationToken.isCancelled()) {
+                return;
             }
-        }
-
-        // Dans le terrain
-        if (y == terrainHeight - 1) {
-            // Surface
-            if (y <= waterLevel) {
-                // Sous l'eau : utiliser le bon bloc selon le biome
-                return getUnderwaterSurfaceBlock();
-            } else {
-                return activeBiome.getSurfaceBlock();
+            int row = (blockZStart + z) * mapWidth + blockXStart;
+            for (int x = 0; x < ChunkModel.SIZE; x++) {
+                heightMap[row + x] = terrainGenerator.getTerrainHeight(worldXStart + x, worldZStart + z);
             }
-        } else if (y >= terrainHeight - 4) {
-            // Sous-surface (3 blocs sous la surface)
-            return activeBiome.getSubSurfaceBlock();
-        } else {
-            // Profondeur
-            return activeBiome.getDeepBlock();
         }
     }
-    
+
     /**
-     * Détermine le type de bloc de surface à utiliser sous l'eau selon le biome.
+     * Génère un terrain basé sur le biome et les paramètres environnementaux.
+     * Optimisé pour réduire les calculs de coordonnées et les accès mémoire.
+     * @param chunkX coordonnée X du chunk dans le tableau
+     * @param chunkZ coordonnée Z du chunk dans le tableau
      */
-    private BlockType getUnderwaterSurfaceBlock() {
-        // Marécage : toujours de la boue sous l'eau
-        if (activeBiome.isSwamp()) {
-            return BlockType.MUD;
-        }
-        
-        // Jungle : sol riche sous l'eau
-        if (activeBiome.isJungle()) {
-            return BlockType.RICH_SOIL;
-        }
-        
-        // Désert brûlant : sable rouge
-        if (activeBiome.isHotDesert()) {
-            return BlockType.RED_SAND;
-        }
-        
-        // Volcanique : cendres ou sol volcanique
-        if (activeBiome.isVolcanic()) {
-            return BlockType.ASH;
-        }
-        
-        // Arctique : neige sous l'eau gelée
-        if (activeBiome.isArctic()) {
-            return BlockType.SNOW;
-        }
-        
-        // Toundra : permafrost
-        if (activeBiome.isTundra()) {
-            return BlockType.PERMAFROST;
-        }
-        
-        // Autres zones très froides : permafrost
-        if (temperature <= 0) {
-            return BlockType.PERMAFROST;
-        }
-        
-        // Oasis et zones tropicales : sable corallien ou sable normal
-        if (temperature >= 3 && humidity >= 3) {
-            return BlockType.CORAL_SAND;
-        }
-        
-        // Logique par défaut selon la température
-        if (temperature >= 4) {
-            return BlockType.RED_SAND; // Déserts chauds
-        } else if (temperature >= 3) {
-            return BlockType.SAND; // Zones chaudes normales
-        } else if (temperature <= 1) {
-            return BlockType.CLAY; // Zones froides
-        } else {
-            return BlockType.SAND; // Défaut tempéré
+    private void generateTerrainWithBiome(int chunkX, int chunkZ) {
+        // Coordonnées globales du chunk
+        float worldXStart = chunkX * ChunkModel.SIZE - (float) (worldSizeX * ChunkModel.SIZE) / 2;
+        float worldZStart = chunkZ * ChunkModel.SIZE - (float) (worldSizeZ * ChunkModel.SIZE) / 2;
+
+        int totalWorldHeight = worldSizeY * ChunkModel.SIZE;
+
+        // Pré-chargement des chunks verticaux pour éviter les lookups répétés
+        ChunkModel[] columnChunks = new ChunkModel[worldSizeY];
+        for (int cy = 0; cy < worldSizeY; cy++) {
+            columnChunks[cy] = chunks[chunkX][cy][chunkZ];
         }
-    }
 
-    /**
-     * Calcule le niveau d'eau selon la température et l'humidité.
-     */
-    private int calculateWaterLevel() {
-        // Niveau de base plus élevé pour avoir vraiment de l'eau
-        int baseWaterLevel = BASE_TERRAIN_LEVEL + 5;
-
-        // Ajustements majeurs selon l'humidité
-        if (humidity >= 4) baseWaterLevel += 20;      // Très humide : beaucoup d'eau
-        else if (humidity >= 3) baseWaterLevel += 10; // Humide : pas mal d'eau
-        else if (humidity >= 2) baseWaterLevel += 5;  // Modéré : un peu d'eau
-        else if (humidity <= 1) baseWaterLevel -= 20; // Très sec : peu d'eau
-        else baseWaterLevel -= 10; // Sec : moins d'eau
-
-        // Ajustements selon la température
-        if (temperature <= 1) baseWaterLevel += 0;   // Froid : eau gelée mais même niveau
-        else if (temperature >= 4) baseWaterLevel -= 5; // Chaud : évaporation légère
-
-        return Math.max(BASE_TERRAIN_LEVEL - 30, baseWaterLevel);
-    }
+        // Hauteurs des colonnes, réutilisées pour borner le creusement des grottes
+        int[] terrainHeights = new int[ChunkModel.SIZE * ChunkModel.SIZE];
 
-    public int getWaterLevel() {
-        return waterLevel;
-    }
+        // Générer chaque colonne de blocs
+        for (int x = 0; x < ChunkModel.SIZE; x++) {
+            for (int z = 0; z < ChunkModel.SIZE; z++) {
+                // Arrêt coopératif si la génération a été annulée
+                if (cancellationToken.isCancelled()) {
+                    return;
+                }
 
-    /**
-     * Obtient l'échelle primaire selon le relief.
-     */
-    private float getPrimaryScale() {
-        switch (reliefComplexity) {
-            case 0: case 1: return 0.002f;  // Très grandes structures
-            case 2: return 0.005f;          // Grandes structures
-            case 3: return 0.008f;          // Structures moyennes
-            case 4: return 0.012f;          // Structures plus petites mais plus marquées
-            default: return 0.005f;
+                // Hauteur du terrain issue de la carte (éventuellement érodée)
+                int mapX = chunkX * ChunkModel.SIZE + x;
+                int mapZ = chunkZ * ChunkModel.SIZE + z;
+                int terrainHeight = Math.round(heightMap[mapX + worldSizeX * ChunkModel.SIZE * mapZ]);
+                
+                // Limiter la hauteur pour éviter de dépasser le monde
+                terrainHeight = Math.min(terrainHeight, totalWorldHeight - 1);
+                terrainHeight = Math.max(terrainHeight, 0);
+
+                // Remplissage par segments contigus (profondeur, sous-surface, surface, eau)
+                // Les blocs au-dessus sont déjà de l'AIR par défaut
+                columnTemplate.fill(columnChunks, x, z, terrainHeight);
+                terrainHeights[x + ChunkModel.SIZE * z] = terrainHeight;
+            }
         }
-    }
 
-    /**
-     * Obtient l'échelle de détail selon le relief.
-     */
-    private float getDetailScale() {
-        return getPrimaryScale() * 4.0f; // Toujours 4x plus fin que le primaire
+        // Grottes et surplombs, chunk par chunk dans la même tâche
+        for (int cy = 0; cy < worldSizeY; cy++) {
+            if (cancellationToken.isCancelled()) {
+                return;
+            }
+            if (caveCarver != null && columnChunks[cy] != null) {
+                caveCarver.carve(columnChunks[cy], cy * ChunkModel.SIZE, worldXStart, worldZStart, terrainHeights, waterLevel);
+            }
+        }
     }
 
-    /**
-     * Obtient l'échelle des crêtes selon le relief.
-     */
-    private float getRidgeScale() {
-        return getPrimaryScale() * 2.0f; // 2x plus fin que le primaire
+    public int getWaterLevel() {
+        return waterLevel;
     }
 
     /**
@@ -594,6 +530,10 @@ public class WorldModel {
 
         for (int x = 0; x < ChunkModel.SIZE; x++) {
             for (int z = 0; z < ChunkModel.SIZE; z++) {
+                if (cancellationToken.isCancelled()) {
+                    return;
+                }
+
                 // Pas besoin de boucler sur tout y, juste la partie remplie
                 // La partie au dessus est déjà AIR
                 
@@ -621,7 +561,6 @@ public class WorldModel {
     private void addClouds() {
         int cloudY = 220; // Altitude moyenne des nuages
         int numClouds = 80; // Nombre de nuages
-        java.util.Random random = new java.util.Random();
 
         // Taille totale de la map
         int mapSizeX = worldSizeX * ChunkModel.SIZE;
@@ -648,7 +587,6 @@ public class WorldModel {
      * Crée un nuage à la position et aux dimensions spécifiées.
      */
     private void createCloud(int x, int y, int z, int size, int height, int depth) {
-        java.util.Random random = new java.util.Random();
         int numPlaques = 2 + random.nextInt(4); // Entre 2 et 5 plaques par nuage
         java.util.List<int[]> bords = new java.util.ArrayList<>();
 
@@ -977,7 +915,10 @@ public class WorldModel {
         }
 
         // Modification du bloc dans le chunk
-        chunks[cx][cy][cz].setBlock(localX, localY, localZ, blockType);
+        ChunkModel chunk = chunks[cx][cy][cz];
+        int previousBlock = chunk.getBlock(localX, localY, localZ);
+        chunk.setBlock(localX, localY, localZ, blockType);
+        onBlockChanged(globalX, globalY, globalZ, previousBlock, blockType);
         return true;
     }
 
@@ -1264,10 +1205,71 @@ public class WorldModel {
         }
 
         // Modification du bloc et de l'ID de structure dans le chunk
-        chunks[cx][cy][cz].setBlock(localX, localY, localZ, blockType);
-        chunks[cx][cy][cz].setStructureId(localX, localY, localZ, structureId);
+        ChunkModel chunk = chunks[cx][cy][cz];
+        int previousBlock = chunk.getBlock(localX, localY, localZ);
+        chunk.setBlock(localX, localY, localZ, blockType);
+        chunk.setStructureId(localX, localY, localZ, structureId);
+        onBlockChanged(globalX, globalY, globalZ, previousBlock, blockType);
         return true;
     }
+
+    /**
+     * Met à jour l'éclairage autour d'un bloc modifié (rien pendant la génération, l'éclairage
+     * étant alors calculé en une fois à la fin) et prévient le destinataire des modifications.
+     */
+    private void onBlockChanged(int globalX, int globalY, int globalZ, int previousBlock, int blockType) {
+        if (previousBlock == blockType) {
+            return;
+        }
+        if (lightEngine != null) {
+            lightEngine.onBlockChanged(globalX, globalY, globalZ, previousBlock, blockType);
+        }
+        if (blockChangeListener != null) {
+            blockChangeListener.blockChanged(globalX, globalY, globalZ);
+        }
+    }
+
+    /**
+     * Définit le destinataire des modifications de blocs (par exemple la minimap).
+     *
+     * @param listener Le destinataire, ou null
+     */
+    public void setBlockChangeListener(BlockChangeListener listener) {
+        this.blockChangeListener = listener;
+    }
+
+    /**
+     * Récupère le niveau d'éclairage d'une position à partir de coordonnées globales :
+     * le plus fort de la lumière du ciel et de celle des blocs.
+     *
+     * @param globalX Coordonnée globale X
+     * @param globalY Coordonnée globale Y
+     * @param globalZ Coordonnée globale Z
+     * @return Le niveau de lumière (0-15), maximal en dehors du monde (ciel ouvert)
+     */
+    public int getLightAt(int globalX, int globalY, int globalZ) {
+        int chunkX = Math.floorDiv(globalX, ChunkModel.SIZE);
+        int chunkY = Math.floorDiv(globalY, ChunkModel.SIZE);
+        int chunkZ = Math.floorDiv(globalZ, ChunkModel.SIZE);
+
+        int cx = chunkX + worldSizeX / 2;
+        int cy = chunkY;
+        int cz = chunkZ + worldSizeZ / 2;
+
+        if (cx < 0 || cx >= worldSizeX || cy < 0 || cy >= worldSizeY || cz < 0 || cz >= worldSizeZ) {
+            return LightEngine.MAX_LIGHT;
+        }
+        return chunks[cx][cy][cz].getLight(globalX - chunkX * ChunkModel.SIZE,
+                                           globalY - chunkY * ChunkModel.SIZE,
+                                           globalZ - chunkZ * ChunkModel.SIZE);
+    }
+
+    /**
+     * @return Le moteur d'éclairage du monde (null avant la fin de la génération)
+     */
+    public LightEngine getLightEngine() {
+        return lightEngine;
+    }
     
     /**
      * Récupère l'ID de la structure propriétaire d'un bloc.
@@ -15,6 +15,9 @@ public enum Direction {
     POS_Z(new Vector3f(0, 0, 1)), // Direction positive sur l'axe Z (avant)
     NEG_Z(new Vector3f(0, 0, -1)); // Direction négative sur l'axe Z (arrière)
 
+    /** Masque contenant les six directions (bit 1 << ordinal) */
+    public static final int ALL_MASK = 0b111111;
+
     /** Vecteur normal associé à la direction */
     private final Vector3f normal;
 
@@ -62,4 +65,47 @@ public enum Direction {
     public int getOffsetZ() {
         return this == POS_Z ? 1 : this == NEG_Z ? -1 : 0;
     }
-} 
\ No newline at end of file
+
+    /**
+     * Récupère la direction opposée.
+     * 
+     * @return La direction de sens contraire sur le même axe
+     */
+    public Direction getOpposite() {
+        switch (this) {
+            case POS_X: return NEG_X;
+            case NEG_X: return POS_X;
+            case POS_Y: return NEG_Y;
+            case NEG_Y: return POS_Y;
+            case POS_Z: return NEG_Z;
+            default: return POS_Z;
+        }
+    }
+
+    /**
+     * Calcule les directions des faces d'une boîte de cellules qui peuvent être tournées vers la caméra.
+     * Une face POS_X n'est visible que si la caméra est du côté positif de son plan : aucune face POS_X
+     * de la boîte ne l'est si la caméra est dans une cellule à gauche de la boîte, et de même pour les autres directions.
+     * Le test est fait à la cellule près (par exemple en chunks), il est donc conservatif.
+     *
+     * @param cameraX Cellule X de la caméra
+     * @param cameraY Cellule Y de la caméra
+     * @param cameraZ Cellule Z de la caméra
+     * @param minX Première cellule X de la boîte
+     * @param minY Première cellule Y de la boîte
+     * @param minZ Première cellule Z de la boîte
+     * @param maxX Dernière cellule X de la boîte (incluse)
+     * @param maxY Dernière cellule Y de la boîte (incluse)
+     * @param maxZ Dernière cellule Z de la boîte (incluse)
+     * @return Le masque des directions potentiellement visibles (bit 1 << ordinal)
+     */
+    public static int facingMask(int cameraX, int cameraY, int cameraZ,
+                                 int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        return (cameraX >= minX ? 1 << POS_X.ordinal() : 0)
+             | (cameraX <= maxX ? 1 << NEG_X.ordinal() : 0)
+             | (cameraY >= minY ? 1 << POS_Y.ordinal() : 0)
+             | (cameraY <= maxY ? 1 << NEG_Y.ordinal() : 0)
+             | (cameraZ >= minZ ? 1 << POS_Z.ordinal() : 0)
+             | (cameraZ <= maxZ ? 1 << NEG_Z.ordinal() : 0);
+    }
+}
@@ -0,0 +1,160 @@
+package voxel.utils;
+
+import com.jme3.math.Vector3f;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Ordonnanceur des tâches du thread de rendu avec un budget de temps par frame.
+ * Les tâches (envoi de maillages au GPU, création de renderers, pose de structures...) sont exécutées
+ * de la plus proche à la plus éloignée de la caméra, tant que le budget de la frame n'est pas épuisé ;
+ * les autres sont reportées aux frames suivantes.
+ * À utiliser uniquement depuis le thread de rendu.
+ */
+public class FrameScheduler {
+    /** Budget par défaut : 2 ms par frame */
+    public static final long DEFAULT_BUDGET_NANOS = 2_000_000L;
+
+    /** Budget de temps par frame (en nanosecondes) */
+    private final long budgetNanos;
+
+    /** Tâches en attente, de la plus proche à la plus éloignée de la caméra */
+    private final PriorityQueue<Task> tasks = new PriorityQueue<>();
+
+    /** Position de la caméra, référence des priorités */
+    private final Vector3f focus = new Vector3f();
+
+    /** Numéro de la prochaine tâche soumise (départage les priorités égales, dans l'ordre de soumission) */
+    private long nextSequence = 0;
+
+    /** Nombre de tâches exécutées et temps passé lors de la dernière frame */
+    private int lastFrameTaskCount = 0;
+    private long lastFrameNanos = 0;
+
+    /**
+     * Tâche en attente et sa priorité.
+     */
+    private static final class Task implements Comparable<Task> {
+        final float priority;
+        final long sequence;
+        final Runnable action;
+
+        Task(float priority, long sequence, Runnable action) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.action = action;
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            int byPriority = Float.compare(priority, other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /**
+     * Crée un ordonnanceur avec le budget par défaut (2 ms par frame).
+     */
+    public FrameScheduler() {
+        this(DEFAULT_BUDGET_NANOS);
+    }
+
+    /**
+     * Crée un ordonnanceur.
+     *
+     * @param budgetNanos Temps maximal (en nanosecondes) consacré aux tâches à chaque frame
+     */
+    public FrameScheduler(long budgetNanos) {
+        this.budgetNanos = budgetNanos;
+    }
+
+    /**
+     * Met à jour la position de la caméra. Seules les tâches soumises ensuite en tiennent compte.
+     *
+     * @param location Position de la caméra
+     */
+    public void setFocus(Vector3f location) {
+        focus.set(location);
+    }
+
+    /**
+     * Soumet une tâche liée à une position du monde : plus elle est proche de la caméra, plus tôt elle s'exécute.
+     *
+     * @param x Position X de la tâche dans le monde
+     * @param y Position Y de la tâche dans le monde
+     * @param z Position Z de la tâche dans le monde
+     * @param action La tâche
+     */
+    public void submit(float x, float y, float z, Runnable action) {
+        float dx = x - focus.x;
+        float dy = y - focus.y;
+        float dz = z - focus.z;
+        tasks.add(new Task(dx * dx + dy * dy + dz * dz, nextSequence++, action));
+    }
+
+    /**
+     * Exécute les tâches en attente jusqu'à épuisement du budget de la frame.
+     * Au moins une tâche est exécutée pour garantir la progression ; les tâches soumises
+     * pendant l'exécution ne sont lancées qu'à la frame suivante.
+     *
+     * @return Le nombre de tâches exécutées
+     */
+    public int runFrame() {
+        long start = System.nanoTime();
+        long firstNewSequence = nextSequence;
+        List<Task> submittedDuringFrame = new ArrayList<>();
+        int executed = 0;
+
+        while (!tasks.isEmpty()) {
+            if (executed > 0 && System.nanoTime() - start >= budgetNanos) {
+                break;
+            }
+            Task task = tasks.poll();
+            if (task.sequence >= firstNewSequence) {
+                submittedDuringFrame.add(task);
+                continue;
+            }
+            try {
+                task.action.run();
+            } catch (RuntimeException e) {
+                System.err.println("Erreur lors de l'exécution d'une tâche planifiée : " + e.getMessage());
+            }
+            executed++;
+        }
+        tasks.addAll(submittedDuringFrame);
+
+        lastFrameTaskCount = executed;
+        lastFrameNanos = System.nanoTime() - start;
+        return executed;
+    }
+
+    /**
+     * Supprime toutes les tâches en attente.
+     */
+    public void clear() {
+        tasks.clear();
+    }
+
+    /**
+     * @return Le nombre de tâches en attente
+     */
+    public int getPendingCount() {
+        return tasks.size();
+    }
+
+    /**
+     * @return Le nombre de tâches exécutées lors de la dernière frame
+     */
+    public int getLastFrameTaskCount() {
+        return lastFrameTaskCount;
+    }
+
+    /**
+     * @return Le temps (en nanosecondes) passé dans les tâches lors de la dernière frame
+     */
+    public long getLastFrameNanos() {
+        return lastFrameNanos;
+    }
+}
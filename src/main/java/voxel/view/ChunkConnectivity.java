@@ -0,0 +1,124 @@
+package voxel.view;
+
+import voxel.model.BlockType;
+import voxel.model.ChunkModel;
+import voxel.utils.Direction;
+
+/**
+ * Graphe de connectivité des faces d'un chunk : indique, pour chaque paire de faces,
+ * s'il existe un chemin de blocs non opaques qui les relie à travers le chunk.
+ * Utilisé pour ne pas afficher les chunks qu'aucun chemin visible ne relie à la caméra
+ * (chunks souterrains, grottes fermées).
+ *
+ * Le graphe est codé dans un long : le bit (a * 6 + b) est levé si les faces a et b
+ * (indices Direction.ordinal()) sont reliées.
+ */
+public final class ChunkConnectivity {
+    /** Nombre de faces d'un chunk */
+    private static final int FACES = Direction.values().length;
+
+    /** Toutes les faces reliées entre elles (chunk vide ou connectivité inconnue) */
+    public static final long ALL_CONNECTED = (1L << (FACES * FACES)) - 1;
+
+    private ChunkConnectivity() {
+    }
+
+    /**
+     * Calcule la connectivité des faces d'un chunk par remplissage des zones de blocs non opaques.
+     *
+     * @param chunkModel Le chunk à analyser
+     * @return Le graphe de connectivité
+     */
+    public static long compute(ChunkModel chunkModel) {
+        final int SIZE = ChunkModel.SIZE;
+        final int VOLUME = SIZE * SIZE * SIZE;
+        boolean[] visited = new boolean[VOLUME];
+        int[] queue = new int[VOLUME];
+        long connectivity = 0L;
+        boolean anyOpaque = false;
+
+        // Marquer les blocs opaques comme déjà visités : ils bloquent le passage
+        for (int z = 0; z < SIZE; z++) {
+            for (int y = 0; y < SIZE; y++) {
+                for (int x = 0; x < SIZE; x++) {
+                    if (isOpaque(chunkModel.getBlock(x, y, z))) {
+                        visited[x + SIZE * (y + SIZE * z)] = true;
+                        anyOpaque = true;
+                    }
+                }
+            }
+        }
+        if (!anyOpaque) {
+            return ALL_CONNECTED;
+        }
+
+        for (int start = 0; start < VOLUME; start++) {
+            if (visited[start]) {
+                continue;
+            }
+            // Remplissage d'une zone en notant les faces du chunk qu'elle touche
+            int touchedFaces = 0;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = start;
+            visited[start] = true;
+            while (head < tail) {
+                int index = queue[head++];
+                int x = index % SIZE;
+                int y = (index / SIZE) % SIZE;
+                int z = index / (SIZE * SIZE);
+
+                if (x == 0) touchedFaces |= 1 << Direction.NEG_X.ordinal();
+                if (x == SIZE - 1) touchedFaces |= 1 << Direction.POS_X.ordinal();
+                if (y == 0) touchedFaces |= 1 << Direction.NEG_Y.ordinal();
+                if (y == SIZE - 1) touchedFaces |= 1 << Direction.POS_Y.ordinal();
+                if (z == 0) touchedFaces |= 1 << Direction.NEG_Z.ordinal();
+                if (z == SIZE - 1) touchedFaces |= 1 << Direction.POS_Z.ordinal();
+
+                if (x > 0 && !visited[index - 1]) { visited[index - 1] = true; queue[tail++] = index - 1; }
+                if (x < SIZE - 1 && !visited[index + 1]) { visited[index + 1] = true; queue[tail++] = index + 1; }
+                if (y > 0 && !visited[index - SIZE]) { visited[index - SIZE] = true; queue[tail++] = index - SIZE; }
+                if (y < SIZE - 1 && !visited[index + SIZE]) { visited[index + SIZE] = true; queue[tail++] = index + SIZE; }
+                int layer = SIZE * SIZE;
+                if (z > 0 && !visited[index - layer]) { visited[index - layer] = true; queue[tail++] = index - layer; }
+                if (z < SIZE - 1 && !visited[index + layer]) { visited[index + layer] = true; queue[tail++] = index + layer; }
+            }
+
+            // Toutes les faces touchées par la zone sont reliées deux à deux
+            for (int a = 0; a < FACES; a++) {
+                if ((touchedFaces & (1 << a)) == 0) {
+                    continue;
+                }
+                for (int b = 0; b < FACES; b++) {
+                    if ((touchedFaces & (1 << b)) != 0) {
+                        connectivity |= 1L << (a * FACES + b);
+                    }
+                }
+            }
+        }
+        return connectivity;
+    }
+
+    /**
+     * Indique si deux faces d'un chunk sont reliées.
+     *
+     * @param connectivity Graphe de connectivité du chunk
+     * @param from Face d'entrée
+     * @param to Face de sortie
+     * @return true si un chemin non opaque relie les deux faces
+     */
+    public static boolean isConnected(long connectivity, Direction from, Direction to) {
+        return (connectivity & (1L << (from.ordinal() * FACES + to.ordinal()))) != 0;
+    }
+
+    /**
+     * Un bloc opaque bloque la vue : tout bloc visible et non transparent.
+     */
+    private static boolean isOpaque(int blockId) {
+        if (blockId == BlockType.AIR.getId() || blockId == BlockType.VOID.getId()
+                || blockId == BlockType.INVISIBLE.getId()) {
+            return false;
+        }
+        return !BlockType.isTransparentBlock(blockId);
+    }
+}
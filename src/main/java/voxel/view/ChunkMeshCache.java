@@ -0,0 +1,328 @@
+package voxel.view;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache disque des maillages de chunks, indexé par une empreinte du contenu à mailler.
+ * L'empreinte couvre les blocs et l'éclairage du chunk, sa bordure (voisins de face, d'arête et de coin),
+ * le niveau de détail, la table des couleurs de sommets (palette des blocs et mode d'éclairage)
+ * et l'algorithme de maillage : un chunk dont rien n'a changé depuis le dernier lancement
+ * retrouve son maillage sans le recalculer, quel que soit le monde qui le contient.
+ * Chaque maillage est un fichier lu par projection en mémoire (memory-mapped) ;
+ * les fichiers sont écrits sous un nom temporaire puis renommés, le cache peut donc être utilisé
+ * par plusieurs threads de maillage en même temps.
+ * La taille du répertoire est plafonnée : au-delà, les fichiers les moins récemment utilisés
+ * (date de modification, rafraîchie à chaque lecture) sont supprimés.
+ */
+public class ChunkMeshCache {
+    /** Signature des fichiers du cache ("EVMC") */
+    private static final int MAGIC = 0x45564D43;
+
+    /** Version du format des fichiers (à incrémenter si le maillage ou le format changent) */
+    private static final int FORMAT_VERSION = 3;
+
+    /** Taille de l'en-tête : signature, version, empreinte, connectivité, présence de la partie transparente */
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 1;
+
+    /** Graine de l'empreinte FNV-1a 64 bits */
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /** Part de la taille maximale conservée après une éviction, pour ne pas évincer à chaque écriture */
+    private static final double EVICTION_TARGET = 0.9;
+
+    /** Répertoire des fichiers du cache */
+    private final Path directory;
+
+    /** Taille maximale des fichiers du cache, en octets */
+    private final long maxBytes;
+
+    /** Taille actuelle des fichiers du cache, en octets */
+    private final AtomicLong totalBytes = new AtomicLong();
+
+    /** Verrou des évictions (un seul thread parcourt le répertoire à la fois) */
+    private final Object evictionLock = new Object();
+
+    /** Statistiques du cache */
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong writeCount = new AtomicLong();
+    private final AtomicLong errorCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    /**
+     * Crée un cache de maillages dans un répertoire (créé s'il n'existe pas).
+     * Les fichiers temporaires laissés par un lancement interrompu sont supprimés
+     * et le cache est ramené sous sa taille maximale.
+     *
+     * @param directory Répertoire des fichiers du cache
+     * @param maxBytes Taille maximale des fichiers du cache, en octets
+     * @throws IOException Si le répertoire ne peut pas être créé ou parcouru
+     */
+    public ChunkMeshCache(Path directory, long maxBytes) throws IOException {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(directory);
+
+        long size = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    Files.deleteIfExists(file);
+                } else if (name.endsWith(".mesh")) {
+                    size += Files.size(file);
+                }
+            }
+        }
+        totalBytes.set(size);
+        evictIfNeeded();
+    }
+
+    /**
+     * Calcule la clé du maillage d'une copie de chunk.
+     *
+     * @param snapshot Copie du chunk et de sa bordure (complète ou sous-échantillonnée)
+     * @param lodScale Facteur de réduction du niveau de détail
+     * @param colorTable Table des couleurs de sommets utilisée (palette des blocs et mode d'éclairage)
+     * @param algorithm Algorithme de fusion des faces utilisé
+     * @return La clé du maillage
+     */
+    public static long computeKey(ChunkSnapshot snapshot, int lodScale, VertexColorTable colorTable,
+                                  MeshingAlgorithm algorithm) {
+        long hash = FNV_OFFSET;
+        hash = (hash ^ FORMAT_VERSION) * FNV_PRIME;
+        hash = (hash ^ lodScale) * FNV_PRIME;
+        hash = (hash ^ (colorTable.isLightning() ? 1 : 0)) * FNV_PRIME;
+        hash = (hash ^ colorTable.getContentHash()) * FNV_PRIME;
+        hash = (hash ^ algorithm.ordinal()) * FNV_PRIME;
+        return snapshot.hashContent(hash);
+    }
+
+    /**
+     * Cherche le maillage d'un chunk dans le cache.
+     *
+     * @param key Clé du maillage (voir {@link #computeKey})
+     * @param chunkX Position X du chunk dans le tableau du monde
+     * @param chunkY Position Y du chunk dans le tableau du monde
+     * @param chunkZ Position Z du chunk dans le tableau du monde
+     * @param version Version de la demande de maillage
+     * @param lodScale Facteur de réduction du niveau de détail
+     * @return Les données du maillage, ou null si la clé est absente du cache ou si le fichier est illisible
+     */
+    public ChunkMeshData load(long key, int chunkX, int chunkY, int chunkZ, int version, int lodScale) {
+        Path file = fileFor(key);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC
+                    || buffer.getInt() != FORMAT_VERSION || buffer.getLong() != key) {
+                missCount.incrementAndGet();
+                return null;
+            }
+            long connectivity = buffer.getLong();
+            boolean hasTransparent = buffer.get() != 0;
+            MeshData opaque = readMeshData(buffer);
+            MeshData transparent = hasTransparent ? readMeshData(buffer) : null;
+
+            ChunkMeshData meshData = new ChunkMeshData(chunkX, chunkY, chunkZ, version, opaque, transparent, lodScale);
+            meshData.setConnectivity(connectivity);
+            hitCount.incrementAndGet();
+            touch(file);
+            return meshData;
+        } catch (NoSuchFileException e) {
+            missCount.incrementAndGet();
+            return null;
+        } catch (IOException | BufferUnderflowException | NegativeArraySizeException e) {
+            // Fichier tronqué ou corrompu : traité comme absent, il sera réécrit après le maillage
+            errorCount.incrementAndGet();
+            missCount.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * Enregistre le maillage d'un chunk dans le cache.
+     * Une erreur d'écriture n'interrompt pas le maillage : le chunk sera simplement recalculé au prochain lancement.
+     *
+     * @param key Clé du maillage (voir {@link #computeKey})
+     * @param meshData Les données du maillage
+     */
+    public void store(long key, ChunkMeshData meshData) {
+        Path file = fileFor(key);
+        Path temporary = directory.resolve(file.getFileName() + "." + Thread.currentThread().threadId() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(key);
+                out.writeLong(meshData.getConnectivity());
+                out.writeBoolean(meshData.getTransparent() != null);
+                writeMeshData(out, meshData.getOpaque());
+                if (meshData.getTransparent() != null) {
+                    writeMeshData(out, meshData.getTransparent());
+                }
+            }
+            long replaced = Files.exists(file) ? Files.size(file) : 0;
+            long written = Files.size(temporary);
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            writeCount.incrementAndGet();
+            if (totalBytes.addAndGet(written - replaced) > maxBytes) {
+                evictIfNeeded();
+            }
+        } catch (IOException e) {
+            errorCount.incrementAndGet();
+            System.err.println("Impossible d'écrire le maillage en cache : " + e.getMessage());
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException ignored) {
+                // Le fichier temporaire sera écrasé par une prochaine écriture
+            }
+        }
+    }
+
+    /**
+     * @return Les statistiques d'utilisation du cache, pour le journal
+     */
+    public String getStatistics() {
+        long hits = hitCount.get();
+        long lookups = hits + missCount.get();
+        return String.format("Cache de maillages: %d demandes, %d trouvés (%.0f%%), %d écrits, %d évincés, %d erreurs, %d Mo",
+                lookups, hits, lookups == 0 ? 0.0 : 100.0 * hits / lookups, writeCount.get(),
+                evictionCount.get(), errorCount.get(), totalBytes.get() / (1024 * 1024));
+    }
+
+    /**
+     * Marque un fichier comme récemment utilisé, pour qu'il soit évincé en dernier.
+     */
+    private void touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // Sans mise à jour de la date, le fichier sera simplement évincé plus tôt
+        }
+    }
+
+    /**
+     * Supprime les fichiers les moins récemment utilisés jusqu'à repasser sous
+     * {@link #EVICTION_TARGET} de la taille maximale, si celle-ci est dépassée.
+     */
+    private void evictIfNeeded() {
+        synchronized (evictionLock) {
+            if (totalBytes.get() <= maxBytes) {
+                return;
+            }
+            List<CachedFile> files = new ArrayList<>();
+            try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory, "*.mesh")) {
+                for (Path path : paths) {
+                    files.add(new CachedFile(path, Files.getLastModifiedTime(path).toMillis(), Files.size(path)));
+                }
+            } catch (IOException e) {
+                errorCount.incrementAndGet();
+                System.err.println("Impossible de parcourir le cache de maillages : " + e.getMessage());
+                return;
+            }
+            files.sort(Comparator.comparingLong(file -> file.lastUsed));
+
+            long target = (long) (maxBytes * EVICTION_TARGET);
+            for (CachedFile file : files) {
+                if (totalBytes.get() <= target) {
+                    break;
+                }
+                try {
+                    if (Files.deleteIfExists(file.path)) {
+                        totalBytes.addAndGet(-file.size);
+                        evictionCount.incrementAndGet();
+                    }
+                } catch (IOException e) {
+                    errorCount.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private Path fileFor(long key) {
+        return directory.resolve(String.format("%016x.mesh", key));
+    }
+
+    /**
+     * Écrit un maillage : nombre de sommets, d'indices et de tranches (-1 si non découpé), puis les tableaux.
+     */
+    private static void writeMeshData(DataOutputStream out, MeshData meshData) throws IOException {
+        int[] slices = meshData.getSliceQuadCounts();
+        out.writeInt(meshData.getVertexCount());
+        out.writeInt(meshData.getIndices().length);
+        out.writeInt(slices != null ? slices.length : -1);
+        for (float value : meshData.getPositions()) {
+            out.writeFloat(value);
+        }
+        for (int value : meshData.getColors()) {
+            out.writeInt(value);
+        }
+        for (int value : meshData.getIndices()) {
+            out.writeInt(value);
+        }
+        if (slices != null) {
+            for (int value : slices) {
+                out.writeInt(value);
+            }
+        }
+    }
+
+    /**
+     * Lit un maillage écrit par {@link #writeMeshData} et avance la position du buffer.
+     */
+    private static MeshData readMeshData(MappedByteBuffer buffer) {
+        int vertexCount = buffer.getInt();
+        int indexCount = buffer.getInt();
+        int sliceCount = buffer.getInt();
+
+        float[] positions = new float[vertexCount * 3];
+        int[] colors = new int[vertexCount];
+        int[] indices = new int[indexCount];
+        int[] slices = sliceCount >= 0 ? new int[sliceCount] : null;
+
+        // Copies en bloc par des vues typées, la position du buffer est avancée à la main
+        buffer.asFloatBuffer().get(positions);
+        buffer.position(buffer.position() + positions.length * Float.BYTES);
+        buffer.asIntBuffer().get(colors);
+        buffer.position(buffer.position() + colors.length * Integer.BYTES);
+        buffer.asIntBuffer().get(indices);
+        buffer.position(buffer.position() + indices.length * Integer.BYTES);
+        if (slices != null) {
+            buffer.asIntBuffer().get(slices);
+            buffer.position(buffer.position() + slices.length * Integer.BYTES);
+        }
+        return new MeshData(positions, colors, indices, slices);
+    }
+
+    /**
+     * Fichier du cache relevé lors d'une éviction.
+     */
+    private static final class CachedFile {
+        final Path path;
+        final long lastUsed;
+        final long size;
+
+        CachedFile(Path path, long lastUsed, long size) {
+            this.path = path;
+            this.lastUsed = lastUsed;
+            this.size = size;
+        }
+    }
+}
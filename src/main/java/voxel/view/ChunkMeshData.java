@@ -0,0 +1,113 @@
+package voxel.view;
+
+import voxel.utils.Direction;
+
+/**
+ * Résultat du maillage d'un chunk : parties opaque et transparente, prêtes à être envoyées au GPU.
+ * Produit par {@link ChunkMesher} sur un thread de travail et consommé par le WorldRenderer.
+ * Les faces opaques sont aussi séparées par direction dès la construction, sur le thread de travail :
+ * le thread de rendu n'a plus qu'à envoyer chaque direction au GPU.
+ */
+public class ChunkMeshData {
+    /** Maillage vide, pour les directions sans faces */
+    private static final MeshData EMPTY = new MeshData(new float[0], new int[0], new int[0]);
+
+    /** Coordonnées du chunk dans le tableau du monde */
+    private final int chunkX;
+    private final int chunkY;
+    private final int chunkZ;
+
+    /** Version de la demande de maillage, pour ignorer les résultats périmés */
+    private final int version;
+
+    /** Maillage des blocs opaques */
+    private final MeshData opaque;
+
+    /** Faces opaques de chaque direction, indexées par ordinal (maillage non découpé : tout dans la première) */
+    private final MeshData[] opaqueByDirection;
+
+    /** Maillage des blocs transparents (null s'il n'y en a pas) */
+    private final MeshData transparent;
+
+    /** Facteur de réduction du niveau de détail (1 = maillage complet) */
+    private final int lodScale;
+
+    /** Graphe de connectivité des faces du chunk (voir {@link ChunkConnectivity}) */
+    private long connectivity = ChunkConnectivity.ALL_CONNECTED;
+
+    public ChunkMeshData(int chunkX, int chunkY, int chunkZ, int version, MeshData opaque, MeshData transparent) {
+        this(chunkX, chunkY, chunkZ, version, opaque, transparent, 1);
+    }
+
+    public ChunkMeshData(int chunkX, int chunkY, int chunkZ, int version, MeshData opaque, MeshData transparent, int lodScale) {
+        this.lodScale = lodScale;
+        this.chunkX = chunkX;
+        this.chunkY = chunkY;
+        this.chunkZ = chunkZ;
+        this.version = version;
+        this.opaque = opaque;
+        this.opaqueByDirection = splitByDirection(opaque);
+        this.transparent = transparent;
+    }
+
+    /**
+     * Sépare les faces opaques d'un maillage découpé en tranches par direction.
+     */
+    private static MeshData[] splitByDirection(MeshData opaque) {
+        MeshData[] directions = new MeshData[Direction.values().length];
+        for (Direction dir : Direction.values()) {
+            if (opaque.hasSlices()) {
+                directions[dir.ordinal()] = opaque.isEmpty() ? opaque : opaque.extractDirection(dir);
+            } else {
+                // Maillage non découpé en tranches : tout dans la première direction,
+                // que le ChunkRenderer affiche toujours (pas de masquage par direction)
+                directions[dir.ordinal()] = dir.ordinal() == 0 ? opaque : EMPTY;
+            }
+        }
+        return directions;
+    }
+
+    public int getChunkX() {
+        return chunkX;
+    }
+
+    public int getChunkY() {
+        return chunkY;
+    }
+
+    public int getChunkZ() {
+        return chunkZ;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public MeshData getOpaque() {
+        return opaque;
+    }
+
+    /**
+     * @param dir Direction des faces
+     * @return Les faces opaques tournées vers cette direction
+     */
+    public MeshData getOpaque(Direction dir) {
+        return opaqueByDirection[dir.ordinal()];
+    }
+
+    public MeshData getTransparent() {
+        return transparent;
+    }
+
+    public int getLodScale() {
+        return lodScale;
+    }
+
+    public long getConnectivity() {
+        return connectivity;
+    }
+
+    public void setConnectivity(long connectivity) {
+        this.connectivity = connectivity;
+    }
+}
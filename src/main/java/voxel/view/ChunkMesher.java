@@ -0,0 +1,614 @@
+package voxel.view;
+
+import voxel.model.BlockType;
+import voxel.model.ChunkModel;
+import voxel.model.WorldModel;
+import voxel.utils.Direction;
+
+/**
+ * Calcule le maillage d'un chunk (Greedy Meshing) sous forme de tableaux bruts.
+ * Ne crée aucun objet jME lié au rendu : peut être exécuté sur un thread de travail,
+ * le résultat étant ensuite envoyé au GPU par le thread de rendu.
+ */
+public class ChunkMesher {
+    /** Référence au modèle du monde (blocs voisins et ambient occlusion) */
+    private final WorldModel worldModel;
+
+    /** Couleurs de sommets précalculées, recalculées seulement quand le mode d'éclairage change */
+    private volatile VertexColorTable colorTable;
+
+    /** Algorithme de fusion des faces (modifiable à chaud pour comparer les performances) */
+    private volatile MeshingAlgorithm algorithm = MeshingAlgorithm.BINARY_GREEDY;
+
+    /** Cache disque des maillages complets (null si désactivé) */
+    private volatile ChunkMeshCache meshCache;
+
+    /** Position du niveau de lumière dans la clé d'une face, au-dessus des 8 bits d'AO */
+    private static final int LIGHT_SHIFT = 8;
+
+    /** Nombre de tranches d'un maillage : une par direction et par profondeur */
+    private static final int SLICE_COUNT = Direction.values().length * ChunkModel.SIZE;
+
+    /** Maillage vide découpé en tranches, utilisé quand un chunk n'a pas encore de partie transparente */
+    private static final MeshData EMPTY = new MeshData(new float[0], new int[0], new int[0], new int[SLICE_COUNT]);
+
+    /**
+     * Crée un mailleur de chunks pour un monde.
+     *
+     * @param worldModel Le modèle du monde
+     */
+    public ChunkMesher(WorldModel worldModel) {
+        this.worldModel = worldModel;
+        this.colorTable = new VertexColorTable(worldModel.getLightningMode());
+    }
+
+    /**
+     * Fournit la table des couleurs de sommets pour un mode d'éclairage, recalculée s'il a changé
+     * depuis le dernier maillage. Deux threads peuvent la recalculer en même temps : le résultat est identique.
+     */
+    private VertexColorTable getColorTable(boolean lightningMode) {
+        VertexColorTable table = colorTable;
+        if (table.isLightning() != lightningMode) {
+            table = new VertexColorTable(lightningMode);
+            colorTable = table;
+        }
+        return table;
+    }
+
+    public MeshingAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * Choisit l'algorithme de fusion des faces utilisé par les prochains maillages.
+     *
+     * @param algorithm L'algorithme à utiliser
+     */
+    public void setAlgorithm(MeshingAlgorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public ChunkMeshCache getMeshCache() {
+        return meshCache;
+    }
+
+    /**
+     * Active le cache disque des maillages : un chunk dont le contenu, la bordure et l'éclairage
+     * n'ont pas changé reprend le maillage enregistré au lieu d'être recalculé.
+     *
+     * @param meshCache Le cache à utiliser, ou null pour le désactiver
+     */
+    public void setMeshCache(ChunkMeshCache meshCache) {
+        this.meshCache = meshCache;
+    }
+
+    /**
+     * Calcule les maillages opaque et transparent d'un chunk.
+     *
+     * @param chunkX Position X du chunk dans le tableau du monde
+     * @param chunkY Position Y du chunk dans le tableau du monde
+     * @param chunkZ Position Z du chunk dans le tableau du monde
+     * @param version Version de la demande de maillage
+     * @return Les données du maillage du chunk
+     */
+    public ChunkMeshData mesh(int chunkX, int chunkY, int chunkZ, int version) {
+        return mesh(chunkX, chunkY, chunkZ, version, 1);
+    }
+
+    /**
+     * Calcule les maillages opaque et transparent d'un chunk à un niveau de détail donné.
+     * Pour un niveau réduit, le chunk est sous-échantillonné par vote majoritaire puis maillé
+     * normalement, et les positions sont remises à l'échelle du chunk.
+     *
+     * @param chunkX Position X du chunk dans le tableau du monde
+     * @param chunkY Position Y du chunk dans le tableau du monde
+     * @param chunkZ Position Z du chunk dans le tableau du monde
+     * @param version Version de la demande de maillage
+     * @param lodScale Facteur de réduction (1 pour le maillage complet, 2, 4 ou 8)
+     * @return Les données du maillage du chunk
+     */
+    public ChunkMeshData mesh(int chunkX, int chunkY, int chunkZ, int version, int lodScale) {
+        return mesh(chunkX, chunkY, chunkZ, version, lodScale, false);
+    }
+
+    /**
+     * Calcule les maillages d'un chunk à un niveau de détail donné, en cherchant d'abord dans le cache disque.
+     * Seuls les maillages du chargement initial du monde sont enregistrés dans le cache : les remaillages
+     * (modification de blocs, changement de niveau de détail ou d'éclairage) ne feraient que le remplir
+     * de contenus rarement retrouvés au lancement suivant.
+     *
+     * @param chunkX Position X du chunk dans le tableau du monde
+     * @param chunkY Position Y du chunk dans le tableau du monde
+     * @param chunkZ Position Z du chunk dans le tableau du monde
+     * @param version Version de la demande de maillage
+     * @param lodScale Facteur de réduction (1 pour le maillage complet, 2, 4 ou 8)
+     * @param storeInCache true pour enregistrer le maillage calculé dans le cache
+     * @return Les données du maillage du chunk
+     */
+    public ChunkMeshData mesh(int chunkX, int chunkY, int chunkZ, int version, int lodScale, boolean storeInCache) {
+        // Chunk vide ou enfoui : aucune face, inutile de copier et de parcourir les blocs
+        ChunkModel chunkModel = worldModel.getChunk(chunkX, chunkY, chunkZ);
+        if (chunkModel != null && (chunkModel.isEmpty() || isBuried(chunkModel, chunkX, chunkY, chunkZ))) {
+            ChunkMeshData meshData = new ChunkMeshData(chunkX, chunkY, chunkZ, version, EMPTY, null, lodScale);
+            meshData.setConnectivity(chunkModel.isEmpty() ? ChunkConnectivity.ALL_CONNECTED : 0L);
+            return meshData;
+        }
+
+        // Copie du chunk et de sa bordure : toutes les lectures suivantes se font dans cette copie
+        ChunkSnapshot snapshot = lodScale == 1
+                ? new ChunkSnapshot(worldModel, chunkX, chunkY, chunkZ)
+                : ChunkSnapshot.downsample(worldModel, chunkX, chunkY, chunkZ, lodScale);
+
+        // Maillage déjà calculé pour ce contenu exact : la copie suffit à le retrouver
+        boolean lightningMode = worldModel.getLightningMode();
+        MeshingAlgorithm meshingAlgorithm = algorithm;
+        ChunkMeshCache cache = meshCache;
+        long cacheKey = 0L;
+        if (cache != null) {
+            cacheKey = ChunkMeshCache.computeKey(snapshot, lodScale, getColorTable(lightningMode), meshingAlgorithm);
+            ChunkMeshData cached = cache.load(cacheKey, chunkX, chunkY, chunkZ, version, lodScale);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        MeshData opaque = generateGreedyMesh(snapshot, false, null);
+        MeshData transparent = generateGreedyMesh(snapshot, true, null);
+        if (lodScale != 1) {
+            scalePositions(opaque, lodScale);
+            scalePositions(transparent, lodScale);
+        }
+        // Pas de géométrie transparente si le chunk ne contient aucune face transparente
+        if (transparent.isEmpty()) {
+            transparent = null;
+        }
+        ChunkMeshData meshData = new ChunkMeshData(chunkX, chunkY, chunkZ, version, opaque, transparent, lodScale);
+        // Connectivité calculée sur les blocs réels, quel que soit le niveau de détail
+        if (chunkModel != null) {
+            meshData.setConnectivity(ChunkConnectivity.compute(chunkModel));
+        }
+        // Mode d'éclairage ou algorithme changé pendant le calcul : le maillage ne correspond plus à la clé
+        if (cache != null && storeInCache && worldModel.getLightningMode() == lightningMode
+                && algorithm == meshingAlgorithm) {
+            cache.store(cacheKey, meshData);
+        }
+        return meshData;
+    }
+
+    /**
+     * Indique si un chunk plein de blocs opaques est entouré de chunks dont les faces en contact
+     * sont elles aussi entièrement opaques : aucune de ses faces ne peut alors être visible.
+     */
+    private boolean isBuried(ChunkModel chunkModel, int chunkX, int chunkY, int chunkZ) {
+        if (!chunkModel.isFullyOpaque()) {
+            return false;
+        }
+        for (Direction dir : Direction.values()) {
+            // Hors du monde (null), le maillage génère des faces contre l'air
+            ChunkModel neighbor = worldModel.getChunk(chunkX + dir.getOffsetX(),
+                                                      chunkY + dir.getOffsetY(),
+                                                      chunkZ + dir.getOffsetZ());
+            if (neighbor == null || !neighbor.isFaceFullyOpaque(dir.getOpposite())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Remet à l'échelle du chunk les positions d'un maillage calculé sur une copie réduite.
+     */
+    private static void scalePositions(MeshData meshData, int scale) {
+        float[] positions = meshData.getPositions();
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] *= scale;
+        }
+    }
+
+    /**
+     * Recalcule le maillage d'un chunk après la modification d'un seul bloc.
+     * Seules les tranches pouvant être affectées (visibilité et ambient occlusion) sont recalculées :
+     * au plus 3 tranches par axe et par sens. Elles remplacent les tranches correspondantes du maillage précédent.
+     *
+     * @param previous Maillage actuellement affiché pour ce chunk
+     * @param localX Coordonnée X du bloc modifié, relative au chunk (de -1 à 32 pour un bloc voisin)
+     * @param localY Coordonnée Y du bloc modifié, relative au chunk
+     * @param localZ Coordonnée Z du bloc modifié, relative au chunk
+     * @param version Version de la demande de maillage
+     * @return Les données du maillage du chunk
+     */
+    public ChunkMeshData remesh(ChunkMeshData previous, int localX, int localY, int localZ, int version) {
+        return remesh(previous, localX, localY, localZ, localX, localY, localZ, version);
+    }
+
+    /**
+     * Recalcule le maillage d'un chunk après la modification des blocs (ou de l'éclairage) d'une zone.
+     * Seules les tranches qui traversent la zone, élargie d'un bloc, sont recalculées.
+     *
+     * @param previous Maillage actuellement affiché pour ce chunk
+     * @param minX Plus petite coordonnée X modifiée, relative au chunk (de -1 à 32 pour un bloc voisin)
+     * @param minY Plus petite coordonnée Y modifiée, relative au chunk
+     * @param minZ Plus petite coordonnée Z modifiée, relative au chunk
+     * @param maxX Plus grande coordonnée X modifiée, relative au chunk
+     * @param maxY Plus grande coordonnée Y modifiée, relative au chunk
+     * @param maxZ Plus grande coordonnée Z modifiée, relative au chunk
+     * @param version Version de la demande de maillage
+     * @return Les données du maillage du chunk
+     */
+    public ChunkMeshData remesh(ChunkMeshData previous, int minX, int minY, int minZ,
+                                int maxX, int maxY, int maxZ, int version) {
+        int chunkX = previous.getChunkX();
+        int chunkY = previous.getChunkY();
+        int chunkZ = previous.getChunkZ();
+        MeshData previousTransparent = previous.getTransparent() != null ? previous.getTransparent() : EMPTY;
+        if (previous.getLodScale() != 1 || !previous.getOpaque().hasSlices() || !previousTransparent.hasSlices()) {
+            return mesh(chunkX, chunkY, chunkZ, version);
+        }
+
+        boolean[] affected = affectedSlices(minX, minY, minZ, maxX, maxY, maxZ);
+        ChunkSnapshot snapshot = new ChunkSnapshot(worldModel, chunkX, chunkY, chunkZ);
+        MeshData opaque = MeshData.splice(previous.getOpaque(), generateGreedyMesh(snapshot, false, affected), affected);
+        MeshData transparent = MeshData.splice(previousTransparent, generateGreedyMesh(snapshot, true, affected), affected);
+        if (transparent.isEmpty()) {
+            transparent = null;
+        }
+        ChunkMeshData meshData = new ChunkMeshData(chunkX, chunkY, chunkZ, version, opaque, transparent);
+        meshData.setConnectivity(ChunkConnectivity.compute(worldModel.getChunk(chunkX, chunkY, chunkZ)));
+        return meshData;
+    }
+
+    /**
+     * Détermine les tranches touchées par la modification d'une zone de blocs : pour chaque direction,
+     * les tranches de la zone et leurs deux voisines le long de l'axe de la direction.
+     *
+     * @return Tranches à recalculer, indexées par direction.ordinal() * SIZE + tranche
+     */
+    private static boolean[] affectedSlices(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        final int SIZE = ChunkModel.SIZE;
+        boolean[] affected = new boolean[SLICE_COUNT];
+        for (Direction dir : Direction.values()) {
+            int minDepth = dir.getOffsetX() != 0 ? minX : dir.getOffsetY() != 0 ? minY : minZ;
+            int maxDepth = dir.getOffsetX() != 0 ? maxX : dir.getOffsetY() != 0 ? maxY : maxZ;
+            for (int slice = minDepth - 1; slice <= maxDepth + 1; slice++) {
+                if (slice >= 0 && slice < SIZE) {
+                    affected[dir.ordinal() * SIZE + slice] = true;
+                }
+            }
+        }
+        return affected;
+    }
+
+    /**
+     * Algorithme de Greedy Meshing générique.
+     * Fusionne les faces adjacentes identiques en quads plus grands.
+     * 
+     * La visibilité, l'ambient occlusion et le niveau de lumière (celui de la cellule devant la face)
+     * sont calculés une seule fois par face de bloc, lors du remplissage du masque, à partir de la copie du chunk.
+     * Seules les faces de même bloc, même AO et même lumière sont fusionnées.
+     * 
+     * Les quads sont émis tranche par tranche (direction puis profondeur) et le nombre de quads
+     * de chaque tranche est conservé dans le résultat.
+     * 
+     * @param snapshot Copie du chunk à mailler, avec sa bordure
+     * @param isTransparent true pour générer le mesh transparent, false pour l'opaque
+     * @param selectedSlices Tranches à calculer (null pour toutes), indexées par direction.ordinal() * SIZE + tranche
+     * @return Les données du maillage généré
+     */
+    private MeshData generateGreedyMesh(ChunkSnapshot snapshot, boolean isTransparent, boolean[] selectedSlices) {
+        MeshBuilder builder = new MeshBuilder();
+        final int SIZE = snapshot.getSize();
+        final boolean lightningMode = worldModel.getLightningMode();
+        final VertexColorTable colorTable = getColorTable(lightningMode);
+        final boolean binary = algorithm == MeshingAlgorithm.BINARY_GREEDY;
+        
+        // Masque indiquant l'ID du bloc visible à une position (u, v) de la tranche courante
+        // 0 signifie pas de face à générer
+        int[] blockMask = new int[SIZE * SIZE];
+        int[] aoMask = new int[SIZE * SIZE];
+        
+        // Vecteur position et tableau d'AO mutables pour éviter les allocations
+        int[] pos = new int[3];
+        int[] aoValues = new int[4];
+
+        // Tampons du mesher binaire : types de face (bloc + clé d'AO) de la tranche et masques de lignes associés
+        int[] keyBlocks = new int[SIZE * SIZE];
+        int[] keyAo = new int[SIZE * SIZE];
+        int[][] keyRows = new int[SIZE * SIZE][];
+        // Table de hachage à adressage ouvert (indice du type + 1, 0 = libre) et case occupée par chaque type
+        int[] keyTable = new int[2 * SIZE * SIZE];
+        int[] keySlots = new int[SIZE * SIZE];
+
+        // Nombre de quads émis par tranche
+        int[] sliceQuadCounts = new int[Direction.values().length * SIZE];
+
+        // Pour chaque direction (6 faces possibles)
+        for (Direction dir : Direction.values()) {
+            
+            // Déterminer les axes de la tranche (u, v) et l'axe de profondeur (d)
+            // alignés avec les sommets émis par Face.emitQuad
+            int uAxis, vAxis, dAxis;
+            
+            switch (dir) {
+                case POS_Z: case NEG_Z: 
+                    dAxis=2; uAxis=0; vAxis=1; // Z est depth, X est width (u), Y est height (v)
+                    break;
+                case POS_X: case NEG_X: 
+                    dAxis=0; uAxis=2; vAxis=1; // X est depth, Z est width (u), Y est height (v)
+                    break;
+                case POS_Y: case NEG_Y: // Y est depth
+                    // Pour Face.java POS_Y/NEG_Y: width est sur X, height est sur Z
+                    dAxis=1; uAxis=0; vAxis=2; 
+                    break; 
+                default: continue;
+            }
+            
+            // Parcourir toutes les tranches le long de l'axe de profondeur
+            for (int slice = 0; slice < SIZE; slice++) {
+                int sliceIndex = dir.ordinal() * SIZE + slice;
+                if (selectedSlices != null && !selectedSlices[sliceIndex]) {
+                    continue;
+                }
+                int quadsBefore = builder.getVertexCount() / 4;
+                
+                // 1. Remplir le masque pour cette tranche
+                int n = 0;
+                for (int v = 0; v < SIZE; v++) {
+                    for (int u = 0; u < SIZE; u++) {
+                        // Assigner les coordonnées selon les axes
+                        pos[uAxis] = u;
+                        pos[vAxis] = v;
+                        pos[dAxis] = slice;
+                        
+                        int x = pos[0];
+                        int y = pos[1];
+                        int z = pos[2];
+                        
+                        int blockId = snapshot.getBlock(x, y, z);
+                        boolean visible = false;
+                        
+                        // Filtrer selon le type (transparent/opaque)
+                        if (blockId != BlockType.AIR.getId()) {
+                             BlockType type = BlockType.fromId(blockId);
+                             boolean typeMatch = isTransparent ? (type.getColor().a < 1.0f) : (type.getColor().a >= 1.0f);
+                             
+                             if (typeMatch) {
+                                 // Vérifier le voisin dans la direction de la face
+                                 int nx = x + dir.getOffsetX();
+                                 int ny = y + dir.getOffsetY();
+                                 int nz = z + dir.getOffsetZ();
+                                 
+                                 if (shouldGenerateFace(snapshot.getBlock(nx, ny, nz), blockId)) {
+                                     visible = true;
+                                 }
+                             }
+                        }
+                        
+                        if (visible) {
+                            blockMask[n] = blockId;
+                            if (lightningMode) {
+                                snapshot.computeAoValues(dir, x, y, z, aoValues);
+                                int light = snapshot.getLight(x + dir.getOffsetX(), y + dir.getOffsetY(), z + dir.getOffsetZ());
+                                aoMask[n] = encodeAoKey(aoValues) | (light << LIGHT_SHIFT);
+                            } else {
+                                aoMask[n] = 0;
+                            }
+                        } else {
+                            blockMask[n] = 0;
+                            aoMask[n] = 0;
+                        }
+                        n++;
+                    }
+                }
+                
+                if (binary) {
+                    mergeBinary(builder, SIZE, dir, uAxis, vAxis, dAxis, slice, blockMask, aoMask, colorTable,
+                                pos, aoValues, keyBlocks, keyAo, keyRows, keyTable, keySlots);
+                    sliceQuadCounts[sliceIndex] = builder.getVertexCount() / 4 - quadsBefore;
+                    continue;
+                }
+                
+                // 2. Greedy Meshing sur le masque
+                n = 0;
+                for (int v = 0; v < SIZE; v++) {
+                    for (int u = 0; u < SIZE; u++) {
+                        
+                        int blockId = blockMask[n];
+                        
+                        if (blockId != 0) {
+                            // Début d'un nouveau quad
+                            int width = 1;
+                            int height = 1;
+                            int aoKey = aoMask[n];
+                            
+                            // Calculer la largeur (avancer sur u)
+                            while (u + width < SIZE 
+                                    && blockMask[n + width] == blockId
+                                    && (!lightningMode || aoMask[n + width] == aoKey)) {
+                                width++;
+                            }
+                            
+                            // Calculer la hauteur (avancer sur v)
+                            boolean canExtendHeight = true;
+                            while (v + height < SIZE && canExtendHeight) {
+                                for (int k = 0; k < width; k++) {
+                                    int index = n + k + height * SIZE;
+                                    if (blockMask[index] != blockId
+                                            || (lightningMode && aoMask[index] != aoKey)) {
+                                        canExtendHeight = false;
+                                        break;
+                                    }
+                                }
+                                if (canExtendHeight) {
+                                    height++;
+                                }
+                            }
+                            
+                            // Créer la face
+                            pos[uAxis] = u;
+                            pos[vAxis] = v;
+                            pos[dAxis] = slice;
+                            
+                            // Tous les blocs fusionnés ont la même clé d'AO : les coins du quad en reprennent les valeurs
+                            decodeAoKey(aoKey, aoValues);
+                            
+                            Face.emitQuad(builder, dir, pos[0], pos[1], pos[2], width, height,
+                                          blockId, colorTable, aoValues, aoKey >> LIGHT_SHIFT);
+                            
+                            // Effacer la zone couverte dans le masque
+                            for (int h = 0; h < height; h++) {
+                                for (int w = 0; w < width; w++) {
+                                    int index = n + w + h * SIZE;
+                                    blockMask[index] = 0;
+                                    aoMask[index] = 0;
+                                }
+                            }
+                            
+                            // Optimisation : sauter les blocs traités sur la ligne courante
+                            u += width - 1;
+                            n += width - 1;
+                        }
+                        n++;
+                    }
+                }
+                sliceQuadCounts[sliceIndex] = builder.getVertexCount() / 4 - quadsBefore;
+            }
+        }
+        
+        return builder.buildData(sliceQuadCounts);
+    }
+    
+    /**
+     * Fusion des faces d'une tranche par masques de bits (Greedy Meshing binaire).
+     * Chaque type de face (bloc, et clé d'AO et de lumière si l'éclairage est actif) a un masque de 32 bits (au plus) par ligne v,
+     * le bit u étant levé si la cellule (u, v) porte ce type. Un quad démarre au premier bit levé
+     * (numberOfTrailingZeros), s'étend sur la suite de bits consécutifs, puis sur les lignes suivantes
+     * tant que le ET binaire contient toute la plage. Même parcours et mêmes contraintes que le
+     * Greedy Meshing cellule par cellule, donc mêmes quads.
+     * Les types de face sont retrouvés par une petite table de hachage à adressage ouvert : avec l'éclairage,
+     * une tranche peut en contenir des centaines (bloc, AO par sommet et lumière).
+     */
+    private void mergeBinary(MeshBuilder builder, final int SIZE, Direction dir, int uAxis, int vAxis, int dAxis, int slice,
+                             int[] blockMask, int[] aoMask, VertexColorTable colorTable, int[] pos, int[] aoValues,
+                             int[] keyBlocks, int[] keyAo, int[][] keyRows, int[] keyTable, int[] keySlots) {
+        // 1. Construction des masques de lignes pour chaque type de face présent dans la tranche
+        int keyCount = 0;
+        int n = 0;
+        for (int v = 0; v < SIZE; v++) {
+            for (int u = 0; u < SIZE; u++, n++) {
+                int blockId = blockMask[n];
+                if (blockId == 0) {
+                    continue;
+                }
+                int ao = colorTable.isLightning() ? aoMask[n] : 0;
+                int hash = blockId * 0x9E3779B1 ^ ao * 0x85EBCA77;
+                int slot = (hash ^ (hash >>> 15)) & (keyTable.length - 1);
+                int k;
+                while (true) {
+                    k = keyTable[slot] - 1;
+                    if (k < 0) {
+                        // Nouveau type de face dans la tranche
+                        k = keyCount++;
+                        keyTable[slot] = k + 1;
+                        keySlots[k] = slot;
+                        keyBlocks[k] = blockId;
+                        keyAo[k] = ao;
+                        if (keyRows[k] == null) {
+                            keyRows[k] = new int[SIZE];
+                        }
+                        break;
+                    }
+                    if (keyBlocks[k] == blockId && keyAo[k] == ao) {
+                        break;
+                    }
+                    slot = (slot + 1) & (keyTable.length - 1);
+                }
+                keyRows[k][v] |= 1 << u;
+            }
+        }
+
+        // 2. Extraction des quads (les masques et la table sont vidés au fur et à mesure)
+        for (int k = 0; k < keyCount; k++) {
+            keyTable[keySlots[k]] = 0;
+            int[] rows = keyRows[k];
+            for (int v = 0; v < SIZE; v++) {
+                while (rows[v] != 0) {
+                    int u = Integer.numberOfTrailingZeros(rows[v]);
+                    int width = Integer.numberOfTrailingZeros(~(rows[v] >>> u));
+                    // Seul un décalage de 32 bits déborde : la taille de la tranche (16, 8 ou 4 en LOD) n'y est pour rien
+                    int runMask = width == Integer.SIZE ? -1 : ((1 << width) - 1) << u;
+
+                    int height = 1;
+                    while (v + height < SIZE && (rows[v + height] & runMask) == runMask) {
+                        rows[v + height] &= ~runMask;
+                        height++;
+                    }
+                    rows[v] &= ~runMask;
+
+                    pos[uAxis] = u;
+                    pos[vAxis] = v;
+                    pos[dAxis] = slice;
+                    decodeAoKey(keyAo[k], aoValues);
+                    Face.emitQuad(builder, dir, pos[0], pos[1], pos[2], width, height,
+                                  keyBlocks[k], colorTable, aoValues, keyAo[k] >> LIGHT_SHIFT);
+                }
+            }
+        }
+    }
+
+    /**
+     * Vérifie si le bloc voisin justifie la génération d'une face
+     * (uniquement pour l'air et l'eau).
+     * 
+     * @param neighborId L'identifiant du bloc voisin
+     * @param blockId L'identifiant du bloc actuel
+     * @return True si une face doit être générée, false sinon
+     */
+    private static boolean shouldGenerateFace(int neighborId, int blockId) {
+
+        // Toujours générer une face contre l'air, le vide ou l'invisible
+        if (neighborId == BlockType.AIR.getId() 
+                || neighborId == BlockType.INVISIBLE.getId()
+                || neighborId == BlockType.VOID.getId()) {
+            return true;
+        }
+        
+        // Générer une face si le bloc voisin est de l'eau et le bloc actuel n'est pas de l'eau
+        if (BlockType.isWaterBlock(neighborId) && !BlockType.isWaterBlock(blockId)) {
+            return true;
+        }
+        
+        // Générer une face si le bloc voisin est transparent et le bloc actuel est opaque
+        if (BlockType.isTransparentBlock(neighborId) && !BlockType.isTransparentBlock(blockId)) {
+            return true;
+        }
+        
+        // Générer une face si le bloc actuel est transparent et le voisin est différent
+        if (BlockType.isTransparentBlock(blockId) && neighborId != blockId) {
+            return true;
+        }
+        
+        return false;
+    }
+
+    /**
+     * Encode les 4 valeurs d'AO d'une face (2 bits chacune) dans un entier comparable.
+     */
+    private static int encodeAoKey(int[] aoValues) {
+        int key = 0;
+        key |= (aoValues[0] & 0x3);
+        key |= (aoValues[1] & 0x3) << 2;
+        key |= (aoValues[2] & 0x3) << 4;
+        key |= (aoValues[3] & 0x3) << 6;
+        return key;
+    }
+
+    /**
+     * Décode une clé d'AO produite par {@link #encodeAoKey} dans le tableau fourni.
+     */
+    private static void decodeAoKey(int key, int[] aoValues) {
+        aoValues[0] = key & 0x3;
+        aoValues[1] = (key >> 2) & 0x3;
+        aoValues[2] = (key >> 4) & 0x3;
+        aoValues[3] = (key >> 6) & 0x3;
+    }
+}
@@ -0,0 +1,215 @@
+package voxel.view;
+
+import java.util.Arrays;
+
+import voxel.model.BlockType;
+import voxel.model.ChunkModel;
+import voxel.model.WorldModel;
+import voxel.utils.Direction;
+
+/**
+ * Copie des blocs et de l'éclairage d'un chunk entourée d'une bordure d'un bloc prise dans les chunks voisins (34x34x34),
+ * ou copie sous-échantillonnée pour les niveaux de détail réduits.
+ * Toutes les lectures nécessaires au maillage (visibilité des faces et ambient occlusion)
+ * se font par simple indexation, sans conversion de coordonnées ni accès au monde.
+ * La copie rend aussi le maillage indépendant des modifications du monde pendant son calcul.
+ */
+public class ChunkSnapshot {
+    /** Nombre de cellules par côté (32, ou moins pour une copie sous-échantillonnée) */
+    private final int size;
+
+    /** Côté de la copie : les cellules du chunk plus une de chaque côté */
+    private final int paddedSize;
+
+    /** Identifiants des blocs, indexés par (x + 1) + paddedSize * ((y + 1) + paddedSize * (z + 1)) */
+    private final int[] blocks;
+
+    /** Niveaux de lumière (0-15, le plus fort du ciel et des blocs), indexés comme blocks */
+    private final byte[] lights;
+
+    /**
+     * Copie un chunk et sa bordure.
+     *
+     * @param worldModel Le modèle du monde (pour les blocs voisins)
+     * @param chunkX Position X du chunk dans le tableau du monde
+     * @param chunkY Position Y du chunk dans le tableau du monde
+     * @param chunkZ Position Z du chunk dans le tableau du monde
+     */
+    public ChunkSnapshot(WorldModel worldModel, int chunkX, int chunkY, int chunkZ) {
+        final int SIZE = ChunkModel.SIZE;
+        this.size = SIZE;
+        this.paddedSize = SIZE + 2;
+        this.blocks = new int[paddedSize * paddedSize * paddedSize];
+        this.lights = new byte[blocks.length];
+        ChunkModel chunkModel = worldModel.getChunk(chunkX, chunkY, chunkZ);
+
+        // Origine du chunk en coordonnées globales (monde centré en X et Z)
+        int originX = (chunkX - worldModel.getWorldSizeX() / 2) * SIZE;
+        int originY = chunkY * SIZE;
+        int originZ = (chunkZ - worldModel.getWorldSizeZ() / 2) * SIZE;
+
+        int index = 0;
+        for (int z = -1; z <= SIZE; z++) {
+            for (int y = -1; y <= SIZE; y++) {
+                for (int x = -1; x <= SIZE; x++) {
+                    boolean inside = x >= 0 && x < SIZE && y >= 0 && y < SIZE && z >= 0 && z < SIZE;
+                    if (inside && chunkModel != null) {
+                        blocks[index] = chunkModel.getBlock(x, y, z);
+                        lights[index] = (byte) chunkModel.getLight(x, y, z);
+                    } else {
+                        // Bordure : bloc du chunk voisin (AIR et pleine lumière hors du monde)
+                        blocks[index] = worldModel.getBlockAt(originX + x, originY + y, originZ + z);
+                        lights[index] = (byte) worldModel.getLightAt(originX + x, originY + y, originZ + z);
+                    }
+                    index++;
+                }
+            }
+        }
+    }
+
+    private ChunkSnapshot(int size, int[] blocks, byte[] lights) {
+        this.size = size;
+        this.paddedSize = size + 2;
+        this.blocks = blocks;
+        this.lights = lights;
+    }
+
+    /**
+     * Crée une copie sous-échantillonnée d'un chunk pour un niveau de détail réduit.
+     * Chaque cellule couvre scale³ blocs et prend le type majoritaire parmi eux
+     * (à égalité, un bloc non vide l'emporte sur l'air pour ne pas trouer le terrain)
+     * et le niveau de lumière le plus fort parmi eux.
+     * La bordure est échantillonnée de la même façon dans les chunks voisins.
+     *
+     * @param scale Facteur de réduction (2, 4 ou 8)
+     * @return La copie réduite, de côté 32 / scale
+     */
+    public static ChunkSnapshot downsample(WorldModel worldModel, int chunkX, int chunkY, int chunkZ, int scale) {
+        final int SIZE = ChunkModel.SIZE;
+        int size = SIZE / scale;
+        int paddedSize = size + 2;
+        int[] blocks = new int[paddedSize * paddedSize * paddedSize];
+        byte[] lights = new byte[blocks.length];
+        ChunkModel chunkModel = worldModel.getChunk(chunkX, chunkY, chunkZ);
+
+        int originX = (chunkX - worldModel.getWorldSizeX() / 2) * SIZE;
+        int originY = chunkY * SIZE;
+        int originZ = (chunkZ - worldModel.getWorldSizeZ() / 2) * SIZE;
+
+        // Compteurs par identifiant de bloc (les identifiants commencent à -2)
+        int[] counts = new int[64];
+        int index = 0;
+        for (int cz = -1; cz <= size; cz++) {
+            for (int cy = -1; cy <= size; cy++) {
+                for (int cx = -1; cx <= size; cx++) {
+                    boolean inside = cx >= 0 && cx < size && cy >= 0 && cy < size && cz >= 0 && cz < size;
+                    int best = BlockType.AIR.getId();
+                    int bestCount = 0;
+                    int light = 0;
+                    Arrays.fill(counts, 0);
+                    for (int dz = 0; dz < scale; dz++) {
+                        for (int dy = 0; dy < scale; dy++) {
+                            for (int dx = 0; dx < scale; dx++) {
+                                int x = cx * scale + dx;
+                                int y = cy * scale + dy;
+                                int z = cz * scale + dz;
+                                int block;
+                                if (inside && chunkModel != null) {
+                                    block = chunkModel.getBlock(x, y, z);
+                                    light = Math.max(light, chunkModel.getLight(x, y, z));
+                                } else {
+                                    block = worldModel.getBlockAt(originX + x, originY + y, originZ + z);
+                                    light = Math.max(light, worldModel.getLightAt(originX + x, originY + y, originZ + z));
+                                }
+                                int count = ++counts[block + 2];
+                                boolean air = block == BlockType.AIR.getId();
+                                if (count > bestCount || (count == bestCount && !air)) {
+                                    best = block;
+                                    bestCount = count;
+                                }
+                            }
+                        }
+                    }
+                    lights[index] = (byte) light;
+                    blocks[index++] = best;
+                }
+            }
+        }
+        return new ChunkSnapshot(size, blocks, lights);
+    }
+
+    /**
+     * @return Le nombre de cellules par côté (hors bordure)
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Récupère un bloc en coordonnées locales au chunk (de -1 à size inclus).
+     *
+     * @return L'identifiant du bloc
+     */
+    public int getBlock(int x, int y, int z) {
+        return blocks[(x + 1) + paddedSize * ((y + 1) + paddedSize * (z + 1))];
+    }
+
+    /**
+     * Récupère le niveau de lumière d'une cellule en coordonnées locales au chunk (de -1 à size inclus).
+     *
+     * @return Le niveau de lumière (0-15)
+     */
+    public int getLight(int x, int y, int z) {
+        return lights[(x + 1) + paddedSize * ((y + 1) + paddedSize * (z + 1))];
+    }
+
+    /**
+     * Mélange les blocs et l'éclairage de la copie, bordure comprise, dans une empreinte FNV-1a 64 bits.
+     * Deux copies de même empreinte produisent le même maillage.
+     *
+     * @param hash Empreinte courante
+     * @return Empreinte mise à jour avec le contenu de la copie
+     */
+    public long hashContent(long hash) {
+        hash ^= size;
+        hash *= 0x100000001b3L;
+        for (int i = 0; i < blocks.length; i++) {
+            hash ^= blocks[i];
+            hash *= 0x100000001b3L;
+            hash ^= lights[i];
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Calcule l'ambient occlusion des 4 sommets de la face 1x1 d'un bloc,
+     * dans le même ordre de sommets que {@link Face#emitQuad}.
+     *
+     * @param dir Direction de la face
+     * @param x Coordonnée X locale du bloc (0-31)
+     * @param y Coordonnée Y locale du bloc (0-31)
+     * @param z Coordonnée Z locale du bloc (0-31)
+     * @param aoId Tableau de 4 entiers rempli avec les valeurs d'AO (0 à 3)
+     */
+    public void computeAoValues(Direction dir, int x, int y, int z, int[] aoId) {
+        // Les voisins d'AO sont dans le plan de la face, décalé d'un bloc selon la normale
+        int px = x + dir.getOffsetX();
+        int py = y + dir.getOffsetY();
+        int pz = z + dir.getOffsetZ();
+        int[] corners = Face.AO_VERTEX_CORNERS[dir.ordinal()];
+        int[][] offsets = Face.AO_OFFSETS[dir.ordinal()];
+
+        for (int i = 0; i < 4; i++) {
+            int[] o = offsets[corners[i]];
+            boolean side1 = isTransparentForAO(px + o[0], py + o[1], pz + o[2]);
+            boolean side2 = isTransparentForAO(px + o[3], py + o[4], pz + o[5]);
+            boolean corner = isTransparentForAO(px + o[6], py + o[7], pz + o[8]);
+            aoId[i] = (!side1 && !side2) ? 0 : (side1 ? 1 : 0) + (side2 ? 1 : 0) + (corner ? 1 : 0);
+        }
+    }
+
+    private boolean isTransparentForAO(int x, int y, int z) {
+        return getBlock(x, y, z) <= BlockType.AIR.getId();
+    }
+}
@@ -0,0 +1,225 @@
+package voxel.view;
+
+import com.jme3.util.BufferUtils;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Réserve de buffers directs classés par taille (puissances de deux), réutilisés d'un maillage à l'autre.
+ * Un buffer rendu à la réserve est gardé pour un prochain maillage de la même classe de taille,
+ * ou libéré immédiatement si la réserve est pleine : la mémoire native ne dépend plus du ramasse-miettes.
+ * À utiliser uniquement depuis le thread de rendu.
+ */
+public class DirectBufferPool {
+    /** Plus petite classe de taille : 1 Ko */
+    private static final int MIN_CLASS_SHIFT = 10;
+
+    /** Plus grande classe de taille : 16 Mo (au-delà, les buffers ne sont pas conservés) */
+    private static final int MAX_CLASS_SHIFT = 24;
+
+    /** Taille maximale (en octets) des buffers conservés dans la réserve */
+    private final long maxPooledBytes;
+
+    /** Buffers libres de chaque classe de taille */
+    private final ArrayDeque<ByteBuffer>[] freeBuffers;
+
+    /** Buffer d'octets d'origine de chaque buffer prêté (les vues typées pointent dessus) */
+    private final Map<Buffer, ByteBuffer> lentBuffers = new IdentityHashMap<>();
+
+    /** Statistiques de la réserve */
+    private long acquireCount = 0;
+    private long hitCount = 0;
+    private long allocationCount = 0;
+    private long releaseCount = 0;
+    private long destroyCount = 0;
+    private long pooledBytes = 0;
+    private long lentBytes = 0;
+
+    /**
+     * Crée une réserve de buffers directs.
+     *
+     * @param maxPooledBytes Taille maximale (en octets) des buffers libres conservés
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public DirectBufferPool(long maxPooledBytes) {
+        this.maxPooledBytes = maxPooledBytes;
+        this.freeBuffers = new ArrayDeque[MAX_CLASS_SHIFT + 1];
+        for (int shift = MIN_CLASS_SHIFT; shift <= MAX_CLASS_SHIFT; shift++) {
+            freeBuffers[shift] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * @param count Nombre d'octets
+     * @return Un buffer d'octets dont la limite vaut count (la capacité peut être supérieure)
+     */
+    public ByteBuffer acquireBytes(int count) {
+        ByteBuffer base = acquire(count);
+        ByteBuffer view = base.duplicate().order(base.order());
+        view.limit(count);
+        return lend(view, base);
+    }
+
+    /**
+     * @param count Nombre de shorts
+     * @return Un buffer de shorts dont la limite vaut count (la capacité peut être supérieure)
+     */
+    public ShortBuffer acquireShorts(int count) {
+        ByteBuffer base = acquire(count * 2);
+        ShortBuffer view = base.asShortBuffer();
+        view.limit(count);
+        return lend(view, base);
+    }
+
+    /**
+     * @param count Nombre d'entiers
+     * @return Un buffer d'entiers dont la limite vaut count (la capacité peut être supérieure)
+     */
+    public IntBuffer acquireInts(int count) {
+        ByteBuffer base = acquire(count * 4);
+        IntBuffer view = base.asIntBuffer();
+        view.limit(count);
+        return lend(view, base);
+    }
+
+    /**
+     * @param count Nombre de flottants
+     * @return Un buffer de flottants dont la limite vaut count (la capacité peut être supérieure)
+     */
+    public FloatBuffer acquireFloats(int count) {
+        ByteBuffer base = acquire(count * 4);
+        FloatBuffer view = base.asFloatBuffer();
+        view.limit(count);
+        return lend(view, base);
+    }
+
+    /**
+     * Rend un buffer qui n'est plus utilisé. Il est conservé pour un prochain maillage si la réserve
+     * a de la place, sinon sa mémoire native est libérée tout de suite.
+     * Un buffer direct qui ne vient pas de la réserve est libéré.
+     *
+     * @param buffer Le buffer à rendre (ne doit plus être utilisé ensuite)
+     */
+    public void release(Buffer buffer) {
+        ByteBuffer base = lentBuffers.remove(buffer);
+        if (base == null) {
+            if (buffer.isDirect()) {
+                BufferUtils.destroyDirectBuffer(buffer);
+                destroyCount++;
+            }
+            return;
+        }
+        releaseCount++;
+        lentBytes -= base.capacity();
+
+        int shift = sizeClass(base.capacity());
+        if (shift > MAX_CLASS_SHIFT || pooledBytes + base.capacity() > maxPooledBytes) {
+            BufferUtils.destroyDirectBuffer(base);
+            destroyCount++;
+            return;
+        }
+        freeBuffers[shift].push(base);
+        pooledBytes += base.capacity();
+    }
+
+    /**
+     * Libère tous les buffers libres de la réserve.
+     */
+    public void clear() {
+        for (int shift = MIN_CLASS_SHIFT; shift <= MAX_CLASS_SHIFT; shift++) {
+            ByteBuffer base;
+            while ((base = freeBuffers[shift].poll()) != null) {
+                BufferUtils.destroyDirectBuffer(base);
+                destroyCount++;
+            }
+        }
+        pooledBytes = 0;
+    }
+
+    /**
+     * Prend un buffer libre de la bonne classe de taille, ou en alloue un nouveau.
+     */
+    private ByteBuffer acquire(int bytes) {
+        acquireCount++;
+        int shift = sizeClass(bytes);
+        ByteBuffer base;
+        if (shift > MAX_CLASS_SHIFT) {
+            // Trop grand pour être conservé : taille exacte
+            base = BufferUtils.createByteBuffer(bytes);
+            allocationCount++;
+        } else if ((base = freeBuffers[shift].poll()) != null) {
+            pooledBytes -= base.capacity();
+            hitCount++;
+        } else {
+            base = BufferUtils.createByteBuffer(1 << shift);
+            allocationCount++;
+        }
+        base.clear();
+        lentBytes += base.capacity();
+        return base;
+    }
+
+    private <T extends Buffer> T lend(T view, ByteBuffer base) {
+        lentBuffers.put(view, base);
+        return view;
+    }
+
+    /**
+     * @return L'exposant de la plus petite puissance de deux (au moins 1 Ko) contenant bytes octets
+     */
+    private static int sizeClass(int bytes) {
+        int shift = 32 - Integer.numberOfLeadingZeros(Math.max(1, bytes) - 1);
+        return Math.max(MIN_CLASS_SHIFT, shift);
+    }
+
+    /** @return Nombre de buffers demandés */
+    public long getAcquireCount() {
+        return acquireCount;
+    }
+
+    /** @return Nombre de demandes servies par un buffer déjà alloué */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /** @return Nombre de buffers directs alloués */
+    public long getAllocationCount() {
+        return allocationCount;
+    }
+
+    /** @return Nombre de buffers rendus à la réserve */
+    public long getReleaseCount() {
+        return releaseCount;
+    }
+
+    /** @return Nombre de buffers directs libérés explicitement */
+    public long getDestroyCount() {
+        return destroyCount;
+    }
+
+    /** @return Taille (en octets) des buffers libres conservés */
+    public long getPooledBytes() {
+        return pooledBytes;
+    }
+
+    /** @return Taille (en octets) des buffers actuellement utilisés par des maillages */
+    public long getLentBytes() {
+        return lentBytes;
+    }
+
+    /**
+     * @return Résumé des statistiques de la réserve
+     */
+    public String getStatistics() {
+        return String.format("Buffers: %d demandes (%d réutilisés), %d alloués, %d libérés, %.1f Mo utilisés, %.1f Mo en réserve",
+                acquireCount, hitCount, allocationCount, destroyCount,
+                lentBytes / (1024.0 * 1024.0), pooledBytes / (1024.0 * 1024.0));
+    }
+}
@@ -0,0 +1,125 @@
+package voxel.view;
+
+import com.jme3.asset.AssetManager;
+import com.jme3.material.Material;
+import com.jme3.material.RenderState;
+import com.jme3.math.ColorRGBA;
+import com.jme3.texture.Texture;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Registre des matériaux partagés par les géométries du monde.
+ * Tous les chunks utilisent le même matériau opaque et le même matériau transparent,
+ * et les entités partagent un matériau par texture (ou par couleur unie).
+ * Un matériau n'est ainsi compilé qu'une fois, le renderer change moins souvent d'état
+ * et le passage en fil de fer ne modifie que deux matériaux.
+ */
+public class MaterialRegistry {
+    /** Définition de matériau utilisée pour tout le rendu (sans éclairage) */
+    private static final String UNSHADED = "Common/MatDefs/Misc/Unshaded.j3md";
+
+    /** Asset manager pour créer les matériaux */
+    private final AssetManager assetManager;
+
+    /** Matériau des blocs opaques (couleurs par sommet) */
+    private final Material chunkOpaqueMaterial;
+
+    /** Matériau des blocs transparents (couleurs par sommet, mélange alpha) */
+    private final Material chunkTransparentMaterial;
+
+    /** Matériaux des entités, un par texture */
+    private final Map<Texture, Material> textureMaterials = new HashMap<>();
+
+    /** Matériaux des entités sans texture, un par couleur */
+    private final Map<ColorRGBA, Material> colorMaterials = new HashMap<>();
+
+    /**
+     * Crée le registre et les deux matériaux des chunks.
+     *
+     * @param assetManager Asset manager pour créer les matériaux
+     * @param wireframe État initial du mode filaire des chunks
+     */
+    public MaterialRegistry(AssetManager assetManager, boolean wireframe) {
+        this.assetManager = assetManager;
+
+        // Matériau pour les blocs opaques
+        chunkOpaqueMaterial = new Material(assetManager, UNSHADED);
+        chunkOpaqueMaterial.setBoolean("VertexColor", true);
+
+        // Matériau pour les blocs transparents
+        chunkTransparentMaterial = new Material(assetManager, UNSHADED);
+        chunkTransparentMaterial.setBoolean("VertexColor", true);
+        chunkTransparentMaterial.getAdditionalRenderState().setBlendMode(RenderState.BlendMode.Alpha);
+        chunkTransparentMaterial.getAdditionalRenderState().setDepthWrite(false);
+        chunkTransparentMaterial.setTransparent(true);
+
+        setWireframe(wireframe);
+    }
+
+    /**
+     * @return Le matériau partagé des blocs opaques
+     */
+    public Material getChunkOpaqueMaterial() {
+        return chunkOpaqueMaterial;
+    }
+
+    /**
+     * @return Le matériau partagé des blocs transparents
+     */
+    public Material getChunkTransparentMaterial() {
+        return chunkTransparentMaterial;
+    }
+
+    /**
+     * Applique le mode filaire aux matériaux des chunks.
+     *
+     * @param wireframe true pour afficher les chunks en fil de fer
+     */
+    public void setWireframe(boolean wireframe) {
+        chunkOpaqueMaterial.getAdditionalRenderState().setWireframe(wireframe);
+        chunkTransparentMaterial.getAdditionalRenderState().setWireframe(wireframe);
+    }
+
+    /**
+     * Récupère le matériau non ombré d'une entité texturée, créé au premier appel pour cette texture.
+     *
+     * @param texture La texture du modèle
+     * @return Le matériau partagé par toutes les géométries utilisant cette texture
+     */
+    public Material getEntityMaterial(Texture texture) {
+        return textureMaterials.computeIfAbsent(texture, key -> {
+            Material material = createEntityMaterial();
+            material.setTexture("ColorMap", key);
+            return material;
+        });
+    }
+
+    /**
+     * Récupère le matériau non ombré d'une entité de couleur unie.
+     *
+     * @param color La couleur de l'entité
+     * @return Le matériau partagé par toutes les géométries de cette couleur
+     */
+    public Material getEntityMaterial(ColorRGBA color) {
+        return colorMaterials.computeIfAbsent(color.clone(), key -> {
+            Material material = createEntityMaterial();
+            material.setColor("Color", key);
+            return material;
+        });
+    }
+
+    /**
+     * Crée un matériau d'entité opaque.
+     */
+    private Material createEntityMaterial() {
+        Material material = new Material(assetManager, UNSHADED);
+
+        // Désactiver la transparence qui peut causer des problèmes de rendu
+        material.getAdditionalRenderState().setBlendMode(RenderState.BlendMode.Off);
+        material.getAdditionalRenderState().setDepthTest(true);
+        material.getAdditionalRenderState().setDepthWrite(true);
+        return material;
+    }
+}
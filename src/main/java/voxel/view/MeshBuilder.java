@@ -1,60 +1,142 @@
 package voxel.view;
 
-import com.jme3.math.Vector3f;
-import com.jme3.math.ColorRGBA;
 import com.jme3.scene.Mesh;
-import com.jme3.scene.VertexBuffer.Type;
-import com.jme3.util.BufferUtils;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 /**
  * Classe utilitaire qui construit un maillage (Mesh) à partir d'un ensemble de faces.
  * Permet d'accumuler des faces, puis de générer le maillage final en une seule fois.
  * Cette classe fait partie de la vue car elle concerne uniquement le rendu.
+ *
+ * Les sommets sont écrits directement dans des tableaux primitifs agrandis à la demande :
+ * l'ajout d'une face n'alloue aucun objet.
  */
 public class MeshBuilder {
-    /** Liste des sommets (vertices) du maillage */
-    private final List<Vector3f> vertices = new ArrayList<>();
-    
-    /** Liste des indices du maillage, définissant les triangles */
-    private final List<Integer> indices = new ArrayList<>();
-    
-    /** Liste des normales du maillage, une par sommet */
-    private final List<Vector3f> normals = new ArrayList<>();
-    
-    /** Liste des couleurs du maillage, une par sommet */
-    private final List<ColorRGBA> colors = new ArrayList<>();
+    /** Capacité initiale en nombre de quads */
+    private static final int INITIAL_QUADS = 256;
+
+    /** Positions des sommets (x, y, z) */
+    private float[] positions = new float[INITIAL_QUADS * 4 * 3];
+
+    /** Indices du maillage, définissant les triangles */
+    private int[] indices = new int[INITIAL_QUADS * 6];
+
+    /** Couleurs du maillage, une par sommet, compactées en RGBA 8 bits (0xRRGGBBAA) */
+    private int[] colors = new int[INITIAL_QUADS * 4];
+
+    /** Nombre de sommets écrits */
+    private int vertexCount = 0;
+
+    /** Nombre d'indices écrits */
+    private int indexCount = 0;
+
+    /**
+     * Ajoute un sommet au maillage.
+     *
+     * @param rgba Couleur compactée en RGBA 8 bits (0xRRGGBBAA)
+     * @return L'index du sommet ajouté
+     */
+    public int addVertex(float x, float y, float z, int rgba) {
+        ensureVertexCapacity(vertexCount + 1);
+        int p = vertexCount * 3;
+        positions[p] = x;
+        positions[p + 1] = y;
+        positions[p + 2] = z;
+        colors[vertexCount] = rgba;
+        return vertexCount++;
+    }
+
+    /**
+     * Ajoute les deux triangles d'un quad dont les 4 sommets viennent d'être ajoutés.
+     * L'ordre dépend du flip pour améliorer le rendu de l'ambient occlusion.
+     *
+     * @param firstVertex Index du premier sommet du quad
+     * @param flip true pour couper le quad selon la diagonale v1-v3, false pour v0-v2
+     */
+    public void addQuadIndices(int firstVertex, boolean flip) {
+        if (indexCount + 6 > indices.length) {
+            indices = Arrays.copyOf(indices, indices.length * 2);
+        }
+        int i = indexCount;
+        if (flip) {
+            // Triangulation alternative : v1, v3, v0 puis v1, v2, v3
+            indices[i] = firstVertex + 1;
+            indices[i + 1] = firstVertex + 3;
+            indices[i + 2] = firstVertex;
+            indices[i + 3] = firstVertex + 1;
+            indices[i + 4] = firstVertex + 2;
+            indices[i + 5] = firstVertex + 3;
+        } else {
+            // Triangulation normale : v0, v1, v2 puis v0, v2, v3
+            indices[i] = firstVertex;
+            indices[i + 1] = firstVertex + 1;
+            indices[i + 2] = firstVertex + 2;
+            indices[i + 3] = firstVertex;
+            indices[i + 4] = firstVertex + 2;
+            indices[i + 5] = firstVertex + 3;
+        }
+        indexCount += 6;
+    }
+
+    /**
+     * Agrandit les tableaux de sommets si nécessaire (doublement de la capacité).
+     *
+     * @param required Nombre de sommets à pouvoir stocker
+     */
+    private void ensureVertexCapacity(int required) {
+        if (required * 3 <= positions.length) {
+            return;
+        }
+        int capacity = Math.max(required, positions.length / 3 * 2);
+        positions = Arrays.copyOf(positions, capacity * 3);
+        colors = Arrays.copyOf(colors, capacity);
+    }
+
+    /**
+     * @return Le nombre de sommets ajoutés jusqu'ici
+     */
+    public int getVertexCount() {
+        return vertexCount;
+    }
 
     /**
-     * Ajoute une face au maillage en construction.
-     * 
-     * @param face La face à ajouter
+     * Vide le constructeur pour le réutiliser sans réallouer les tableaux.
      */
-    public void addFace(Face face) {
-        face.addToMesh(vertices, indices, normals, colors);
+    public void reset() {
+        vertexCount = 0;
+        indexCount = 0;
     }
 
     /**
      * Construit et retourne le maillage final à partir des faces ajoutées.
-     * 
+     *
      * @return Le maillage 3D complet
      */
     public Mesh build() {
-        Mesh mesh = new Mesh();
-        
-        // Définition des buffers de vertex
-        mesh.setBuffer(Type.Position, 3, BufferUtils.createFloatBuffer(vertices.toArray(new Vector3f[0])));
-        mesh.setBuffer(Type.Normal, 3, BufferUtils.createFloatBuffer(normals.toArray(new Vector3f[0])));
-        mesh.setBuffer(Type.Color, 4, BufferUtils.createFloatBuffer(colors.toArray(new ColorRGBA[0])));
-        
-        // Conversion et définition des indices
-        int[] indexArray = indices.stream().mapToInt(i -> i).toArray();
-        mesh.setBuffer(Type.Index, 3, BufferUtils.createIntBuffer(indexArray));
-        
-        // Mise à jour des limites (bounds) du maillage
-        mesh.updateBound();
-        
-        return mesh;
-    }
-} 
\ No newline at end of file
+        return buildData().toMesh();
+    }
+
+    /**
+     * Construit les tableaux bruts du maillage, sans créer d'objet jME.
+     * Utilisable depuis un thread de travail.
+     *
+     * @return Les données du maillage (copies ajustées à la taille exacte)
+     */
+    public MeshData buildData() {
+        return buildData(null);
+    }
+
+    /**
+     * Construit les tableaux bruts du maillage en y associant le nombre de quads de chaque tranche.
+     *
+     * @param sliceQuadCounts Nombre de quads par tranche, dans l'ordre d'émission (peut être null)
+     * @return Les données du maillage (copies ajustées à la taille exacte)
+     */
+    public MeshData buildData(int[] sliceQuadCounts) {
+        return new MeshData(
+            Arrays.copyOf(positions, vertexCount * 3),
+            Arrays.copyOf(colors, vertexCount),
+            Arrays.copyOf(indices, indexCount),
+            sliceQuadCounts);
+    }
+}
@@ -0,0 +1,484 @@
+package voxel.view;
+
+import com.jme3.bounding.BoundingBox;
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Mesh;
+import com.jme3.scene.VertexBuffer;
+import com.jme3.scene.VertexBuffer.Format;
+import com.jme3.scene.VertexBuffer.Type;
+import com.jme3.scene.VertexBuffer.Usage;
+import com.jme3.util.BufferUtils;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+
+import voxel.utils.Direction;
+
+/**
+ * Données brutes d'un maillage (tableaux de sommets et d'indices) sans aucun objet jME.
+ * Peut être produit sur un thread de travail puis converti en Mesh sur le thread de rendu.
+ */
+public class MeshData {
+    /**
+     * Format de sommets compact : positions entières sur octets (ou shorts), couleurs sur 4 octets
+     * normalisés, pas de normales (inutiles au matériau Unshaded), indices 16 bits si possible.
+     * Environ 10 octets par sommet au lieu de 40.
+     */
+    private static volatile boolean compactVertexFormat = true;
+
+    /** Positions des sommets (x, y, z) */
+    private final float[] positions;
+
+    /** Couleurs des sommets compactées en RGBA 8 bits (0xRRGGBBAA), une par sommet */
+    private final int[] colors;
+
+    /** Indices des triangles */
+    private final int[] indices;
+
+    /**
+     * Nombre de quads émis pour chaque tranche (direction, profondeur), dans l'ordre du maillage.
+     * Les quads d'une tranche sont contigus : permet de remplacer une tranche sans tout recalculer.
+     * Null si le maillage n'a pas été construit tranche par tranche.
+     */
+    private final int[] sliceQuadCounts;
+
+    /**
+     * Crée des données de maillage. Les tableaux sont conservés tels quels (pas de copie).
+     *
+     * Les normales ne sont pas stockées : le format compact n'en a pas besoin et le format flottant
+     * les déduit des triangles à l'envoi au GPU.
+     *
+     * @param positions Positions des sommets (3 flottants par sommet)
+     * @param colors Couleurs des sommets (une couleur compactée 0xRRGGBBAA par sommet)
+     * @param indices Indices des triangles (3 par triangle)
+     */
+    public MeshData(float[] positions, int[] colors, int[] indices) {
+        this(positions, colors, indices, null);
+    }
+
+    /**
+     * Crée des données de maillage découpées en tranches.
+     *
+     * @param sliceQuadCounts Nombre de quads par tranche (4 sommets et 6 indices par quad), ou null
+     */
+    public MeshData(float[] positions, int[] colors, int[] indices, int[] sliceQuadCounts) {
+        this.positions = positions;
+        this.colors = colors;
+        this.indices = indices;
+        this.sliceQuadCounts = sliceQuadCounts;
+    }
+
+    /**
+     * Remplace certaines tranches d'un maillage par celles d'un maillage partiel.
+     * Les quads des autres tranches sont recopiés tels quels (indices décalés si besoin).
+     *
+     * @param base Maillage complet existant
+     * @param patch Maillage ne contenant que les tranches recalculées
+     * @param replaced Tranches à prendre dans le maillage partiel
+     * @return Le nouveau maillage complet
+     */
+    public static MeshData splice(MeshData base, MeshData patch, boolean[] replaced) {
+        int slices = replaced.length;
+        int[] counts = new int[slices];
+        int totalQuads = 0;
+        for (int s = 0; s < slices; s++) {
+            counts[s] = replaced[s] ? patch.sliceQuadCounts[s] : base.sliceQuadCounts[s];
+            totalQuads += counts[s];
+        }
+
+        float[] positions = new float[totalQuads * 12];
+        int[] colors = new int[totalQuads * 4];
+        int[] indices = new int[totalQuads * 6];
+
+        int baseQuad = 0;
+        int patchQuad = 0;
+        int outQuad = 0;
+        for (int s = 0; s < slices; s++) {
+            MeshData source = replaced[s] ? patch : base;
+            int sourceQuad = replaced[s] ? patchQuad : baseQuad;
+            int quads = counts[s];
+            if (quads > 0) {
+                System.arraycopy(source.positions, sourceQuad * 12, positions, outQuad * 12, quads * 12);
+                System.arraycopy(source.colors, sourceQuad * 4, colors, outQuad * 4, quads * 4);
+                int shift = (outQuad - sourceQuad) * 4;
+                int from = sourceQuad * 6;
+                int to = outQuad * 6;
+                for (int i = 0; i < quads * 6; i++) {
+                    indices[to + i] = source.indices[from + i] + shift;
+                }
+            }
+            baseQuad += base.sliceQuadCounts[s];
+            patchQuad += patch.sliceQuadCounts[s];
+            outQuad += quads;
+        }
+        return new MeshData(positions, colors, indices, counts);
+    }
+
+    /**
+     * Active ou désactive le format de sommets compact pour les prochains maillages construits.
+     *
+     * @param enabled true pour le format compact, false pour le format flottant complet
+     */
+    public static void setCompactVertexFormat(boolean enabled) {
+        compactVertexFormat = enabled;
+    }
+
+    public static boolean isCompactVertexFormat() {
+        return compactVertexFormat;
+    }
+
+    /**
+     * Construit le Mesh jME correspondant. À appeler sur le thread de rendu.
+     *
+     * @return Le maillage 3D
+     */
+    public Mesh toMesh() {
+        Mesh mesh = new Mesh();
+        updateMesh(mesh, null);
+        return mesh;
+    }
+
+    /**
+     * Écrit ces données dans un Mesh existant. À appeler sur le thread de rendu.
+     * Chaque buffer du Mesh est réécrit sur place (updateData) s'il a le bon format et assez de capacité ;
+     * sinon un buffer est pris dans la réserve et l'ancien y est rendu.
+     *
+     * @param mesh Le maillage à mettre à jour
+     * @param pool Réserve de buffers directs, ou null pour allouer des buffers neufs
+     */
+    public void updateMesh(Mesh mesh, DirectBufferPool pool) {
+        if (isEmpty()) {
+            releaseBuffers(mesh, pool);
+            mesh.setBound(new BoundingBox(Vector3f.ZERO.clone(), Vector3f.ZERO.clone()));
+            mesh.updateCounts();
+            return;
+        }
+        if (compactVertexFormat) {
+            writeCompact(mesh, pool);
+        } else {
+            writeFloat(mesh, pool);
+        }
+        mesh.updateCounts();
+    }
+
+    /**
+     * Retire les buffers d'un maillage et les rend à la réserve (ou les libère).
+     *
+     * @param mesh Le maillage qui n'est plus affiché
+     * @param pool Réserve de buffers directs, ou null pour les laisser au ramasse-miettes
+     */
+    public static void releaseBuffers(Mesh mesh, DirectBufferPool pool) {
+        clearBuffer(mesh, Type.Position, pool);
+        clearBuffer(mesh, Type.Normal, pool);
+        clearBuffer(mesh, Type.Color, pool);
+        clearBuffer(mesh, Type.Index, pool);
+    }
+
+    /**
+     * Écrit le maillage au format flottant complet (position, normale, couleur RGBA en float).
+     */
+    private void writeFloat(Mesh mesh, DirectBufferPool pool) {
+        FloatBuffer positionBuffer = (FloatBuffer) prepareBuffer(mesh, Type.Position, 3, Format.Float, positions.length, pool);
+        positionBuffer.put(positions);
+        commitBuffer(mesh, Type.Position, 3, Format.Float, false, positionBuffer, pool);
+
+        // Normales déduites du premier triangle de chaque quad (sommets dans le sens trigonométrique)
+        FloatBuffer normalBuffer = (FloatBuffer) prepareBuffer(mesh, Type.Normal, 3, Format.Float, positions.length, pool);
+        for (int quad = 0; quad < indices.length / 6; quad++) {
+            int a = indices[quad * 6] * 3;
+            int b = indices[quad * 6 + 1] * 3;
+            int c = indices[quad * 6 + 2] * 3;
+            float ux = positions[b] - positions[a], uy = positions[b + 1] - positions[a + 1], uz = positions[b + 2] - positions[a + 2];
+            float vx = positions[c] - positions[a], vy = positions[c + 1] - positions[a + 1], vz = positions[c + 2] - positions[a + 2];
+            float nx = uy * vz - uz * vy;
+            float ny = uz * vx - ux * vz;
+            float nz = ux * vy - uy * vx;
+            float length = (float) Math.sqrt(nx * nx + ny * ny + nz * nz);
+            if (length > 0f) {
+                nx /= length;
+                ny /= length;
+                nz /= length;
+            }
+            for (int v = 0; v < 4; v++) {
+                normalBuffer.put(nx).put(ny).put(nz);
+            }
+        }
+        commitBuffer(mesh, Type.Normal, 3, Format.Float, false, normalBuffer, pool);
+
+        FloatBuffer colorBuffer = (FloatBuffer) prepareBuffer(mesh, Type.Color, 4, Format.Float, colors.length * 4, pool);
+        for (int rgba : colors) {
+            colorBuffer.put((rgba >>> 24) / 255f)
+                       .put(((rgba >>> 16) & 0xFF) / 255f)
+                       .put(((rgba >>> 8) & 0xFF) / 255f)
+                       .put((rgba & 0xFF) / 255f);
+        }
+        commitBuffer(mesh, Type.Color, 4, Format.Float, false, colorBuffer, pool);
+
+        IntBuffer indexBuffer = (IntBuffer) prepareBuffer(mesh, Type.Index, 3, Format.UnsignedInt, indices.length, pool);
+        indexBuffer.put(indices);
+        commitBuffer(mesh, Type.Index, 3, Format.UnsignedInt, false, indexBuffer, pool);
+
+        mesh.updateBound();
+    }
+
+    /**
+     * Écrit le maillage au format compact. Les positions sont des coordonnées entières locales
+     * au chunk : elles sont stockées telles quelles (sans normalisation) et converties en float par le GPU.
+     */
+    private void writeCompact(Mesh mesh, DirectBufferPool pool) {
+        int vertexCount = getVertexCount();
+
+        // Boîte englobante calculée ici : Mesh.updateBound ne sait lire que des positions flottantes
+        float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY, minZ = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY, maxZ = Float.NEGATIVE_INFINITY;
+        boolean integral = true;
+        for (int i = 0; i < positions.length; i += 3) {
+            float x = positions[i], y = positions[i + 1], z = positions[i + 2];
+            minX = Math.min(minX, x); minY = Math.min(minY, y); minZ = Math.min(minZ, z);
+            maxX = Math.max(maxX, x); maxY = Math.max(maxY, y); maxZ = Math.max(maxZ, z);
+            integral &= x == (int) x && y == (int) y && z == (int) z;
+        }
+        float min = Math.min(minX, Math.min(minY, minZ));
+        float max = Math.max(maxX, Math.max(maxY, maxZ));
+
+        // Positions : octets si toutes les coordonnées sont dans [0, 255], shorts dans [0, 65535], float sinon
+        if (integral && min >= 0 && max <= 255) {
+            ByteBuffer buffer = (ByteBuffer) prepareBuffer(mesh, Type.Position, 3, Format.UnsignedByte, positions.length, pool);
+            for (float value : positions) {
+                buffer.put((byte) (int) value);
+            }
+            commitBuffer(mesh, Type.Position, 3, Format.UnsignedByte, false, buffer, pool);
+        } else if (integral && min >= 0 && max <= 65535) {
+            ShortBuffer buffer = (ShortBuffer) prepareBuffer(mesh, Type.Position, 3, Format.UnsignedShort, positions.length, pool);
+            for (float value : positions) {
+                buffer.put((short) (int) value);
+            }
+            commitBuffer(mesh, Type.Position, 3, Format.UnsignedShort, false, buffer, pool);
+        } else {
+            FloatBuffer buffer = (FloatBuffer) prepareBuffer(mesh, Type.Position, 3, Format.Float, positions.length, pool);
+            buffer.put(positions);
+            commitBuffer(mesh, Type.Position, 3, Format.Float, false, buffer, pool);
+        }
+
+        // Pas de normales : inutiles au matériau Unshaded
+        clearBuffer(mesh, Type.Normal, pool);
+
+        // Couleurs : 4 octets normalisés (0..255 -> 0..1 côté GPU), déjà compactés par le mailleur
+        ByteBuffer colorBytes = (ByteBuffer) prepareBuffer(mesh, Type.Color, 4, Format.UnsignedByte, colors.length * 4, pool);
+        for (int rgba : colors) {
+            colorBytes.put((byte) (rgba >>> 24))
+                      .put((byte) (rgba >>> 16))
+                      .put((byte) (rgba >>> 8))
+                      .put((byte) rgba);
+        }
+        commitBuffer(mesh, Type.Color, 4, Format.UnsignedByte, true, colorBytes, pool);
+
+        // Indices : 16 bits tant que tous les sommets sont adressables
+        if (vertexCount < 65536) {
+            ShortBuffer indexBuffer = (ShortBuffer) prepareBuffer(mesh, Type.Index, 3, Format.UnsignedShort, indices.length, pool);
+            for (int index : indices) {
+                indexBuffer.put((short) index);
+            }
+            commitBuffer(mesh, Type.Index, 3, Format.UnsignedShort, false, indexBuffer, pool);
+        } else {
+            IntBuffer indexBuffer = (IntBuffer) prepareBuffer(mesh, Type.Index, 3, Format.UnsignedInt, indices.length, pool);
+            indexBuffer.put(indices);
+            commitBuffer(mesh, Type.Index, 3, Format.UnsignedInt, false, indexBuffer, pool);
+        }
+
+        mesh.setBound(new BoundingBox(new Vector3f(minX, minY, minZ), new Vector3f(maxX, maxY, maxZ)));
+    }
+
+    /**
+     * Fournit le buffer à remplir pour un type de données : le buffer actuel du Mesh s'il a le même format
+     * et une capacité suffisante, sinon un nouveau buffer (pris dans la réserve si elle est fournie).
+     *
+     * @param count Nombre de valeurs à écrire
+     * @return Un buffer positionné au début, de limite count
+     */
+    private static Buffer prepareBuffer(Mesh mesh, Type type, int components, Format format, int count, DirectBufferPool pool) {
+        VertexBuffer current = mesh.getBuffer(type);
+        if (pool != null && current != null && current.getFormat() == format && current.getNumComponents() == components
+                && current.getData() != null && current.getData().capacity() >= count) {
+            Buffer data = current.getData();
+            data.clear();
+            data.limit(count);
+            return data;
+        }
+        switch (format) {
+            case UnsignedByte:
+                return pool != null ? pool.acquireBytes(count) : BufferUtils.createByteBuffer(count);
+            case UnsignedShort:
+                return pool != null ? pool.acquireShorts(count) : BufferUtils.createShortBuffer(count);
+            case UnsignedInt:
+                return pool != null ? pool.acquireInts(count) : BufferUtils.createIntBuffer(count);
+            default:
+                return pool != null ? pool.acquireFloats(count) : BufferUtils.createFloatBuffer(count);
+        }
+    }
+
+    /**
+     * Associe au Mesh un buffer rempli par {@link #prepareBuffer}. Un buffer réutilisé est simplement
+     * marqué à renvoyer au GPU ; un nouveau buffer remplace l'ancien, qui est rendu à la réserve.
+     */
+    private static void commitBuffer(Mesh mesh, Type type, int components, Format format, boolean normalized,
+                                     Buffer data, DirectBufferPool pool) {
+        data.rewind();
+        VertexBuffer current = mesh.getBuffer(type);
+        if (current != null && current.getData() == data) {
+            current.updateData(data);
+            return;
+        }
+        clearBuffer(mesh, type, pool);
+        VertexBuffer buffer = new VertexBuffer(type);
+        buffer.setupData(pool != null ? Usage.Dynamic : Usage.Static, components, format, data);
+        buffer.setNormalized(normalized);
+        mesh.setBuffer(buffer);
+    }
+
+    /**
+     * Retire un buffer du Mesh et rend ses données à la réserve.
+     */
+    private static void clearBuffer(Mesh mesh, Type type, DirectBufferPool pool) {
+        VertexBuffer current = mesh.getBuffer(type);
+        if (current == null) {
+            return;
+        }
+        mesh.clearBuffer(type);
+        if (pool != null && current.getData() != null) {
+            pool.release(current.getData());
+        }
+    }
+
+    public int getVertexCount() {
+        return positions.length / 3;
+    }
+
+    public int getTriangleCount() {
+        return indices.length / 3;
+    }
+
+    /**
+     * Concatène plusieurs maillages en un seul, chacun étant décalé de sa propre translation.
+     *
+     * @param parts Maillages à regrouper
+     * @param offsets Translation (x, y, z) de chaque maillage, 3 valeurs par maillage
+     * @param count Nombre de maillages à prendre dans les tableaux
+     * @return Le maillage regroupé (sans découpage en tranches)
+     */
+    public static MeshData merge(MeshData[] parts, float[] offsets, int count) {
+        return merge(parts, offsets, count, null);
+    }
+
+    /**
+     * Concatène les quads d'une seule direction de face de plusieurs maillages découpés en tranches.
+     * Les tranches d'un maillage sont rangées direction par direction : les quads d'une direction sont contigus.
+     *
+     * @param parts Maillages à regrouper (découpés en tranches si une direction est demandée)
+     * @param offsets Translation (x, y, z) de chaque maillage, 3 valeurs par maillage
+     * @param count Nombre de maillages à prendre dans les tableaux
+     * @param dir Direction des faces à garder, ou null pour tout garder
+     * @return Le maillage regroupé (sans découpage en tranches)
+     */
+    public static MeshData merge(MeshData[] parts, float[] offsets, int count, Direction dir) {
+        // Intervalle de quads [début, fin) gardé dans chaque maillage
+        int[] quadRanges = new int[count * 2];
+        int quadTotal = 0;
+        for (int i = 0; i < count; i++) {
+            MeshData part = parts[i];
+            quadRanges[i * 2] = dir == null ? 0 : part.firstQuadOfDirection(dir.ordinal());
+            quadRanges[i * 2 + 1] = dir == null ? part.getVertexCount() / 4 : part.firstQuadOfDirection(dir.ordinal() + 1);
+            quadTotal += quadRanges[i * 2 + 1] - quadRanges[i * 2];
+        }
+
+        float[] positions = new float[quadTotal * 12];
+        int[] colors = new int[quadTotal * 4];
+        int[] indices = new int[quadTotal * 6];
+
+        int vertexBase = 0;
+        int indexBase = 0;
+        for (int i = 0; i < count; i++) {
+            MeshData part = parts[i];
+            int firstVertex = quadRanges[i * 2] * 4;
+            int vertexCount = quadRanges[i * 2 + 1] * 4 - firstVertex;
+            float ox = offsets[i * 3];
+            float oy = offsets[i * 3 + 1];
+            float oz = offsets[i * 3 + 2];
+            for (int v = 0; v < vertexCount; v++) {
+                int from = (firstVertex + v) * 3;
+                int to = (vertexBase + v) * 3;
+                positions[to] = part.positions[from] + ox;
+                positions[to + 1] = part.positions[from + 1] + oy;
+                positions[to + 2] = part.positions[from + 2] + oz;
+            }
+            System.arraycopy(part.colors, firstVertex, colors, vertexBase, vertexCount);
+            int firstIndex = firstVertex / 4 * 6;
+            int indexCount = vertexCount / 4 * 6;
+            int shift = vertexBase - firstVertex;
+            for (int k = 0; k < indexCount; k++) {
+                indices[indexBase + k] = part.indices[firstIndex + k] + shift;
+            }
+            vertexBase += vertexCount;
+            indexBase += indexCount;
+        }
+        return new MeshData(positions, colors, indices);
+    }
+
+    /**
+     * Extrait les quads d'une direction de face d'un maillage découpé en tranches.
+     *
+     * @param dir Direction des faces à garder
+     * @return Un maillage ne contenant que les faces tournées vers cette direction
+     */
+    public MeshData extractDirection(Direction dir) {
+        return merge(new MeshData[] {this}, new float[3], 1, dir);
+    }
+
+    /**
+     * Calcule l'indice du premier quad d'une direction : les tranches sont rangées direction par direction,
+     * avec le même nombre de tranches pour chaque direction.
+     *
+     * @param direction Ordinal de la direction (jusqu'au nombre de directions, pour la fin du maillage)
+     */
+    private int firstQuadOfDirection(int direction) {
+        int slicesPerDirection = sliceQuadCounts.length / Direction.values().length;
+        int quads = 0;
+        for (int s = 0; s < direction * slicesPerDirection; s++) {
+            quads += sliceQuadCounts[s];
+        }
+        return quads;
+    }
+
+    /**
+     * @return true si le maillage connaît le nombre de quads de chacune de ses tranches
+     */
+    public boolean hasSlices() {
+        return sliceQuadCounts != null;
+    }
+
+    /**
+     * @return Le nombre de quads de chaque tranche, ou null si le maillage n'est pas découpé en tranches
+     */
+    public int[] getSliceQuadCounts() {
+        return sliceQuadCounts;
+    }
+
+    public boolean isEmpty() {
+        return indices.length == 0;
+    }
+
+    public float[] getPositions() {
+        return positions;
+    }
+
+    public int[] getColors() {
+        return colors;
+    }
+
+    public int[] getIndices() {
+        return indices;
+    }
+}
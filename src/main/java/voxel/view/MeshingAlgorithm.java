@@ -0,0 +1,13 @@
+package voxel.view;
+
+/**
+ * Algorithmes de fusion des faces disponibles pour le maillage des chunks.
+ * Les deux produisent les mêmes quads ; seul le coût du calcul diffère.
+ */
+public enum MeshingAlgorithm {
+    /** Greedy Meshing classique : fusion cellule par cellule sur le masque de la tranche */
+    GREEDY,
+
+    /** Greedy Meshing binaire : une ligne de la tranche est un masque de 32 bits par type de face */
+    BINARY_GREEDY
+}
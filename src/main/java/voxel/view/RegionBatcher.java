@@ -0,0 +1,487 @@
+package voxel.view;
+
+import com.jme3.renderer.queue.RenderQueue;
+import com.jme3.scene.Geometry;
+import com.jme3.scene.Mesh;
+import com.jme3.scene.Node;
+import com.jme3.scene.Spatial;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import voxel.model.ChunkModel;
+import voxel.model.WorldModel;
+import voxel.utils.Direction;
+import voxel.utils.FrameScheduler;
+
+/**
+ * Regroupe les maillages de blocs de N×N×N chunks (régions) dans une géométrie opaque par direction de face
+ * et une seule géométrie transparente par région, pour réduire le nombre de draw calls
+ * et de nœuds dans le graphe de scène. Les directions tournées à l'opposé de la caméra ne sont pas affichées.
+ * Une région est reconstruite lorsqu'un de ses chunks reçoit un nouveau maillage : la concaténation
+ * des maillages est faite par les threads de maillage, le thread de rendu ne fait que l'envoi au GPU.
+ */
+public class RegionBatcher {
+    /** Nombre de reports au-delà duquel une région est reconstruite même si un chunk attend encore son maillage */
+    private static final int MAX_REBUILD_DEFERRALS = 120;
+
+    /** Référence au modèle du monde */
+    private final WorldModel worldModel;
+
+    /** Nœud auquel les géométries des régions sont attachées */
+    private final Node parentNode;
+
+    /** Côté d'une région en chunks */
+    private final int regionSize;
+
+    /** Nombre de régions sur chaque axe */
+    private final int regionsX;
+    private final int regionsY;
+    private final int regionsZ;
+
+    /** Géométries opaques de chaque région, une par direction de face (null si la région n'a pas de telles faces) */
+    private final Geometry[][][][] opaqueGeometries;
+
+    /** Géométries transparentes de chaque région (null si la région n'a pas de faces transparentes) */
+    private final Geometry[][][] transparentGeometries;
+
+    /** Régions dont la reconstruction est planifiée */
+    private final boolean[][][] dirty;
+
+    /** Ordonnanceur du thread de rendu qui exécute les envois au GPU */
+    private final FrameScheduler scheduler;
+
+    /** Threads de travail qui regroupent les maillages des régions */
+    private final ExecutorService executor;
+
+    /** Regroupements terminés par les threads de travail, en attente d'envoi au GPU */
+    private final Queue<MergedRegion> completedMerges = new ConcurrentLinkedQueue<>();
+
+    /** Dernière version de regroupement demandée pour chaque région (les résultats plus anciens sont ignorés) */
+    private final int[][][] mergeVersions;
+
+    /** Dernier maillage appliqué de chaque chunk */
+    private final ChunkMeshData[][][] meshes;
+
+    /** Dernière version de maillage demandée pour chaque chunk */
+    private final int[][][] requestedVersions;
+
+    /** Dernière version de maillage terminée pour chaque chunk, qu'elle ait produit un maillage ou échoué */
+    private final int[][][] completedVersions;
+
+    /** Nombre de reports successifs de la reconstruction de chaque région */
+    private final int[][][] deferrals;
+
+    /** Matériaux partagés par toutes les régions */
+    private final MaterialRegistry materials;
+
+    /** Réserve des buffers directs des maillages */
+    private final DirectBufferPool bufferPool;
+
+    /** Chunks atteints lors du dernier calcul de visibilité (null : tout est visible) */
+    private boolean[][][] reached;
+
+    /** Chunk de la caméra pour le masquage des directions de faces (null : toutes les directions sont affichées) */
+    private int[] cameraChunk;
+
+    /**
+     * Crée le regroupement par régions d'un monde.
+     *
+     * @param worldModel Le modèle du monde
+     * @param materials Matériaux partagés des chunks
+     * @param bufferPool Réserve des buffers directs des maillages
+     * @param scheduler Ordonnanceur du thread de rendu qui exécute les envois au GPU
+     * @param executor Threads de travail qui regroupent les maillages des régions
+     * @param parentNode Nœud auquel attacher les géométries des régions
+     * @param regionSize Côté d'une région en chunks
+     * @param meshes Dernier maillage appliqué de chaque chunk (tableau partagé avec le WorldRenderer)
+     * @param requestedVersions Dernière version de maillage demandée pour chaque chunk (tableau partagé)
+     * @param completedVersions Dernière version de maillage terminée pour chaque chunk (tableau partagé)
+     */
+    public RegionBatcher(WorldModel worldModel, MaterialRegistry materials, DirectBufferPool bufferPool,
+                         FrameScheduler scheduler, ExecutorService executor, Node parentNode, int regionSize,
+                         ChunkMeshData[][][] meshes, int[][][] requestedVersions, int[][][] completedVersions) {
+        this.worldModel = worldModel;
+        this.materials = materials;
+        this.bufferPool = bufferPool;
+        this.scheduler = scheduler;
+        this.executor = executor;
+        this.meshes = meshes;
+        this.requestedVersions = requestedVersions;
+        this.completedVersions = completedVersions;
+        this.parentNode = parentNode;
+        this.regionSize = regionSize;
+        this.regionsX = (worldModel.getWorldSizeX() + regionSize - 1) / regionSize;
+        this.regionsY = (worldModel.getWorldSizeY() + regionSize - 1) / regionSize;
+        this.regionsZ = (worldModel.getWorldSizeZ() + regionSize - 1) / regionSize;
+        this.opaqueGeometries = new Geometry[regionsX][regionsY][regionsZ][Direction.values().length];
+        this.transparentGeometries = new Geometry[regionsX][regionsY][regionsZ];
+        this.dirty = new boolean[regionsX][regionsY][regionsZ];
+        this.mergeVersions = new int[regionsX][regionsY][regionsZ];
+        this.deferrals = new int[regionsX][regionsY][regionsZ];
+    }
+
+    /**
+     * Signale que le maillage d'un chunk a changé : la reconstruction de sa région est confiée
+     * à l'ordonnanceur (les régions proches de la caméra d'abord).
+     *
+     * @param chunkX Position X du chunk
+     * @param chunkY Position Y du chunk
+     * @param chunkZ Position Z du chunk
+     */
+    public void markDirty(int chunkX, int chunkY, int chunkZ) {
+        int rx = chunkX / regionSize;
+        int ry = chunkY / regionSize;
+        int rz = chunkZ / regionSize;
+        if (!dirty[rx][ry][rz]) {
+            dirty[rx][ry][rz] = true;
+            scheduleRebuild(rx, ry, rz);
+        }
+    }
+
+    /**
+     * Planifie la reconstruction d'une région.
+     */
+    private void scheduleRebuild(int rx, int ry, int rz) {
+        submitForRegion(rx, ry, rz, () -> rebuildWhenReady(rx, ry, rz));
+    }
+
+    /**
+     * Confie une tâche du thread de rendu à l'ordonnanceur, avec pour priorité la distance du centre
+     * de la région à la caméra.
+     */
+    private void submitForRegion(int rx, int ry, int rz, Runnable task) {
+        float extent = regionSize * ChunkModel.SIZE;
+        float x = rx * extent + extent / 2 - worldModel.getWorldSizeX() * ChunkModel.SIZE / 2;
+        float y = ry * extent + extent / 2;
+        float z = rz * extent + extent / 2 - worldModel.getWorldSizeZ() * ChunkModel.SIZE / 2;
+        scheduler.submit(x, y, z, task);
+    }
+
+    /**
+     * Lance la reconstruction d'une région modifiée. Une région dont un chunk attend encore un maillage
+     * est reportée à la frame suivante, pour ne pas la reconstruire à chaque arrivée pendant le chargement ;
+     * après {@link #MAX_REBUILD_DEFERRALS} reports, elle est reconstruite avec les maillages déjà reçus.
+     * Les maillages des chunks sont relevés ici, sur le thread de rendu ; leur concaténation est confiée
+     * aux threads de travail.
+     */
+    private void rebuildWhenReady(int rx, int ry, int rz) {
+        if (hasPendingChunk(rx, ry, rz) && deferrals[rx][ry][rz] < MAX_REBUILD_DEFERRALS) {
+            deferrals[rx][ry][rz]++;
+            scheduleRebuild(rx, ry, rz);
+            return;
+        }
+        deferrals[rx][ry][rz] = 0;
+        dirty[rx][ry][rz] = false;
+
+        ChunkMeshData[] regionMeshes = new ChunkMeshData[regionSize * regionSize * regionSize];
+        for (int cx = rx * regionSize; cx < Math.min((rx + 1) * regionSize, worldModel.getWorldSizeX()); cx++) {
+            for (int cy = ry * regionSize; cy < Math.min((ry + 1) * regionSize, worldModel.getWorldSizeY()); cy++) {
+                for (int cz = rz * regionSize; cz < Math.min((rz + 1) * regionSize, worldModel.getWorldSizeZ()); cz++) {
+                    regionMeshes[localIndex(cx - rx * regionSize, cy - ry * regionSize, cz - rz * regionSize)] = meshes[cx][cy][cz];
+                }
+            }
+        }
+
+        int version = ++mergeVersions[rx][ry][rz];
+        try {
+            executor.submit(() -> {
+                // Inutile de regrouper si une reconstruction plus récente a déjà été demandée
+                if (mergeVersions[rx][ry][rz] != version) {
+                    return;
+                }
+                try {
+                    completedMerges.add(mergeRegion(rx, ry, rz, version, regionMeshes));
+                } catch (RuntimeException e) {
+                    System.err.println("Erreur lors du regroupement de la région " + rx + "," + ry + "," + rz + " : " + e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Threads de travail arrêtés : le monde n'est plus affiché
+        }
+    }
+
+    /**
+     * Récupère les régions regroupées par les threads de travail (thread de rendu uniquement).
+     * Leur envoi au GPU est confié à l'ordonnanceur de frame, les régions proches de la caméra d'abord.
+     */
+    public void applyCompletedMerges() {
+        MergedRegion merged;
+        while ((merged = completedMerges.poll()) != null) {
+            MergedRegion region = merged;
+            if (mergeVersions[region.rx][region.ry][region.rz] != region.version) {
+                continue;
+            }
+            submitForRegion(region.rx, region.ry, region.rz, () -> uploadRegion(region));
+        }
+    }
+
+    /**
+     * Indique si un chunk de la région attend la fin de sa dernière demande de maillage.
+     * Une demande qui a échoué compte comme terminée : le chunk garde son maillage précédent.
+     */
+    private boolean hasPendingChunk(int rx, int ry, int rz) {
+        for (int cx = rx * regionSize; cx < Math.min((rx + 1) * regionSize, worldModel.getWorldSizeX()); cx++) {
+            for (int cy = ry * regionSize; cy < Math.min((ry + 1) * regionSize, worldModel.getWorldSizeY()); cy++) {
+                for (int cz = rz * regionSize; cz < Math.min((rz + 1) * regionSize, worldModel.getWorldSizeZ()); cz++) {
+                    if (completedVersions[cx][cy][cz] != requestedVersions[cx][cy][cz]) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Met à jour les géométries d'une région avec un regroupement terminé (thread de rendu).
+     */
+    private void uploadRegion(MergedRegion region) {
+        int rx = region.rx;
+        int ry = region.ry;
+        int rz = region.rz;
+        // Une reconstruction plus récente a été lancée depuis : son résultat remplacera celui-ci
+        if (mergeVersions[rx][ry][rz] != region.version) {
+            return;
+        }
+        Geometry[] directionGeometries = opaqueGeometries[rx][ry][rz];
+        for (Direction dir : Direction.values()) {
+            directionGeometries[dir.ordinal()] = updateGeometry(directionGeometries[dir.ordinal()],
+                    region.opaque[dir.ordinal()], rx, ry, rz, dir);
+        }
+        transparentGeometries[rx][ry][rz] = updateGeometry(transparentGeometries[rx][ry][rz],
+                region.transparent, rx, ry, rz, null);
+    }
+
+    /**
+     * Regroupe les maillages des chunks d'une région (threads de travail) : une partie opaque par direction
+     * de face et une partie transparente.
+     *
+     * @param regionMeshes Maillages des chunks de la région relevés sur le thread de rendu (voir {@link #localIndex})
+     */
+    private MergedRegion mergeRegion(int rx, int ry, int rz, int version, ChunkMeshData[] regionMeshes) {
+        MeshData[] opaque = new MeshData[Direction.values().length];
+        for (Direction dir : Direction.values()) {
+            opaque[dir.ordinal()] = mergeParts(regionMeshes, dir);
+        }
+        return new MergedRegion(rx, ry, rz, version, opaque, mergeParts(regionMeshes, null));
+    }
+
+    /**
+     * Concatène les faces opaques d'une direction ou les maillages transparents des chunks d'une région,
+     * en coordonnées relatives à l'origine de la région.
+     *
+     * @param dir Direction des faces opaques à regrouper, ou null pour les maillages transparents
+     */
+    private MeshData mergeParts(ChunkMeshData[] regionMeshes, Direction dir) {
+        boolean transparent = dir == null;
+        MeshData[] parts = new MeshData[regionMeshes.length];
+        float[] offsets = new float[regionMeshes.length * 3];
+        int count = 0;
+        for (int lx = 0; lx < regionSize; lx++) {
+            for (int ly = 0; ly < regionSize; ly++) {
+                for (int lz = 0; lz < regionSize; lz++) {
+                    ChunkMeshData meshData = regionMeshes[localIndex(lx, ly, lz)];
+                    if (meshData == null) {
+                        continue;
+                    }
+                    MeshData part = transparent ? meshData.getTransparent() : meshData.getOpaque(dir);
+                    if (part == null || part.isEmpty()) {
+                        continue;
+                    }
+                    parts[count] = part;
+                    offsets[count * 3] = lx * ChunkModel.SIZE;
+                    offsets[count * 3 + 1] = ly * ChunkModel.SIZE;
+                    offsets[count * 3 + 2] = lz * ChunkModel.SIZE;
+                    count++;
+                }
+            }
+        }
+        MeshData merged = count == 0 ? null : MeshData.merge(parts, offsets, count);
+        if (merged != null && merged.isEmpty()) {
+            merged = null;
+        }
+        return merged;
+    }
+
+    /**
+     * Indice d'un chunk dans le relevé des maillages d'une région.
+     */
+    private int localIndex(int lx, int ly, int lz) {
+        return (lx * regionSize + ly) * regionSize + lz;
+    }
+
+    /**
+     * Crée, met à jour ou supprime la géométrie d'une région.
+     *
+     * @param dir Direction des faces opaques de la géométrie, ou null pour la géométrie transparente
+     * @return La géométrie à conserver (null si la région n'a plus de faces)
+     */
+    private Geometry updateGeometry(Geometry geometry, MeshData merged, int rx, int ry, int rz, Direction dir) {
+        boolean transparent = dir == null;
+        if (merged == null) {
+            if (geometry != null) {
+                parentNode.detachChild(geometry);
+                MeshData.releaseBuffers(geometry.getMesh(), bufferPool);
+            }
+            return null;
+        }
+        if (geometry == null) {
+            String name = "region_" + rx + "_" + ry + "_" + rz + (transparent ? "_transparent" : "_opaque_" + dir);
+            geometry = new Geometry(name, new Mesh());
+            geometry.setMaterial(transparent ? materials.getChunkTransparentMaterial() : materials.getChunkOpaqueMaterial());
+            if (transparent) {
+                geometry.setQueueBucket(RenderQueue.Bucket.Transparent);
+            }
+
+            // Même décalage que les chunks pour centrer le monde à (0,0,0)
+            int offsetX = worldModel.getWorldSizeX() * ChunkModel.SIZE / 2;
+            int offsetZ = worldModel.getWorldSizeZ() * ChunkModel.SIZE / 2;
+            geometry.setLocalTranslation(rx * regionSize * ChunkModel.SIZE - offsetX,
+                                         ry * regionSize * ChunkModel.SIZE,
+                                         rz * regionSize * ChunkModel.SIZE - offsetZ);
+            if (!isRegionVisible(rx, ry, rz, transparent ? Direction.ALL_MASK : 1 << dir.ordinal())) {
+                geometry.setCullHint(Spatial.CullHint.Always);
+            }
+            parentNode.attachChild(geometry);
+        }
+        // Buffers réécrits sur place quand leur capacité suffit, puis boîte englobante rafraîchie
+        Mesh mesh = geometry.getMesh();
+        merged.updateMesh(mesh, bufferPool);
+        geometry.setMesh(mesh);
+        return geometry;
+    }
+
+    /**
+     * Masque les régions dont aucun chunk n'est atteint par le culling de connectivité.
+     *
+     * @param reached Chunks potentiellement visibles, ou null pour tout afficher
+     */
+    public void setVisibility(boolean[][][] reached) {
+        this.reached = reached;
+        updateCullHints();
+    }
+
+    /**
+     * Masque les géométries opaques des directions de faces qui ne peuvent pas être tournées vers la caméra.
+     *
+     * @param cameraChunk Chunk de la caméra (x, y, z), ou null pour afficher toutes les directions
+     */
+    public void setCameraChunk(int[] cameraChunk) {
+        this.cameraChunk = cameraChunk != null ? cameraChunk.clone() : null;
+        updateCullHints();
+    }
+
+    /**
+     * Applique aux géométries des régions la visibilité par connectivité et le masquage des directions.
+     */
+    private void updateCullHints() {
+        for (int rx = 0; rx < regionsX; rx++) {
+            for (int ry = 0; ry < regionsY; ry++) {
+                for (int rz = 0; rz < regionsZ; rz++) {
+                    int mask = visibleDirections(rx, ry, rz);
+                    Geometry[] directionGeometries = opaqueGeometries[rx][ry][rz];
+                    for (int d = 0; d < directionGeometries.length; d++) {
+                        if (directionGeometries[d] != null) {
+                            directionGeometries[d].setCullHint((mask & (1 << d)) != 0 ? Spatial.CullHint.Inherit : Spatial.CullHint.Always);
+                        }
+                    }
+                    if (transparentGeometries[rx][ry][rz] != null) {
+                        transparentGeometries[rx][ry][rz].setCullHint(mask != 0 ? Spatial.CullHint.Inherit : Spatial.CullHint.Always);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Indique si une géométrie d'une région doit être affichée.
+     *
+     * @param directions Directions des faces de la géométrie (bit 1 << ordinal)
+     */
+    private boolean isRegionVisible(int rx, int ry, int rz, int directions) {
+        return (visibleDirections(rx, ry, rz) & directions) != 0;
+    }
+
+    /**
+     * Calcule les directions de faces affichées pour une région : aucune si aucun de ses chunks n'est atteint,
+     * sinon celles qui peuvent être tournées vers la caméra.
+     *
+     * @return Le masque des directions affichées (bit 1 << ordinal)
+     */
+    private int visibleDirections(int rx, int ry, int rz) {
+        if (reached != null && !isAnyChunkReached(rx, ry, rz, reached)) {
+            return 0;
+        }
+        if (cameraChunk == null) {
+            return Direction.ALL_MASK;
+        }
+        int maxX = Math.min((rx + 1) * regionSize, worldModel.getWorldSizeX()) - 1;
+        int maxY = Math.min((ry + 1) * regionSize, worldModel.getWorldSizeY()) - 1;
+        int maxZ = Math.min((rz + 1) * regionSize, worldModel.getWorldSizeZ()) - 1;
+        return Direction.facingMask(cameraChunk[0], cameraChunk[1], cameraChunk[2],
+                                    rx * regionSize, ry * regionSize, rz * regionSize, maxX, maxY, maxZ);
+    }
+
+    /**
+     * Rend les buffers des maillages de toutes les régions à la réserve.
+     * À appeler lorsque le monde n'est plus affiché.
+     */
+    public void releaseBuffers() {
+        completedMerges.clear();
+        for (int rx = 0; rx < regionsX; rx++) {
+            for (int ry = 0; ry < regionsY; ry++) {
+                for (int rz = 0; rz < regionsZ; rz++) {
+                    for (Geometry geometry : opaqueGeometries[rx][ry][rz]) {
+                        if (geometry != null) {
+                            MeshData.releaseBuffers(geometry.getMesh(), bufferPool);
+                        }
+                    }
+                    if (transparentGeometries[rx][ry][rz] != null) {
+                        MeshData.releaseBuffers(transparentGeometries[rx][ry][rz].getMesh(), bufferPool);
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean isAnyChunkReached(int rx, int ry, int rz, boolean[][][] reached) {
+        for (int cx = rx * regionSize; cx < Math.min((rx + 1) * regionSize, worldModel.getWorldSizeX()); cx++) {
+            for (int cy = ry * regionSize; cy < Math.min((ry + 1) * regionSize, worldModel.getWorldSizeY()); cy++) {
+                for (int cz = rz * regionSize; cz < Math.min((rz + 1) * regionSize, worldModel.getWorldSizeZ()); cz++) {
+                    if (reached[cx][cy][cz]) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Regroupement d'une région calculé par un thread de travail, en attente d'envoi au GPU.
+     */
+    private static final class MergedRegion {
+        final int rx;
+        final int ry;
+        final int rz;
+        final int version;
+
+        /** Faces opaques par direction (null si la région n'a pas de telles faces) */
+        final MeshData[] opaque;
+
+        /** Faces transparentes (null si la région n'en a pas) */
+        final MeshData transparent;
+
+        MergedRegion(int rx, int ry, int rz, int version, MeshData[] opaque, MeshData transparent) {
+            this.rx = rx;
+            this.ry = ry;
+            this.rz = rz;
+            this.version = version;
+            this.opaque = opaque;
+            this.transparent = transparent;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package voxel.view;
+
+import com.jme3.math.ColorRGBA;
+
+import voxel.model.BlockType;
+import voxel.utils.Direction;
+
+/**
+ * Table des couleurs de sommets des chunks, précalculée pour un mode d'éclairage.
+ * Pour chaque type de bloc, direction de face, niveau de lumière (0-15) et niveau d'AO (0-3),
+ * elle contient la couleur finale du sommet compactée en RGBA 8 bits (0xRRGGBBAA) :
+ * le mailleur obtient la couleur d'un sommet par une seule lecture de tableau, sans calcul ni allocation.
+ * La table est immuable : elle peut être lue par plusieurs threads de maillage.
+ */
+public final class VertexColorTable {
+    private static final int DIRECTIONS = Direction.values().length;
+    private static final int LIGHT_LEVELS = 16;
+    private static final int AO_LEVELS = 4;
+
+    /** Plus petit identifiant de bloc (index 0 de la table) */
+    private final int minBlockId;
+
+    /** Mode d'éclairage pour lequel la table a été calculée */
+    private final boolean lightning;
+
+    /** Couleurs compactées, indexées par ((bloc * DIRECTIONS + direction) * LIGHT_LEVELS + lumière) * AO_LEVELS + ao */
+    private final int[] colors;
+
+    /** Empreinte des couleurs de la table, pour reconnaître un maillage calculé avec la même palette */
+    private final long contentHash;
+
+    /**
+     * Calcule la table pour la palette des blocs et un mode d'éclairage.
+     *
+     * @param lightning true si l'AO et la lumière modulent les couleurs
+     */
+    public VertexColorTable(boolean lightning) {
+        this.lightning = lightning;
+        int minId = Integer.MAX_VALUE;
+        int maxId = Integer.MIN_VALUE;
+        for (BlockType type : BlockType.values()) {
+            minId = Math.min(minId, type.getId());
+            maxId = Math.max(maxId, type.getId());
+        }
+        this.minBlockId = minId;
+        this.colors = new int[(maxId - minId + 1) * DIRECTIONS * LIGHT_LEVELS * AO_LEVELS];
+
+        for (int blockId = minId; blockId <= maxId; blockId++) {
+            ColorRGBA color = BlockType.fromId(blockId).getColor();
+            for (Direction dir : Direction.values()) {
+                for (int light = 0; light < LIGHT_LEVELS; light++) {
+                    for (int ao = 0; ao < AO_LEVELS; ao++) {
+                        float factor = Face.vertexBrightness(dir, ao, light, lightning);
+                        colors[index(blockId, dir, light, ao)] =
+                                pack(color.r * factor, color.g * factor, color.b * factor, color.a);
+                    }
+                }
+            }
+        }
+
+        long hash = minId;
+        for (int color : colors) {
+            hash = hash * 31 + color;
+        }
+        this.contentHash = hash;
+    }
+
+    /**
+     * @return true si la table a été calculée avec l'éclairage actif
+     */
+    public boolean isLightning() {
+        return lightning;
+    }
+
+    /**
+     * @return L'empreinte des couleurs de la table (change si la palette des blocs ou l'éclairage change)
+     */
+    public long getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * Récupère la couleur d'un sommet.
+     *
+     * @param blockId Identifiant du bloc
+     * @param dir Direction de la face
+     * @param light Niveau de lumière devant la face (0-15)
+     * @param ao Niveau d'AO du sommet (0-3)
+     * @return La couleur compactée (0xRRGGBBAA)
+     */
+    public int get(int blockId, Direction dir, int light, int ao) {
+        return colors[index(blockId, dir, light, ao)];
+    }
+
+    private int index(int blockId, Direction dir, int light, int ao) {
+        return (((blockId - minBlockId) * DIRECTIONS + dir.ordinal()) * LIGHT_LEVELS + light) * AO_LEVELS + ao;
+    }
+
+    /**
+     * Compacte une couleur flottante en RGBA 8 bits.
+     *
+     * @return La couleur compactée (0xRRGGBBAA), composantes limitées à [0, 1]
+     */
+    public static int pack(float r, float g, float b, float a) {
+        return (toByte(r) << 24) | (toByte(g) << 16) | (toByte(b) << 8) | toByte(a);
+    }
+
+    private static int toByte(float value) {
+        return Math.round(Math.max(0f, Math.min(1f, value)) * 255f);
+    }
+}
@@ -18,6 +18,15 @@ import com.jme3.renderer.ViewPort;
 import com.jme3.post.FilterPostProcessor;
 import com.jme3.post.filters.BloomFilter;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
 import voxel.controller.GameController;
 import voxel.controller.PlayerController;
 import voxel.model.WorldModel;
@@ -26,6 +35,8 @@ import voxel.view.entity.EntityRendererManager;
 import voxel.model.BiomeType;
 import voxel.model.BlockType;
 import voxel.controller.GameStateManager;
+import voxel.utils.Direction;
+import voxel.utils.FrameScheduler;
 
 /**
  * Classe responsable du rendu du monde entier.
@@ -47,9 +58,102 @@ public class WorldRenderer {
     /** Nœud racine contenant tous les chunks du monde */
     private Node worldNode;
     
-    /** Tableau des renderers pour chaque chunk */
+    /** Tableau des renderers pour chaque chunk (vide si les maillages sont regroupés par région) */
     private ChunkRenderer[][][] chunkRenderers;
 
+    /** Tâches du thread de rendu (envois au GPU, créations de géométries...) limitées à un budget par frame */
+    private final FrameScheduler frameScheduler = new FrameScheduler();
+
+    /** Calcul des maillages (exécuté sur les threads de travail) */
+    private final ChunkMesher chunkMesher;
+
+    /** Threads de travail dédiés au maillage des chunks */
+    private final ExecutorService meshExecutor;
+
+    /** Maillages terminés en attente d'envoi au GPU par le thread de rendu */
+    private final Queue<ChunkMeshData> completedMeshes = new ConcurrentLinkedQueue<>();
+
+    /** Demandes de maillage qui ont échoué sur un thread de travail (x, y, z, version) */
+    private final Queue<int[]> failedMeshes = new ConcurrentLinkedQueue<>();
+
+    /** Nombre de nouvelles tentatives après l'échec du maillage d'un chunk, avant d'abandonner */
+    private static final int MAX_MESH_RETRIES = 2;
+
+    /** Dernière version demandée pour chaque chunk (les résultats plus anciens sont ignorés) */
+    private int[][][] requestedVersions;
+
+    /** Dernière version terminée pour chaque chunk, maillage reçu ou abandonné après échec */
+    private int[][][] completedVersions;
+
+    /** Nombre d'échecs successifs du maillage de chaque chunk */
+    private int[][][] meshFailures;
+
+    /** Dernier maillage appliqué pour chaque chunk (base des remaillages partiels) */
+    private ChunkMeshData[][][] appliedMeshes;
+
+    /** Facteurs de réduction des niveaux de détail (niveau 0 = maillage complet) */
+    private static final int[] LOD_SCALES = {1, 2, 4, 8};
+
+    /** Distance (en blocs) au-delà de laquelle chaque niveau passe au suivant */
+    private static final float[] LOD_DISTANCES = {96f, 192f, 384f};
+
+    /** Marge (en blocs) autour des distances de changement, pour éviter les allers-retours */
+    private static final float LOD_HYSTERESIS = 16f;
+
+    /** Intervalle (en secondes) entre deux évaluations des niveaux de détail */
+    private static final float LOD_UPDATE_INTERVAL = 0.25f;
+
+    /** Niveau de détail courant de chaque chunk (indice dans LOD_SCALES) */
+    private int[][][] lodLevels;
+
+    /** Temps écoulé depuis la dernière évaluation des niveaux de détail */
+    private float lodTimer = 0f;
+
+    /** Culling des chunks invisibles par parcours du graphe de connectivité */
+    private boolean occlusionCullingEnabled = true;
+
+    /** Indique que la visibilité des chunks doit être recalculée (nouveau maillage reçu) */
+    private boolean visibilityDirty = true;
+
+    /** Chunk de la caméra lors du dernier calcul de visibilité (x, y, z) */
+    private final int[] lastCameraChunk = {Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE};
+
+    /** Masquage des groupes de faces opaques tournés à l'opposé de la caméra */
+    private boolean faceCullingEnabled = true;
+
+    /** Indique que les directions visibles doivent être recalculées (option modifiée) */
+    private boolean faceCullingDirty = true;
+
+    /** Chunk de la caméra lors du dernier calcul des directions visibles (x, y, z) */
+    private final int[] lastFaceCullingChunk = {Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE};
+
+    /** Matériaux partagés par les chunks et les entités */
+    private final MaterialRegistry materialRegistry;
+
+    /** Taille maximale (en octets) des buffers directs libres conservés pour les prochains maillages */
+    private static final long MAX_POOLED_BUFFER_BYTES = 64L * 1024 * 1024;
+
+    /** Réserve des buffers directs des maillages (réutilisés d'un remaillage à l'autre) */
+    private final DirectBufferPool bufferPool = new DirectBufferPool(MAX_POOLED_BUFFER_BYTES);
+
+    /** Côté (en chunks) des régions dont les maillages sont regroupés */
+    private static final int REGION_SIZE = 4;
+
+    /** Regroupement des maillages par région (pour les mondes créés ensuite) */
+    private static boolean regionBatchingEnabled = true;
+
+    /** Répertoire du cache disque des maillages de chunks */
+    private static final Path MESH_CACHE_DIRECTORY = Paths.get("cache", "meshes");
+
+    /** Taille maximale du cache disque des maillages, en octets */
+    private static final long MESH_CACHE_MAX_BYTES = 256L * 1024 * 1024;
+
+    /** Cache disque des maillages (pour les mondes créés ensuite) */
+    private static boolean meshCacheEnabled = true;
+
+    /** Regroupement des maillages par région (null si désactivé pour ce monde) */
+    private RegionBatcher regionBatcher;
+
     private EntityRendererManager entityRendererManager;
 
     /** Caméra pour obtenir la position du joueur */
@@ -89,13 +193,28 @@ public class WorldRenderer {
         this.assetManager = assetManager;
         this.worldNode = new Node("world");
         this.skyNode = new Node("sky");
+        this.chunkMesher = new ChunkMesher(worldModel);
+        int meshThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 2);
+        this.meshExecutor = Executors.newFixedThreadPool(meshThreads, runnable -> {
+            Thread thread = new Thread(runnable, "chunk-mesher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (meshCacheEnabled) {
+            try {
+                chunkMesher.setMeshCache(new ChunkMeshCache(MESH_CACHE_DIRECTORY, MESH_CACHE_MAX_BYTES));
+            } catch (IOException e) {
+                System.err.println("Cache de maillages désactivé : " + e.getMessage());
+            }
+        }
+        this.materialRegistry = new MaterialRegistry(assetManager, worldModel.getWireframeMode());
         initializeChunkRenderers();
         initSkyColors();
         initSun(assetManager);
         this.startTime = System.currentTimeMillis() - 30_000; // Décale de 30 secondes en arrière
         this.virtualTime = (48f * 60f) / 64f; // démarrage à 48 steps
 
-        this.entityRendererManager = new EntityRendererManager(this.worldModel.getEntityManager(), assetManager);
+        this.entityRendererManager = new EntityRendererManager(this.worldModel.getEntityManager(), assetManager, materialRegistry, frameScheduler);
         worldNode.attachChild(entityRendererManager.getNode());
     }
 
@@ -123,14 +242,16 @@ public class WorldRenderer {
     /**
      * Récupère le tableau des renderers de chunks.
      * 
-     * @return Tableau 3D contenant tous les renderers de chunks
+     * @return Tableau 3D contenant tous les renderers de chunks (sans renderer si les maillages sont regroupés par région)
      */
     public ChunkRenderer[][][] getChunkRenderers() {
         return chunkRenderers;
     }
 
     /**
-     * Initialise tous les renderers de chunks.
+     * Initialise tous les renderers de chunks et demande leurs premiers maillages.
+     * Avec le regroupement par région, seules les géométries des régions existent dans la scène :
+     * aucun renderer n'est créé par chunk.
      */
     private void initializeChunkRenderers() {
         int sizeX = worldModel.getWorldSizeX();
@@ -138,17 +259,39 @@ public class WorldRenderer {
         int sizeZ = worldModel.getWorldSizeZ();
         
         chunkRenderers = new ChunkRenderer[sizeX][sizeY][sizeZ];
+        requestedVersions = new int[sizeX][sizeY][sizeZ];
+        completedVersions = new int[sizeX][sizeY][sizeZ];
+        meshFailures = new int[sizeX][sizeY][sizeZ];
+        appliedMeshes = new ChunkMeshData[sizeX][sizeY][sizeZ];
+        lodLevels = new int[sizeX][sizeY][sizeZ];
+        if (regionBatchingEnabled) {
+            regionBatcher = new RegionBatcher(worldModel, materialRegistry, bufferPool, frameScheduler, meshExecutor,
+                                              worldNode, REGION_SIZE, appliedMeshes, requestedVersions,
+                                              completedVersions);
+        }
         
         // Création des renderers pour tous les chunks
         for (int cx = 0; cx < sizeX; cx++) {
             for (int cy = 0; cy < sizeY; cy++) {
                 for (int cz = 0; cz < sizeZ; cz++) {
-                    createChunkRenderer(cx, cy, cz);
+                    if (regionBatcher == null) {
+                        createChunkRenderer(cx, cy, cz);
+                    } else if (hasChunk(cx, cy, cz)) {
+                        // Maillage du chargement initial : le seul à être enregistré dans le cache disque
+                        requestChunkMesh(cx, cy, cz, true);
+                    }
                 }
             }
         }
     }
 
+    /**
+     * Indique si un chunk existe dans le monde, et donc s'il est maillé.
+     */
+    private boolean hasChunk(int chunkX, int chunkY, int chunkZ) {
+        return worldModel.getChunk(chunkX, chunkY, chunkZ) != null;
+    }
+
     /**
      * Crée un renderer pour un chunk spécifique.
      * 
@@ -163,96 +306,527 @@ public class WorldRenderer {
             ChunkRenderer renderer = new ChunkRenderer(
                 worldModel.getChunk(chunkX, chunkY, chunkZ),
                 worldModel,
-                assetManager,
+                materialRegistry,
+                bufferPool,
                 chunkX, chunkY, chunkZ
             );
             
             // Stocker le renderer
             chunkRenderers[chunkX][chunkY][chunkZ] = renderer;
             
-            // Attacher la géométrie opaque au nœud monde
-            worldNode.attachChild(renderer.getGeometry());
+            // Les géométries sont attachées au nœud monde à la réception d'un maillage non vide.
+            // Maillage du chargement initial : le seul à être enregistré dans le cache disque
+            requestChunkMesh(chunkX, chunkY, chunkZ, true);
+        }
+    }
+
+    /**
+     * Demande le calcul du maillage d'un chunk sur un thread de travail.
+     * Le résultat sera appliqué par {@link #update(float, ViewPort)} ; une demande plus récente
+     * pour le même chunk rend la précédente obsolète.
+     *
+     * @param chunkX Position X du chunk
+     * @param chunkY Position Y du chunk
+     * @param chunkZ Position Z du chunk
+     */
+    private void requestChunkMesh(int chunkX, int chunkY, int chunkZ) {
+        requestChunkMesh(chunkX, chunkY, chunkZ, false);
+    }
+
+    /**
+     * Demande le calcul du maillage d'un chunk sur un thread de travail.
+     *
+     * @param storeInCache true pour enregistrer le maillage dans le cache disque (chargement initial uniquement)
+     */
+    private void requestChunkMesh(int chunkX, int chunkY, int chunkZ, boolean storeInCache) {
+        int version = ++requestedVersions[chunkX][chunkY][chunkZ];
+        int lodScale = LOD_SCALES[lodLevels[chunkX][chunkY][chunkZ]];
+        submitMeshTask(chunkX, chunkY, chunkZ, version,
+                       () -> chunkMesher.mesh(chunkX, chunkY, chunkZ, version, lodScale, storeInCache));
+    }
+
+    /**
+     * Réévalue le niveau de détail de chaque chunk selon sa distance à la caméra
+     * et redemande le maillage des chunks qui changent de niveau.
+     */
+    private void updateLevelsOfDetail() {
+        if (camera == null) {
+            return;
+        }
+        Vector3f location = camera.getLocation();
+        int offsetX = worldModel.getWorldSizeX() * ChunkModel.SIZE / 2;
+        int offsetZ = worldModel.getWorldSizeZ() * ChunkModel.SIZE / 2;
+        float half = ChunkModel.SIZE / 2f;
+
+        for (int cx = 0; cx < worldModel.getWorldSizeX(); cx++) {
+            for (int cy = 0; cy < worldModel.getWorldSizeY(); cy++) {
+                for (int cz = 0; cz < worldModel.getWorldSizeZ(); cz++) {
+                    if (!hasChunk(cx, cy, cz)) {
+                        continue;
+                    }
+                    // Distance entre la caméra et le centre du chunk
+                    float dx = cx * ChunkModel.SIZE - offsetX + half - location.x;
+                    float dy = cy * ChunkModel.SIZE + half - location.y;
+                    float dz = cz * ChunkModel.SIZE - offsetZ + half - location.z;
+                    float distance = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+
+                    int current = lodLevels[cx][cy][cz];
+                    int level = selectLodLevel(current, distance);
+                    if (level != current) {
+                        lodLevels[cx][cy][cz] = level;
+                        requestChunkMesh(cx, cy, cz);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Choisit le niveau de détail d'un chunk avec hystérésis : on ne passe à un niveau plus grossier
+     * qu'une marge au-delà de la distance limite, et à un niveau plus fin qu'une marge en deçà.
+     *
+     * @param current Niveau actuel
+     * @param distance Distance entre la caméra et le centre du chunk
+     * @return Le nouveau niveau
+     */
+    private static int selectLodLevel(int current, float distance) {
+        int level = current;
+        while (level < LOD_SCALES.length - 1 && distance > LOD_DISTANCES[level] + LOD_HYSTERESIS) {
+            level++;
+        }
+        while (level > 0 && distance < LOD_DISTANCES[level - 1] - LOD_HYSTERESIS) {
+            level--;
+        }
+        return level;
+    }
+
+    /**
+     * Soumet un calcul de maillage aux threads de travail.
+     *
+     * @param version Version de la demande (le calcul est abandonné si une demande plus récente existe)
+     * @param task Calcul produisant le maillage du chunk
+     */
+    private void submitMeshTask(int chunkX, int chunkY, int chunkZ, int version, Supplier<ChunkMeshData> task) {
+        meshExecutor.submit(() -> {
+            // Inutile de mailler si une demande plus récente a déjà été faite
+            if (requestedVersions[chunkX][chunkY][chunkZ] != version) {
+                return;
+            }
+            try {
+                completedMeshes.add(task.get());
+            } catch (RuntimeException e) {
+                System.err.println("Erreur lors du maillage du chunk " + chunkX + "," + chunkY + "," + chunkZ + " : " + e.getMessage());
+                failedMeshes.add(new int[] {chunkX, chunkY, chunkZ, version});
+            }
+        });
+    }
 
-            // Attacher la géométrie transparente si elle existe
-            if (renderer.getTransparentGeometry() != null) {
-                worldNode.attachChild(renderer.getTransparentGeometry());
+    /**
+     * Récupère les maillages terminés par les threads de travail (thread de rendu uniquement).
+     * Leur envoi au GPU est confié à l'ordonnanceur de frame : les chunks proches de la caméra passent
+     * en premier et ce qui dépasse le budget de la frame est reporté à la suivante.
+     */
+    private void applyCompletedMeshes() {
+        applyFailedMeshes();
+
+        ChunkMeshData meshData;
+        while ((meshData = completedMeshes.poll()) != null) {
+            int cx = meshData.getChunkX();
+            int cy = meshData.getChunkY();
+            int cz = meshData.getChunkZ();
+
+            // Résultat obsolète : un maillage plus récent a été demandé entre-temps
+            if (!hasChunk(cx, cy, cz) || requestedVersions[cx][cy][cz] != meshData.getVersion()) {
+                continue;
+            }
+            completedVersions[cx][cy][cz] = meshData.getVersion();
+            meshFailures[cx][cy][cz] = 0;
+
+            // Regroupement par région : la géométrie de la région sera reconstruite par l'ordonnanceur
+            if (regionBatcher != null) {
+                if (appliedMeshes[cx][cy][cz] == null
+                        || appliedMeshes[cx][cy][cz].getConnectivity() != meshData.getConnectivity()) {
+                    visibilityDirty = true;
+                }
+                appliedMeshes[cx][cy][cz] = meshData;
+                regionBatcher.markDirty(cx, cy, cz);
+                continue;
             }
+
+            ChunkMeshData completed = meshData;
+            int offsetX = worldModel.getWorldSizeX() * ChunkModel.SIZE / 2;
+            int offsetZ = worldModel.getWorldSizeZ() * ChunkModel.SIZE / 2;
+            float half = ChunkModel.SIZE / 2f;
+            frameScheduler.submit(cx * ChunkModel.SIZE - offsetX + half,
+                                  cy * ChunkModel.SIZE + half,
+                                  cz * ChunkModel.SIZE - offsetZ + half,
+                                  () -> applyChunkMesh(completed));
         }
     }
 
     /**
-     * Met à jour tous les maillages des chunks.
-     * À appeler quand le mode d'éclairage ou le wireframe change.
+     * Traite les demandes de maillage qui ont échoué (thread de rendu uniquement) : le chunk est remaillé
+     * au plus {@link #MAX_MESH_RETRIES} fois, puis la demande est considérée comme terminée et le chunk
+     * garde son maillage précédent, pour que sa région ne reste pas en attente indéfiniment.
      */
-    public void updateAllMeshes() {
+    private void applyFailedMeshes() {
+        int[] failure;
+        while ((failure = failedMeshes.poll()) != null) {
+            int cx = failure[0];
+            int cy = failure[1];
+            int cz = failure[2];
+            int version = failure[3];
+            if (requestedVersions[cx][cy][cz] != version) {
+                continue;
+            }
+            if (meshFailures[cx][cy][cz] < MAX_MESH_RETRIES) {
+                meshFailures[cx][cy][cz]++;
+                requestChunkMesh(cx, cy, cz);
+                continue;
+            }
+            System.err.println("Maillage du chunk " + cx + "," + cy + "," + cz + " abandonné après "
+                    + (MAX_MESH_RETRIES + 1) + " échecs");
+            meshFailures[cx][cy][cz] = 0;
+            completedVersions[cx][cy][cz] = version;
+            if (regionBatcher != null) {
+                regionBatcher.markDirty(cx, cy, cz);
+            }
+        }
+    }
+
+    /**
+     * Envoie le maillage d'un chunk au GPU et met à jour ses géométries dans la scène.
+     *
+     * @param meshData Le maillage terminé
+     */
+    private void applyChunkMesh(ChunkMeshData meshData) {
+        int cx = meshData.getChunkX();
+        int cy = meshData.getChunkY();
+        int cz = meshData.getChunkZ();
+        ChunkRenderer renderer = chunkRenderers[cx][cy][cz];
+
+        // Un maillage plus récent a pu être demandé pendant l'attente
+        if (requestedVersions[cx][cy][cz] != meshData.getVersion()) {
+            return;
+        }
+
+        if (appliedMeshes[cx][cy][cz] == null
+                || appliedMeshes[cx][cy][cz].getConnectivity() != meshData.getConnectivity()) {
+            visibilityDirty = true;
+        }
+
+        // Conserver la référence à l'ancienne géométrie transparente
+        Geometry oldTransparentGeometry = renderer.getTransparentGeometry();
+
+        // Mettre à jour le mesh
+        renderer.applyMeshData(meshData);
+        appliedMeshes[cx][cy][cz] = meshData;
+
+        // La géométrie opaque n'est dans la scène que si le chunk a des faces opaques
+        boolean hasOpaqueFaces = !meshData.getOpaque().isEmpty();
+        if (hasOpaqueFaces && renderer.getOpaqueNode().getParent() == null) {
+            worldNode.attachChild(renderer.getOpaqueNode());
+        } else if (!hasOpaqueFaces && renderer.getOpaqueNode().getParent() != null) {
+            worldNode.detachChild(renderer.getOpaqueNode());
+        }
+
+        // Gérer la nouvelle géométrie transparente
+        Geometry newTransparentGeometry = renderer.getTransparentGeometry();
+
+        // Si une nouvelle géométrie transparente a été créée
+        if (oldTransparentGeometry == null && newTransparentGeometry != null) {
+            worldNode.attachChild(newTransparentGeometry);
+        }
+        // Si la géométrie transparente a été supprimée
+        else if (oldTransparentGeometry != null && newTransparentGeometry == null) {
+            worldNode.detachChild(oldTransparentGeometry);
+        }
+    }
+
+    /**
+     * Masque les chunks qu'aucun chemin de blocs non opaques ne relie au chunk de la caméra.
+     * Parcours en largeur depuis le chunk de la caméra : on passe d'un chunk à son voisin par la face d,
+     * si la face d'entrée et la face d sont reliées dans le chunk courant, et sans jamais repartir
+     * dans le sens opposé à une direction déjà prise (le chemin s'éloigne toujours de la caméra).
+     * Le calcul n'est refait que si la caméra change de chunk ou si une connectivité a changé.
+     */
+    private void updateOcclusionCulling() {
+        if (camera == null) {
+            return;
+        }
         int sizeX = worldModel.getWorldSizeX();
         int sizeY = worldModel.getWorldSizeY();
         int sizeZ = worldModel.getWorldSizeZ();
-        
+        Vector3f location = camera.getLocation();
+        int startX = Math.floorDiv((int) Math.floor(location.x) + sizeX * ChunkModel.SIZE / 2, ChunkModel.SIZE);
+        int startY = Math.floorDiv((int) Math.floor(location.y), ChunkModel.SIZE);
+        int startZ = Math.floorDiv((int) Math.floor(location.z) + sizeZ * ChunkModel.SIZE / 2, ChunkModel.SIZE);
+
+        if (!visibilityDirty && startX == lastCameraChunk[0] && startY == lastCameraChunk[1] && startZ == lastCameraChunk[2]) {
+            return;
+        }
+        visibilityDirty = false;
+        lastCameraChunk[0] = startX;
+        lastCameraChunk[1] = startY;
+        lastCameraChunk[2] = startZ;
+
+        // Caméra hors du monde ou culling désactivé : tout est potentiellement visible
+        boolean inside = startX >= 0 && startX < sizeX && startY >= 0 && startY < sizeY && startZ >= 0 && startZ < sizeZ;
+        if (!occlusionCullingEnabled || !inside) {
+            setAllChunksVisible(true);
+            return;
+        }
+
+        boolean[][][] reached = new boolean[sizeX][sizeY][sizeZ];
+        Direction[] directions = Direction.values();
+
+        // File : coordonnées du chunk, face d'entrée (-1 pour le départ), directions déjà prises
+        int[] queue = new int[sizeX * sizeY * sizeZ * 5];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = startX; queue[tail++] = startY; queue[tail++] = startZ; queue[tail++] = -1; queue[tail++] = 0;
+        reached[startX][startY][startZ] = true;
+
+        while (head < tail) {
+            int cx = queue[head++];
+            int cy = queue[head++];
+            int cz = queue[head++];
+            int entry = queue[head++];
+            int taken = queue[head++];
+            ChunkMeshData meshData = appliedMeshes[cx][cy][cz];
+            long connectivity = meshData != null ? meshData.getConnectivity() : ChunkConnectivity.ALL_CONNECTED;
+
+            for (Direction dir : directions) {
+                // Ne jamais revenir vers la caméra
+                if ((taken & (1 << dir.getOpposite().ordinal())) != 0) {
+                    continue;
+                }
+                if (entry >= 0 && !ChunkConnectivity.isConnected(connectivity, directions[entry], dir)) {
+                    continue;
+                }
+                int nx = cx + dir.getOffsetX();
+                int ny = cy + dir.getOffsetY();
+                int nz = cz + dir.getOffsetZ();
+                if (nx < 0 || nx >= sizeX || ny < 0 || ny >= sizeY || nz < 0 || nz >= sizeZ || reached[nx][ny][nz]) {
+                    continue;
+                }
+                reached[nx][ny][nz] = true;
+                queue[tail++] = nx; queue[tail++] = ny; queue[tail++] = nz;
+                queue[tail++] = dir.getOpposite().ordinal();
+                queue[tail++] = taken | (1 << dir.ordinal());
+            }
+        }
+
+        if (regionBatcher != null) {
+            regionBatcher.setVisibility(reached);
+            return;
+        }
         for (int cx = 0; cx < sizeX; cx++) {
             for (int cy = 0; cy < sizeY; cy++) {
                 for (int cz = 0; cz < sizeZ; cz++) {
                     if (chunkRenderers[cx][cy][cz] != null) {
-                        ChunkRenderer renderer = chunkRenderers[cx][cy][cz];
-
-                        // Conserver la référence à l'ancienne géométrie transparente
-                        Geometry oldTransparentGeometry = renderer.getTransparentGeometry();
-
-                        // Mettre à jour le mesh
-                        renderer.updateMesh();
+                        chunkRenderers[cx][cy][cz].setVisible(reached[cx][cy][cz]);
+                    }
+                }
+            }
+        }
+    }
 
-                        // Gérer la nouvelle géométrie transparente
-                        Geometry newTransparentGeometry = renderer.getTransparentGeometry();
+    /**
+     * Masque, pour chaque chunk (ou région), les géométries des directions de faces qui ne peuvent pas être
+     * tournées vers la caméra : les faces POS_X d'un chunk sont invisibles depuis un chunk situé à sa gauche, etc.
+     * Les directions visibles ne dépendent que du chunk de la caméra : le calcul n'est refait que s'il change.
+     */
+    private void updateFaceCulling() {
+        if (camera == null) {
+            return;
+        }
+        Vector3f location = camera.getLocation();
+        int cameraX = Math.floorDiv((int) Math.floor(location.x) + worldModel.getWorldSizeX() * ChunkModel.SIZE / 2, ChunkModel.SIZE);
+        int cameraY = Math.floorDiv((int) Math.floor(location.y), ChunkModel.SIZE);
+        int cameraZ = Math.floorDiv((int) Math.floor(location.z) + worldModel.getWorldSizeZ() * ChunkModel.SIZE / 2, ChunkModel.SIZE);
+
+        if (!faceCullingDirty && cameraX == lastFaceCullingChunk[0] && cameraY == lastFaceCullingChunk[1]
+                && cameraZ == lastFaceCullingChunk[2]) {
+            return;
+        }
+        faceCullingDirty = false;
+        lastFaceCullingChunk[0] = cameraX;
+        lastFaceCullingChunk[1] = cameraY;
+        lastFaceCullingChunk[2] = cameraZ;
+
+        if (regionBatcher != null) {
+            regionBatcher.setCameraChunk(faceCullingEnabled ? lastFaceCullingChunk : null);
+            return;
+        }
+        for (int cx = 0; cx < worldModel.getWorldSizeX(); cx++) {
+            for (int cy = 0; cy < worldModel.getWorldSizeY(); cy++) {
+                for (int cz = 0; cz < worldModel.getWorldSizeZ(); cz++) {
+                    if (chunkRenderers[cx][cy][cz] != null) {
+                        int mask = faceCullingEnabled
+                                ? Direction.facingMask(cameraX, cameraY, cameraZ, cx, cy, cz, cx, cy, cz)
+                                : Direction.ALL_MASK;
+                        chunkRenderers[cx][cy][cz].setVisibleDirections(mask);
+                    }
+                }
+            }
+        }
+    }
 
-                        // Si une nouvelle géométrie transparente a été créée
-                        if (oldTransparentGeometry == null && newTransparentGeometry != null) {
-                            worldNode.attachChild(newTransparentGeometry);
-                        }
-                        // Si la géométrie transparente a été supprimée
-                        else if (oldTransparentGeometry != null && newTransparentGeometry == null) {
-                            worldNode.detachChild(oldTransparentGeometry);
-                        }
+    /**
+     * Rend visibles (ou masque) tous les chunks.
+     */
+    private void setAllChunksVisible(boolean visible) {
+        if (regionBatcher != null) {
+            regionBatcher.setVisibility(visible ? null : new boolean[worldModel.getWorldSizeX()][worldModel.getWorldSizeY()][worldModel.getWorldSizeZ()]);
+            return;
+        }
+        for (int cx = 0; cx < worldModel.getWorldSizeX(); cx++) {
+            for (int cy = 0; cy < worldModel.getWorldSizeY(); cy++) {
+                for (int cz = 0; cz < worldModel.getWorldSizeZ(); cz++) {
+                    if (chunkRenderers[cx][cy][cz] != null) {
+                        chunkRenderers[cx][cy][cz].setVisible(visible);
                     }
                 }
             }
         }
-        
-        needsMeshUpdate = false;
     }
 
     /**
-     * Applique l'état actuel du mode filaire (défini dans WorldModel) 
-     * aux matériaux de tous les chunks sans reconstruire les maillages.
+     * Active ou désactive le culling des chunks par connectivité.
+     *
+     * @param enabled true pour masquer les chunks non reliés à la caméra
      */
-    public void applyWireframeModeToMaterials() {
-        boolean wireframeEnabled = worldModel.getWireframeMode();
+    public void setOcclusionCullingEnabled(boolean enabled) {
+        this.occlusionCullingEnabled = enabled;
+        this.visibilityDirty = true;
+    }
+
+    /**
+     * Active ou désactive le masquage des faces opaques tournées à l'opposé de la caméra.
+     *
+     * @param enabled true pour n'envoyer au GPU que les directions de faces potentiellement visibles
+     */
+    public void setFaceCullingEnabled(boolean enabled) {
+        this.faceCullingEnabled = enabled;
+        this.faceCullingDirty = true;
+    }
+
+    /**
+     * Active ou désactive le regroupement des maillages par région.
+     * Pris en compte pour les mondes créés après l'appel.
+     *
+     * @param enabled true pour regrouper les chunks en une géométrie par région
+     */
+    public static void setRegionBatchingEnabled(boolean enabled) {
+        regionBatchingEnabled = enabled;
+    }
+
+    /**
+     * @return true si les mondes créés regroupent leurs maillages par région
+     */
+    public static boolean isRegionBatchingEnabled() {
+        return regionBatchingEnabled;
+    }
+
+    /**
+     * Active ou désactive le cache disque des maillages de chunks.
+     * Pris en compte pour les mondes créés après l'appel.
+     *
+     * @param enabled true pour reprendre les maillages enregistrés des chunks inchangés
+     */
+    public static void setMeshCacheEnabled(boolean enabled) {
+        meshCacheEnabled = enabled;
+    }
+
+    /**
+     * @return true si les mondes créés utilisent le cache disque des maillages
+     */
+    public static boolean isMeshCacheEnabled() {
+        return meshCacheEnabled;
+    }
+
+    /**
+     * Arrête les threads de maillage et libère la mémoire native des maillages.
+     * À appeler lorsque le monde est déchargé (après l'avoir retiré de la scène).
+     */
+    public void dispose() {
+        meshExecutor.shutdownNow();
+        completedMeshes.clear();
+        failedMeshes.clear();
+        frameScheduler.clear();
+
         for (int cx = 0; cx < worldModel.getWorldSizeX(); cx++) {
             for (int cy = 0; cy < worldModel.getWorldSizeY(); cy++) {
                 for (int cz = 0; cz < worldModel.getWorldSizeZ(); cz++) {
                     if (chunkRenderers[cx][cy][cz] != null) {
-                        // Appliquer le mode filaire au maillage opaque
-                        if (chunkRenderers[cx][cy][cz].getMaterial() != null) {
-                            chunkRenderers[cx][cy][cz].getMaterial()
-                                    .getAdditionalRenderState()
-                                    .setWireframe(wireframeEnabled);
-                        }
-
-                        // Appliquer le mode filaire au maillage transparent s'il existe
-                        Geometry transparentGeometry = chunkRenderers[cx][cy][cz].getTransparentGeometry();
-                        if (transparentGeometry != null && transparentGeometry.getMaterial() != null) {
-                            transparentGeometry.getMaterial()
-                                    .getAdditionalRenderState()
-                                    .setWireframe(wireframeEnabled);
-                        }
+                        chunkRenderers[cx][cy][cz].releaseBuffers();
                     }
                 }
             }
         }
+        if (regionBatcher != null) {
+            regionBatcher.releaseBuffers();
+        }
+        bufferPool.clear();
+    }
+
+    /**
+     * @return L'ordonnanceur des tâches du thread de rendu (budget de temps par frame)
+     */
+    public FrameScheduler getFrameScheduler() {
+        return frameScheduler;
+    }
+
+    /**
+     * @return La réserve des buffers directs des maillages (statistiques d'utilisation)
+     */
+    public DirectBufferPool getBufferPool() {
+        return bufferPool;
+    }
+
+    /**
+     * @return Le cache disque des maillages (statistiques d'utilisation), ou null s'il est désactivé
+     */
+    public ChunkMeshCache getMeshCache() {
+        return chunkMesher.getMeshCache();
+    }
+
+    /**
+     * Met à jour tous les maillages des chunks.
+     * À appeler quand le mode d'éclairage ou le wireframe change.
+     */
+    public void updateAllMeshes() {
+        int sizeX = worldModel.getWorldSizeX();
+        int sizeY = worldModel.getWorldSizeY();
+        int sizeZ = worldModel.getWorldSizeZ();
+        
+        for (int cx = 0; cx < sizeX; cx++) {
+            for (int cy = 0; cy < sizeY; cy++) {
+                for (int cz = 0; cz < sizeZ; cz++) {
+                    if (hasChunk(cx, cy, cz)) {
+                        requestChunkMesh(cx, cy, cz);
+                    }
+                }
+            }
+        }
+        
+        needsMeshUpdate = false;
+    }
+
+    /**
+     * Applique l'état actuel du mode filaire (défini dans WorldModel) 
+     * aux matériaux de tous les chunks sans reconstruire les maillages.
+     * Les chunks partageant leurs matériaux, seuls deux matériaux sont modifiés.
+     */
+    public void applyWireframeModeToMaterials() {
+        materialRegistry.setWireframe(worldModel.getWireframeMode());
     }
     
     /**
      * Met à jour le maillage d'un chunk spécifique.
-     * À appeler quand un bloc est modifié.
+     * À appeler quand un bloc est modifié. Le maillage est recalculé en arrière-plan
+     * et appliqué lors d'une prochaine frame.
      * 
      * @param chunkX Position X du chunk
      * @param chunkY Position Y du chunk
@@ -262,28 +836,47 @@ public class WorldRenderer {
         if (chunkX >= 0 && chunkX < worldModel.getWorldSizeX() &&
             chunkY >= 0 && chunkY < worldModel.getWorldSizeY() &&
             chunkZ >= 0 && chunkZ < worldModel.getWorldSizeZ() &&
-            chunkRenderers[chunkX][chunkY][chunkZ] != null) {
-            
-            ChunkRenderer renderer = chunkRenderers[chunkX][chunkY][chunkZ];
-
-            // Conserver la référence à l'ancienne géométrie transparente
-            Geometry oldTransparentGeometry = renderer.getTransparentGeometry();
+            hasChunk(chunkX, chunkY, chunkZ)) {
+            requestChunkMesh(chunkX, chunkY, chunkZ);
+        }
+    }
 
-            // Mettre à jour le mesh
-            renderer.updateMesh();
+    /**
+     * Met à jour le maillage d'un chunk après la modification des blocs ou de l'éclairage d'une zone.
+     * Si le maillage affiché est à jour, seules les tranches touchées par la zone sont recalculées ;
+     * sinon (maillage pas encore reçu ou autre calcul en cours) le chunk est entièrement remaillé.
+     *
+     * @param chunkX Position X du chunk
+     * @param chunkY Position Y du chunk
+     * @param chunkZ Position Z du chunk
+     * @param minX Plus petite coordonnée X modifiée relative au chunk (de -1 à 32 pour un bloc d'un chunk voisin)
+     * @param minY Plus petite coordonnée Y modifiée relative au chunk
+     * @param minZ Plus petite coordonnée Z modifiée relative au chunk
+     * @param maxX Plus grande coordonnée X modifiée relative au chunk
+     * @param maxY Plus grande coordonnée Y modifiée relative au chunk
+     * @param maxZ Plus grande coordonnée Z modifiée relative au chunk
+     */
+    public void updateChunkMesh(int chunkX, int chunkY, int chunkZ,
+                                int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        if (chunkX < 0 || chunkX >= worldModel.getWorldSizeX() ||
+            chunkY < 0 || chunkY >= worldModel.getWorldSizeY() ||
+            chunkZ < 0 || chunkZ >= worldModel.getWorldSizeZ() ||
+            !hasChunk(chunkX, chunkY, chunkZ)) {
+            return;
+        }
 
-            // Gérer la nouvelle géométrie transparente
-            Geometry newTransparentGeometry = renderer.getTransparentGeometry();
+        ChunkMeshData previous = appliedMeshes[chunkX][chunkY][chunkZ];
+        int version = ++requestedVersions[chunkX][chunkY][chunkZ];
 
-            // Si une nouvelle géométrie transparente a été créée
-            if (oldTransparentGeometry == null && newTransparentGeometry != null) {
-                worldNode.attachChild(newTransparentGeometry);
-            }
-            // Si la géométrie transparente a été supprimée
-            else if (oldTransparentGeometry != null && newTransparentGeometry == null) {
-                worldNode.detachChild(oldTransparentGeometry);
-            }
+        // Le remaillage partiel n'est possible que si le maillage affiché est le résultat de la demande précédente
+        // et qu'il est au niveau de détail complet
+        int lodScale = LOD_SCALES[lodLevels[chunkX][chunkY][chunkZ]];
+        if (previous == null || previous.getVersion() != version - 1 || lodScale != 1) {
+            submitMeshTask(chunkX, chunkY, chunkZ, version, () -> chunkMesher.mesh(chunkX, chunkY, chunkZ, version, lodScale));
+            return;
         }
+        submitMeshTask(chunkX, chunkY, chunkZ, version,
+                       () -> chunkMesher.remesh(previous, minX, minY, minZ, maxX, maxY, maxZ, version));
     }
 
     /**
@@ -462,6 +1055,30 @@ public class WorldRenderer {
             updateAllMeshes();
         }
 
+        // Niveaux de détail selon la distance à la caméra
+        lodTimer += tpf;
+        if (lodTimer >= LOD_UPDATE_INTERVAL) {
+            lodTimer = 0f;
+            updateLevelsOfDetail();
+        }
+
+        // Envoi au GPU des maillages calculés en arrière-plan et autres tâches du thread de rendu,
+        // dans la limite du budget de la frame
+        if (camera != null) {
+            frameScheduler.setFocus(camera.getLocation());
+        }
+        applyCompletedMeshes();
+        if (regionBatcher != null) {
+            regionBatcher.applyCompletedMerges();
+        }
+        frameScheduler.runFrame();
+
+        // Masquage des chunks non reliés à la caméra
+        updateOcclusionCulling();
+
+        // Masquage des faces opaques tournées à l'opposé de la caméra
+        updateFaceCulling();
+
         // Met à jour le texte des coordonnées si nécessaire
         if (displayCoordinates) {
             updateCoordinatesText();
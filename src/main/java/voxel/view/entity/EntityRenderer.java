@@ -14,6 +14,7 @@ import com.jme3.scene.shape.Box;
 import voxel.model.entity.Entity;
 import voxel.model.entity.Player;
 import voxel.model.entity.animals.*;
+import voxel.view.MaterialRegistry;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -23,6 +24,7 @@ import java.util.Map;
 public class EntityRenderer {
 
     protected AssetManager assetManager;
+    protected MaterialRegistry materialRegistry;
     private Node entityNode;
     protected Entity entity;
     protected Geometry geometry;
@@ -42,8 +44,9 @@ public class EntityRenderer {
 
     private float scaleFactor = 1.0f;
 
-    public EntityRenderer(AssetManager assetManager, Entity entity) {
+    public EntityRenderer(AssetManager assetManager, MaterialRegistry materialRegistry, Entity entity) {
         this.assetManager = assetManager;
+        this.materialRegistry = materialRegistry;
         this.entity = entity;
         this.entityNode = new Node("entity_" + entity.hashCode());
         this.animations = new HashMap<>();
@@ -135,11 +138,8 @@ public class EntityRenderer {
         Box box = new Box(entity.getWidth() / 2, entity.getHeight() / 2, entity.getDepth() / 2);
         geometry = new Geometry("entity_geom", box);
 
-        // Créer un matériau selon le type d'entité
-        Material material = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-        // Matériau rouge pour les autres entités
-        material.setColor("Color", ColorRGBA.Red);
-        geometry.setMaterial(material);
+        // Matériau rouge (partagé) pour les autres entités
+        geometry.setMaterial(materialRegistry.getEntityMaterial(ColorRGBA.Red));
         entityNode.attachChild(geometry);
         System.out.println("Géométrie d'entité créée avec succès");
     }
@@ -179,29 +179,25 @@ public class EntityRenderer {
 
     /**
      * Applique un matériau non ombré à tous les géométries du modèle
-     * pour qu'il soit visible sans éclairage
+     * pour qu'il soit visible sans éclairage.
+     * Les matériaux viennent du registre : toutes les géométries d'une même texture partagent le leur.
      */
     private void applyUnshadedMaterials(Spatial spatial) {
         if (spatial instanceof Geometry) {
             Geometry geom = (Geometry) spatial;
-            Material unshadedMat = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
+            Material unshadedMat;
 
             // Si le matériau original a une texture, essayer de la réutiliser
             Material originalMat = geom.getMaterial();
             if (originalMat != null && originalMat.getParam("DiffuseMap") != null) {
-                unshadedMat.setTexture("ColorMap", originalMat.getTextureParam("DiffuseMap").getTextureValue());
+                unshadedMat = materialRegistry.getEntityMaterial(originalMat.getTextureParam("DiffuseMap").getTextureValue());
             } else if (originalMat != null && originalMat.getParam("BaseColorMap") != null) {
-                unshadedMat.setTexture("ColorMap", originalMat.getTextureParam("BaseColorMap").getTextureValue());
+                unshadedMat = materialRegistry.getEntityMaterial(originalMat.getTextureParam("BaseColorMap").getTextureValue());
             } else {
                 // Utiliser une couleur par défaut si pas de texture
-                unshadedMat.setColor("Color", ColorRGBA.White);
+                unshadedMat = materialRegistry.getEntityMaterial(ColorRGBA.White);
             }
 
-            // Désactiver la transparence qui peut causer des problèmes de rendu
-            unshadedMat.getAdditionalRenderState().setBlendMode(com.jme3.material.RenderState.BlendMode.Off);
-            unshadedMat.getAdditionalRenderState().setDepthTest(true);
-            unshadedMat.getAdditionalRenderState().setDepthWrite(true);
-
             // Fixer la queue de rendu pour éviter les conflits avec d'autres éléments
             geom.setQueueBucket(com.jme3.renderer.queue.RenderQueue.Bucket.Opaque);
 
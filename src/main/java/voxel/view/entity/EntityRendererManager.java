@@ -1,13 +1,17 @@
 package voxel.view.entity;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 import com.jme3.asset.AssetManager;
 import com.jme3.scene.Node;
 
 import voxel.model.entity.Entity;
 import voxel.model.entity.EntityManager;
+import voxel.utils.FrameScheduler;
+import voxel.view.MaterialRegistry;
 
 /**
  * Classe responsable de gérer tous les renderers d'entités.
@@ -23,18 +27,32 @@ public class EntityRendererManager {
     /** AssetManager pour accéder aux ressources */
     private AssetManager assetManager;
 
+    /** Matériaux partagés entre les entités */
+    private MaterialRegistry materialRegistry;
+
     /** Map associant chaque entité à son renderer */
     private Map<Entity, EntityRenderer> entityRenderers;
 
+    /** Ordonnanceur du thread de rendu qui crée les renderers (chargement des modèles) */
+    private FrameScheduler scheduler;
+
+    /** Entités dont la création du renderer est planifiée */
+    private Set<Entity> pendingEntities = new HashSet<>();
+
     /**
      * Crée un nouveau gestionnaire de renderers d'entités.
      *
      * @param entityManager Le gestionnaire d'entités du modèle
      * @param assetManager AssetManager pour accéder aux ressources
+     * @param materialRegistry Matériaux partagés entre les entités
+     * @param scheduler Ordonnanceur du thread de rendu qui crée les renderers
      */
-    public EntityRendererManager(EntityManager entityManager, AssetManager assetManager) {
+    public EntityRendererManager(EntityManager entityManager, AssetManager assetManager, MaterialRegistry materialRegistry,
+                                 FrameScheduler scheduler) {
         this.entityManager = entityManager;
         this.assetManager = assetManager;
+        this.materialRegistry = materialRegistry;
+        this.scheduler = scheduler;
         this.entitiesNode = new Node("entities");
         this.entityRenderers = new HashMap<>();
     }
@@ -70,7 +88,7 @@ public class EntityRendererManager {
     protected EntityRenderer createRendererForEntity(Entity entity) {
         // Par défaut, utilise un EntityRenderer standard
         // Cette méthode peut être surchargée pour créer des renderers spécifiques
-        return new EntityRenderer(assetManager, entity);
+        return new EntityRenderer(assetManager, materialRegistry, entity);
     }
 
     /**
@@ -96,10 +114,15 @@ public class EntityRendererManager {
      * Synchronise également avec le gestionnaire d'entités pour ajouter/supprimer des renderers.
      */
     public void update() {
-        // Ajouter des renderers pour les nouvelles entités
+        // Planifier la création des renderers des nouvelles entités (les plus proches de la caméra d'abord)
         for (Entity entity : entityManager.getEntities()) {
-            if (!entityRenderers.containsKey(entity)) {
-                addEntity(entity);
+            if (!entityRenderers.containsKey(entity) && pendingEntities.add(entity)) {
+                scheduler.submit((float) entity.getX(), (float) entity.getY(), (float) entity.getZ(), () -> {
+                    pendingEntities.remove(entity);
+                    if (entityManager.getEntities().contains(entity)) {
+                        addEntity(entity);
+                    }
+                });
             }
         }
 
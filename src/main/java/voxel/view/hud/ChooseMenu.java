@@ -20,6 +20,7 @@ import de.lessvoid.nifty.builder.TextBuilder;
 import de.lessvoid.nifty.controls.button.builder.ButtonBuilder;
 
 import voxel.controller.GameStateManager;
+import voxel.model.WorldModel;
 
 public class ChooseMenu extends AbstractGameMenu {
 
@@ -54,6 +55,9 @@ public class ChooseMenu extends AbstractGameMenu {
     // Référence au GameStateManager pour accéder au WorldModel
     private GameStateManager gameStateManager;
 
+    /** Aperçu du terrain correspondant aux paramètres sélectionnés */
+    private WorldPreview apercu;
+
     /**
      * Constructeur du menu de choix
      * @param app L'application SimpleApplication
@@ -700,6 +704,14 @@ public class ChooseMenu extends AbstractGameMenu {
             }
         }
         
+        // Aperçu du terrain à droite des cases
+        float tailleApercu = hauteurEcran * 0.4f;
+        if (apercu == null) {
+            apercu = new WorldPreview(app, tailleApercu);
+        }
+        apercu.attach(xDepart + largeurTotale + 80, hauteurEcran * 0.30f);
+        rafraichirApercu();
+
         // Ajouter le listener de clic une seule fois
         if (!listenersAjoutes) {
             ajouterListenerClics();
@@ -756,6 +768,34 @@ public class ChooseMenu extends AbstractGameMenu {
             cocherCase(caseIndex, x, y, parametre);
             cocheTemporaire[parametre][caseIndex] = true;
             selectionsTemporaires[parametre] = caseIndex;
+            rafraichirApercu();
+        }
+    }
+
+    /**
+     * Relance le calcul de l'aperçu avec les sélections temporaires (valeur par défaut 2 si non sélectionné).
+     */
+    private void rafraichirApercu() {
+        if (apercu == null) {
+            return;
+        }
+        int[] valeurs = new int[NOMBREPARAMETRES];
+        for (int i = 0; i < NOMBREPARAMETRES; i++) {
+            valeurs[i] = selectionsTemporaires[i] >= 0 ? selectionsTemporaires[i] : 2;
+        }
+        int[] taillesMonde = {8, 16, 32};
+        apercu.setParameters(valeurs[0], valeurs[1], valeurs[2], taillesMonde[getTailleMondeSelectionnee()],
+                             WorldModel.DEFAULT_WORLD_HEIGHT);
+    }
+
+    /**
+     * Met à jour le menu à chaque frame (calcul progressif de l'aperçu).
+     *
+     * @param tpf Temps écoulé depuis la dernière frame
+     */
+    public void update(float tpf) {
+        if (apercu != null) {
+            apercu.update(tpf);
         }
     }
 
@@ -783,7 +823,10 @@ public class ChooseMenu extends AbstractGameMenu {
                 titres[parametre] = null;
             }
         }
-        
+
+        if (apercu != null) {
+            apercu.detach();
+        }
     }
 
     private void decocherCase(int parametre, int colonne) {
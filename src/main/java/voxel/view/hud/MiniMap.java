@@ -0,0 +1,244 @@
+package voxel.view.hud;
+
+import com.jme3.app.SimpleApplication;
+import com.jme3.material.Material;
+import com.jme3.math.ColorRGBA;
+import com.jme3.math.Vector3f;
+import com.jme3.renderer.Camera;
+import com.jme3.scene.Geometry;
+import com.jme3.scene.Node;
+import com.jme3.scene.VertexBuffer;
+import com.jme3.scene.shape.Quad;
+import com.jme3.texture.Image;
+import com.jme3.texture.Texture;
+import com.jme3.texture.Texture2D;
+import com.jme3.texture.image.ColorSpace;
+import com.jme3.util.BufferUtils;
+import voxel.model.BlockType;
+import voxel.model.ChunkModel;
+import voxel.model.WorldModel;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+/**
+ * Minimap vue de dessus, affichée en haut à droite de l'écran.
+ * Chaque pixel est une colonne du monde : couleur du bloc le plus haut, assombrie selon son altitude.
+ * L'image est un tampon circulaire (la colonne x, z est au pixel x mod N, z mod N, texture répétée) :
+ * quand le joueur se déplace, seules les colonnes qui entrent dans la carte sont calculées, et la fenêtre
+ * affichée est décalée par les coordonnées de texture. Les colonnes modifiées sont recalculées via
+ * {@link #blockChanged(int, int, int)}. Aucune vue 3D supplémentaire n'est rendue.
+ */
+public class MiniMap {
+    /** Côté de la carte, en blocs et en pixels */
+    private static final int MAP_SIZE = 128;
+
+    /** Taille d'affichage, en fraction de la hauteur de l'écran */
+    private static final float DISPLAY_FRACTION = 0.22f;
+
+    /** Marge avec le bord de l'écran, en pixels */
+    private static final float MARGIN = 10f;
+
+    /** Côté du repère du joueur, en pixels écran */
+    private static final float MARKER_SIZE = 5f;
+
+    /** Couleur des colonnes sans bloc (ciel) */
+    private static final ColorRGBA BACKGROUND = new ColorRGBA(135 / 255f, 206 / 255f, 235 / 255f, 1f);
+
+    private final WorldModel worldModel;
+    private final Node guiNode;
+    private final Node node = new Node("MiniMap");
+    private final Image image;
+    private final ByteBuffer pixels;
+
+    /** Coordonnées de texture du quad de la carte (4 sommets) */
+    private final VertexBuffer texCoords;
+
+    /** Hauteur de terrain correspondant à la luminosité maximale */
+    private final float maxShadeHeight;
+
+    /** Première colonne (x, z) de la fenêtre chargée dans l'image */
+    private int originX = Integer.MIN_VALUE;
+    private int originZ = Integer.MIN_VALUE;
+
+    /** Colonnes modifiées à recalculer (indices de pixel), sans doublon grâce à dirtyPixels */
+    private final boolean[] dirtyPixels = new boolean[MAP_SIZE * MAP_SIZE];
+    private final int[] dirtyQueue = new int[MAP_SIZE * MAP_SIZE];
+    private int dirtyCount = 0;
+
+    /**
+     * Crée la minimap d'un monde et l'affiche dans l'interface.
+     *
+     * @param app L'application
+     * @param worldModel Le monde représenté
+     */
+    public MiniMap(SimpleApplication app, WorldModel worldModel) {
+        this.worldModel = worldModel;
+        this.guiNode = app.getGuiNode();
+        this.maxShadeHeight = worldModel.getWorldSizeY() * ChunkModel.SIZE;
+        this.pixels = BufferUtils.createByteBuffer(MAP_SIZE * MAP_SIZE * 4);
+        this.image = new Image(Image.Format.RGBA8, MAP_SIZE, MAP_SIZE, pixels, ColorSpace.Linear);
+
+        // Texture répétée : la fenêtre affichée peut chevaucher le bord du tampon circulaire
+        Texture2D texture = new Texture2D(image);
+        texture.setMagFilter(Texture.MagFilter.Nearest);
+        texture.setMinFilter(Texture.MinFilter.NearestNoMipMaps);
+        texture.setWrap(Texture.WrapMode.Repeat);
+
+        Material material = new Material(app.getAssetManager(), "Common/MatDefs/Misc/Unshaded.j3md");
+        material.setTexture("ColorMap", texture);
+
+        Camera camera = app.getCamera();
+        float displaySize = camera.getHeight() * DISPLAY_FRACTION;
+        Quad quad = new Quad(displaySize, displaySize);
+        this.texCoords = quad.getBuffer(VertexBuffer.Type.TexCoord);
+        Geometry map = new Geometry("MiniMapImage", quad);
+        map.setMaterial(material);
+        node.attachChild(map);
+
+        // Repère du joueur, au centre de la carte
+        Material markerMaterial = new Material(app.getAssetManager(), "Common/MatDefs/Misc/Unshaded.j3md");
+        markerMaterial.setColor("Color", ColorRGBA.Red);
+        Geometry marker = new Geometry("MiniMapPlayer", new Quad(MARKER_SIZE, MARKER_SIZE));
+        marker.setMaterial(markerMaterial);
+        marker.setLocalTranslation((displaySize - MARKER_SIZE) / 2, (displaySize - MARKER_SIZE) / 2, 1);
+        node.attachChild(marker);
+
+        node.setLocalTranslation(camera.getWidth() - MARGIN - displaySize, camera.getHeight() - MARGIN - displaySize, 0);
+        guiNode.attachChild(node);
+    }
+
+    /**
+     * Retire la minimap de l'interface.
+     */
+    public void dispose() {
+        guiNode.detachChild(node);
+    }
+
+    /**
+     * Signale la modification d'un bloc : sa colonne sera recalculée à la prochaine mise à jour.
+     *
+     * @param x Coordonnée X globale du bloc
+     * @param y Coordonnée Y globale du bloc
+     * @param z Coordonnée Z globale du bloc
+     */
+    public void blockChanged(int x, int y, int z) {
+        if (originX == Integer.MIN_VALUE || x < originX || x >= originX + MAP_SIZE
+                || z < originZ || z >= originZ + MAP_SIZE) {
+            return;
+        }
+        int pixel = pixelIndex(x, z);
+        if (!dirtyPixels[pixel]) {
+            dirtyPixels[pixel] = true;
+            dirtyQueue[dirtyCount++] = pixel;
+        }
+    }
+
+    /**
+     * Centre la carte sur le joueur : calcule les colonnes entrées dans la fenêtre et celles modifiées,
+     * puis envoie l'image au GPU si elle a changé.
+     *
+     * @param playerPosition Position du joueur (ou de la caméra)
+     */
+    public void update(Vector3f playerPosition) {
+        if (playerPosition == null) {
+            return;
+        }
+        int newOriginX = (int) Math.floor(playerPosition.x) - MAP_SIZE / 2;
+        int newOriginZ = (int) Math.floor(playerPosition.z) - MAP_SIZE / 2;
+        boolean changed = false;
+
+        if (newOriginX != originX || newOriginZ != originZ) {
+            boolean overlaps = originX != Integer.MIN_VALUE
+                    && Math.abs(newOriginX - originX) < MAP_SIZE && Math.abs(newOriginZ - originZ) < MAP_SIZE;
+            for (int x = newOriginX; x < newOriginX + MAP_SIZE; x++) {
+                boolean columnLoaded = overlaps && x >= originX && x < originX + MAP_SIZE;
+                for (int z = newOriginZ; z < newOriginZ + MAP_SIZE; z++) {
+                    // Colonne déjà présente dans l'image : rien à recalculer
+                    if (columnLoaded && z >= originZ && z < originZ + MAP_SIZE) {
+                        continue;
+                    }
+                    writeColumn(x, z);
+                }
+            }
+            originX = newOriginX;
+            originZ = newOriginZ;
+            updateTexCoords();
+            changed = true;
+        }
+
+        for (int i = 0; i < dirtyCount; i++) {
+            int pixel = dirtyQueue[i];
+            dirtyPixels[pixel] = false;
+            // Colonne de la fenêtre courante qui occupe ce pixel
+            int x = originX + Math.floorMod(pixel % MAP_SIZE - originX, MAP_SIZE);
+            int z = originZ + Math.floorMod(pixel / MAP_SIZE - originZ, MAP_SIZE);
+            writeColumn(x, z);
+            changed = true;
+        }
+        dirtyCount = 0;
+
+        if (changed) {
+            image.setUpdateNeeded();
+        }
+    }
+
+    /**
+     * Décale la fenêtre affichée sur l'origine courante. L'axe Z du monde est vers le bas de la carte.
+     */
+    private void updateTexCoords() {
+        float u0 = Math.floorMod(originX, MAP_SIZE) / (float) MAP_SIZE;
+        float v0 = Math.floorMod(originZ, MAP_SIZE) / (float) MAP_SIZE;
+        FloatBuffer buffer = (FloatBuffer) texCoords.getData();
+        buffer.clear();
+        buffer.put(u0).put(v0 + 1f);
+        buffer.put(u0 + 1f).put(v0 + 1f);
+        buffer.put(u0 + 1f).put(v0);
+        buffer.put(u0).put(v0);
+        buffer.flip();
+        texCoords.updateData(buffer);
+    }
+
+    private int pixelIndex(int x, int z) {
+        return Math.floorMod(z, MAP_SIZE) * MAP_SIZE + Math.floorMod(x, MAP_SIZE);
+    }
+
+    /**
+     * Écrit la couleur d'une colonne : couleur du bloc le plus haut, assombrie selon l'altitude.
+     * Les chunks vides sont sautés d'un coup.
+     */
+    private void writeColumn(int x, int z) {
+        final int SIZE = ChunkModel.SIZE;
+        int chunkX = Math.floorDiv(x, SIZE);
+        int chunkZ = Math.floorDiv(z, SIZE);
+        int cx = chunkX + worldModel.getWorldSizeX() / 2;
+        int cz = chunkZ + worldModel.getWorldSizeZ() / 2;
+        int localX = x - chunkX * SIZE;
+        int localZ = z - chunkZ * SIZE;
+
+        ColorRGBA color = BACKGROUND;
+        float shade = 1.0f;
+        for (int cy = worldModel.getWorldSizeY() - 1; cy >= 0 && color == BACKGROUND; cy--) {
+            ChunkModel chunk = worldModel.getChunk(cx, cy, cz);
+            if (chunk == null || chunk.isEmpty()) {
+                continue;
+            }
+            for (int localY = SIZE - 1; localY >= 0; localY--) {
+                int blockId = chunk.getBlock(localX, localY, localZ);
+                if (blockId > BlockType.AIR.getId() && blockId != BlockType.CLOUD.getId()) {
+                    BlockType top = BlockType.fromId(blockId);
+                    color = top.getColor();
+                    float height = cy * SIZE + localY;
+                    shade = top.isWater() ? 1.0f : 0.55f + 0.45f * Math.max(0f, Math.min(1f, height / maxShadeHeight));
+                    break;
+                }
+            }
+        }
+
+        int index = pixelIndex(x, z) * 4;
+        pixels.put(index, (byte) (Math.min(1f, color.r * shade) * 255));
+        pixels.put(index + 1, (byte) (Math.min(1f, color.g * shade) * 255));
+        pixels.put(index + 2, (byte) (Math.min(1f, color.b * shade) * 255));
+        pixels.put(index + 3, (byte) 255);
+    }
+}
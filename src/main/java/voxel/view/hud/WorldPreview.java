@@ -0,0 +1,150 @@
+package voxel.view.hud;
+
+import com.jme3.app.SimpleApplication;
+import com.jme3.material.Material;
+import com.jme3.math.ColorRGBA;
+import com.jme3.scene.Geometry;
+import com.jme3.scene.shape.Quad;
+import com.jme3.texture.Image;
+import com.jme3.texture.Texture;
+import com.jme3.texture.Texture2D;
+import com.jme3.texture.image.ColorSpace;
+import com.jme3.util.BufferUtils;
+import voxel.model.BiomeType;
+import voxel.model.BlockType;
+import voxel.model.ChunkModel;
+import voxel.model.TerrainGenerator;
+import voxel.model.WorldModel;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Aperçu basse résolution du monde affiché dans le menu de sélection.
+ * La hauteur de chaque point est calculée avec le même TerrainGenerator que la génération complète,
+ * sur une grille clairsemée (un bloc sur quatre pour un monde moyen), puis colorée selon le bloc du dessus.
+ * Le calcul est réparti sur plusieurs frames avec un budget de temps par frame.
+ */
+public class WorldPreview {
+    /** Résolution de l'aperçu en pixels (carré) */
+    private static final int RESOLUTION = 128;
+
+    /** Budget de calcul par frame en nanosecondes */
+    private static final long FRAME_BUDGET_NANOS = 3_000_000L;
+
+    /** Hauteur de terrain correspondant à la luminosité maximale */
+    private static final float MAX_SHADE_HEIGHT = 250f;
+
+    private final SimpleApplication app;
+    private final Image image;
+    private final ByteBuffer pixels;
+    private final Geometry geometry;
+
+    /** Générateur utilisé pour l'aperçu en cours (null si aucun) */
+    private TerrainGenerator generator;
+
+    /** Nombre de blocs du monde entre deux échantillons */
+    private int step;
+
+    /** Hauteur du monde en blocs : les hauteurs de terrain sont limitées comme lors de la génération */
+    private int totalWorldHeight;
+
+    /** Prochaine ligne de l'image à calculer */
+    private int nextRow = RESOLUTION;
+
+    /**
+     * Crée l'aperçu (non attaché à l'interface).
+     *
+     * @param app L'application
+     * @param displaySize Taille d'affichage en pixels écran
+     */
+    public WorldPreview(SimpleApplication app, float displaySize) {
+        this.app = app;
+        this.pixels = BufferUtils.createByteBuffer(RESOLUTION * RESOLUTION * 4);
+        this.image = new Image(Image.Format.RGBA8, RESOLUTION, RESOLUTION, pixels, ColorSpace.Linear);
+
+        Texture2D texture = new Texture2D(image);
+        texture.setMagFilter(Texture.MagFilter.Nearest);
+        texture.setMinFilter(Texture.MinFilter.NearestNoMipMaps);
+
+        Material material = new Material(app.getAssetManager(), "Common/MatDefs/Misc/Unshaded.j3md");
+        material.setTexture("ColorMap", texture);
+
+        geometry = new Geometry("WorldPreview", new Quad(displaySize, displaySize));
+        geometry.setMaterial(material);
+    }
+
+    /**
+     * Affiche l'aperçu à la position donnée de l'interface.
+     */
+    public void attach(float x, float y) {
+        geometry.setLocalTranslation(x, y, 0);
+        app.getGuiNode().attachChild(geometry);
+    }
+
+    /**
+     * Retire l'aperçu de l'interface et abandonne le calcul en cours.
+     */
+    public void detach() {
+        app.getGuiNode().detachChild(geometry);
+        generator = null;
+    }
+
+    /**
+     * Relance le calcul de l'aperçu pour de nouveaux paramètres.
+     *
+     * @param temperature Niveau de température (0-4)
+     * @param humidity Niveau d'humidité (0-4)
+     * @param reliefComplexity Niveau de complexité du relief (0-4)
+     * @param worldSize Taille du monde en chunks (axes X et Z)
+     * @param worldSizeY Hauteur du monde en chunks
+     */
+    public void setParameters(int temperature, int humidity, int reliefComplexity, int worldSize, int worldSizeY) {
+        BiomeType biome = BiomeType.createBiome(temperature, humidity, reliefComplexity);
+        generator = new TerrainGenerator(WorldModel.DEFAULT_WORLD_SEED, biome, temperature, humidity, reliefComplexity);
+        step = Math.max(1, worldSize * ChunkModel.SIZE / RESOLUTION);
+        totalWorldHeight = worldSizeY * ChunkModel.SIZE;
+        nextRow = 0;
+    }
+
+    /**
+     * Calcule de nouvelles lignes de l'aperçu tant que le budget de la frame le permet.
+     *
+     * @param tpf Temps écoulé depuis la dernière frame
+     */
+    public void update(float tpf) {
+        if (generator == null || nextRow >= RESOLUTION) {
+            return;
+        }
+
+        long deadline = System.nanoTime() + FRAME_BUDGET_NANOS;
+        float origin = -(RESOLUTION * step) / 2f;
+        while (nextRow < RESOLUTION && System.nanoTime() < deadline) {
+            float worldZ = origin + nextRow * step;
+            for (int px = 0; px < RESOLUTION; px++) {
+                float worldX = origin + px * step;
+                // Même limite que WorldModel : le monde tronque les colonnes qui le dépassent
+                int height = Math.max(0, Math.min(generator.getTerrainHeight(worldX, worldZ), totalWorldHeight - 1));
+                writePixel(px, nextRow, height);
+            }
+            nextRow++;
+        }
+        image.setUpdateNeeded();
+    }
+
+    /**
+     * Écrit la couleur d'un point : couleur du bloc du dessus, assombrie selon l'altitude.
+     */
+    private void writePixel(int px, int row, int height) {
+        BlockType top = generator.getTopBlock(height);
+        ColorRGBA color = top.getColor();
+        float shade = top.isWater()
+                ? 1.0f
+                : 0.55f + 0.45f * Math.max(0f, Math.min(1f, height / MAX_SHADE_HEIGHT));
+
+        int index = (row * RESOLUTION + px) * 4;
+        pixels.put(index, (byte) (Math.min(1f, color.r * shade) * 255));
+        pixels.put(index + 1, (byte) (Math.min(1f, color.g * shade) * 255));
+        pixels.put(index + 2, (byte) (Math.min(1f, color.b * shade) * 255));
+        pixels.put(index + 3, (byte) 255);
+    }
+}